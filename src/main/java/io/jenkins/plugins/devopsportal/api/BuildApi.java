@@ -1,6 +1,7 @@
 package io.jenkins.plugins.devopsportal.api;
 
 import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
 import hudson.model.Failure;
 import hudson.model.RootAction;
@@ -9,8 +10,10 @@ import io.jenkins.plugins.devopsportal.models.ApplicationBuildStatus;
 import jenkins.model.Jenkins;
 import org.kohsuke.stapler.HttpRedirect;
 import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.HttpResponses;
 import org.kohsuke.stapler.QueryParameter;
 import org.kohsuke.stapler.WebMethod;
+import org.kohsuke.stapler.verb.GET;
 import org.kohsuke.stapler.verb.POST;
 
 /**
@@ -54,4 +57,27 @@ public class BuildApi implements RootAction {
         return new Failure(Messages.FormValidation_Error_Unauthorized());
     }
 
+    /**
+     * Get a build status evicted by the retention policy, as stored in the archive.
+     */
+    @GET
+    @WebMethod(name = "archived-build-status")
+    public HttpResponse getArchivedBuildStatus(@QueryParameter(required = true) String application,
+                                               @QueryParameter(required = true) String version) {
+        if (!Jenkins.get().hasPermission(Jenkins.READ)) {
+            return new Failure(Messages.FormValidation_Error_Unauthorized());
+        }
+        return getDescriptor()
+                .getArchivedBuildStatus(application, version)
+                .map(BuildApi::xmlResponse)
+                .orElseGet(HttpResponses::notFound);
+    }
+
+    static HttpResponse xmlResponse(@NonNull Object object) {
+        return (req, rsp, node) -> {
+            rsp.setContentType("application/xml;charset=UTF-8");
+            Jenkins.XSTREAM2.toXML(object, rsp.getWriter());
+        };
+    }
+
 }
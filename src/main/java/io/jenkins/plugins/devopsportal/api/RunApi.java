@@ -11,6 +11,7 @@ import org.kohsuke.stapler.HttpRedirect;
 import org.kohsuke.stapler.HttpResponse;
 import org.kohsuke.stapler.QueryParameter;
 import org.kohsuke.stapler.WebMethod;
+import org.kohsuke.stapler.verb.GET;
 import org.kohsuke.stapler.verb.POST;
 
 /**
@@ -55,4 +56,16 @@ public class RunApi implements RootAction {
         return new Failure(Messages.FormValidation_Error_Unauthorized());
     }
 
+    /**
+     * Get the deployments of a service evicted by the retention policy, most recent first.
+     */
+    @GET
+    @WebMethod(name = "archived-operations")
+    public HttpResponse getArchivedOperations(@QueryParameter(required = true) String service) {
+        if (!Jenkins.get().hasPermission(Jenkins.READ)) {
+            return new Failure(Messages.FormValidation_Error_Unauthorized());
+        }
+        return BuildApi.xmlResponse(getDescriptor().getArchivedDeploymentsByService(service));
+    }
+
 }
@@ -0,0 +1,179 @@
+package io.jenkins.plugins.devopsportal.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.UnprotectedRootAction;
+import hudson.security.csrf.CrumbExclusion;
+import io.jenkins.plugins.devopsportal.workers.SonarQubeCheckPeriodicWork;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.HttpResponses;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.interceptor.RequirePOST;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Receiver of the SonarQube webhooks, notifying that the analysis of a project was processed, so that the
+ * quality audits waiting for this project are fetched right away.
+ *
+ * The webhook must be declared in SonarQube with the URL: {@code <jenkins>/sonar-webhook/}, and the secret set in
+ * {@link SonarWebhookConfiguration}: payloads are rejected until a secret is configured, or if their signature is
+ * invalid. Only successful analyses are taken into account.
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+@Extension
+public class SonarWebhookApi implements UnprotectedRootAction {
+
+    private static final Logger LOGGER = Logger.getLogger("io.jenkins.plugins.devopsportal");
+
+    public static final String URL_NAME = "sonar-webhook";
+
+    private static final String SIGNATURE_HEADER = "X-Sonar-Webhook-HMAC-SHA256";
+    private static final int MAX_PAYLOAD_SIZE = 1024 * 1024;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @CheckForNull
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    @CheckForNull
+    @Override
+    public String getDisplayName() {
+        return null;
+    }
+
+    @Override
+    public String getUrlName() {
+        return URL_NAME;
+    }
+
+    @RequirePOST
+    public HttpResponse doIndex(StaplerRequest req) throws IOException {
+        final byte[] payload = readPayload(req.getInputStream());
+        if (payload == null) {
+            return HttpResponses.error(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, "Payload too large");
+        }
+        final int status = process(payload, req.getHeader(SIGNATURE_HEADER));
+        return status == HttpServletResponse.SC_OK ? HttpResponses.ok() : HttpResponses.status(status);
+    }
+
+    /**
+     * Process a webhook payload.
+     *
+     * @return the HTTP status of the response
+     */
+    int process(@NonNull byte[] payload, String signature) {
+        final String secret = SonarWebhookConfiguration.get().getSecretValue();
+        if (secret == null) {
+            LOGGER.warning("Rejected SonarQube webhook: no secret is configured");
+            return HttpServletResponse.SC_FORBIDDEN;
+        }
+        if (!isSignatureValid(payload, signature, secret)) {
+            LOGGER.warning("Rejected SonarQube webhook: invalid signature");
+            return HttpServletResponse.SC_FORBIDDEN;
+        }
+        final JsonNode json;
+        try {
+            json = MAPPER.readTree(payload);
+        }
+        catch (IOException ex) {
+            return HttpServletResponse.SC_BAD_REQUEST;
+        }
+        final String projectKey = json.path("project").path("key").asText("");
+        if (projectKey.isEmpty()) {
+            return HttpServletResponse.SC_BAD_REQUEST;
+        }
+        final String taskId = json.path("taskId").asText(null);
+        final String analysisStatus = json.path("status").asText();
+        if (!"SUCCESS".equals(analysisStatus)) {
+            // The data of the previous analysis would be fetched: pending items are left to the polling
+            LOGGER.log(Level.FINE, "Ignored SonarQube webhook: project=''{0}'' task={1} status={2}",
+                    new Object[] { projectKey, taskId, analysisStatus });
+            return HttpServletResponse.SC_OK;
+        }
+        final int count = ExtensionList.lookupSingleton(SonarQubeCheckPeriodicWork.class)
+                .notifyAnalysis(projectKey, taskId);
+        LOGGER.log(Level.FINE, "SonarQube webhook: project=''{0}'' task={1} => {2} item(s)",
+                new Object[] { projectKey, taskId, count });
+        return HttpServletResponse.SC_OK;
+    }
+
+    /**
+     * @return the request body, or null if it exceeds the maximum size
+     */
+    private static byte[] readPayload(InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (out.size() + read > MAX_PAYLOAD_SIZE) {
+                return null;
+            }
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    static boolean isSignatureValid(byte[] payload, String signature, String secret) {
+        if (signature == null) {
+            return false;
+        }
+        try {
+            final Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            final StringBuilder expected = new StringBuilder();
+            for (byte b : mac.doFinal(payload)) {
+                expected.append(String.format("%02x", b));
+            }
+            return MessageDigest.isEqual(
+                    expected.toString().getBytes(StandardCharsets.US_ASCII),
+                    signature.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII)
+            );
+        }
+        catch (GeneralSecurityException ex) {
+            LOGGER.log(Level.WARNING, "Unable to check SonarQube webhook signature", ex);
+            return false;
+        }
+    }
+
+    /**
+     * SonarQube can't provide a crumb: the webhook is authenticated by its signature.
+     */
+    @Extension
+    public static class CrumbExclusionImpl extends CrumbExclusion {
+
+        @Override
+        public boolean process(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws IOException, ServletException {
+            final String pathInfo = request.getPathInfo();
+            if (pathInfo != null && (pathInfo.equals("/" + URL_NAME) || pathInfo.startsWith("/" + URL_NAME + "/"))) {
+                chain.doFilter(request, response);
+                return true;
+            }
+            return false;
+        }
+
+    }
+
+}
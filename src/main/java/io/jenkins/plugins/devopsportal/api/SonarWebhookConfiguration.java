@@ -0,0 +1,57 @@
+package io.jenkins.plugins.devopsportal.api;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.util.Secret;
+import io.jenkins.plugins.devopsportal.Messages;
+import jenkins.model.GlobalConfiguration;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundSetter;
+
+/**
+ * Global configuration of the SonarQube webhook: the secret used to sign its payloads.
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+@Extension
+@Symbol("devopsPortalSonarWebhook")
+public class SonarWebhookConfiguration extends GlobalConfiguration {
+
+    private Secret secret;
+
+    public SonarWebhookConfiguration() {
+        load();
+    }
+
+    public static SonarWebhookConfiguration get() {
+        return ExtensionList.lookupSingleton(SonarWebhookConfiguration.class);
+    }
+
+    @NonNull
+    @Override
+    public String getDisplayName() {
+        return Messages.SonarWebhookConfiguration_DisplayName();
+    }
+
+    public Secret getSecret() {
+        return secret;
+    }
+
+    @DataBoundSetter
+    public void setSecret(Secret secret) {
+        this.secret = secret;
+        save();
+    }
+
+    /**
+     * @return the secret of the webhook, or null if it is not configured
+     */
+    @CheckForNull
+    public String getSecretValue() {
+        final String value = Secret.toString(secret);
+        return value.isEmpty() ? null : value;
+    }
+
+}
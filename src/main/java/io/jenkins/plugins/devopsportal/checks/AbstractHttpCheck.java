@@ -0,0 +1,60 @@
+package io.jenkins.plugins.devopsportal.checks;
+
+import hudson.model.Descriptor;
+import hudson.util.FormValidation;
+import io.jenkins.plugins.devopsportal.Messages;
+import org.kohsuke.stapler.QueryParameter;
+
+/**
+ * Base class of the HTTP checks, which expect a response status in a range.
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+public abstract class AbstractHttpCheck extends ServiceCheck {
+
+    private final int minStatus;
+    private final int maxStatus;
+
+    protected AbstractHttpCheck(int minStatus, int maxStatus) {
+        this.minStatus = minStatus;
+        this.maxStatus = maxStatus;
+    }
+
+    public int getMinStatus() {
+        return minStatus;
+    }
+
+    public int getMaxStatus() {
+        return maxStatus;
+    }
+
+    protected void checkStatus(int status) throws ServiceCheckException {
+        if (status < minStatus || status > maxStatus) {
+            throw new ServiceCheckException(Messages.ServiceMonitoring_Error_InvalidHttpResponse()
+                    .replace("%status%", "" + status));
+        }
+    }
+
+    public abstract static class AbstractHttpCheckDescriptor extends Descriptor<ServiceCheck> {
+
+        @SuppressWarnings("unused")
+        public int getDefaultMinStatus() {
+            return 200;
+        }
+
+        @SuppressWarnings("unused")
+        public int getDefaultMaxStatus() {
+            return 299;
+        }
+
+        @SuppressWarnings("unused")
+        public FormValidation doCheckMaxStatus(@QueryParameter int minStatus, @QueryParameter int maxStatus) {
+            if (minStatus < 100 || maxStatus > 599 || minStatus > maxStatus) {
+                return FormValidation.error(Messages.FormValidation_Error_InvalidValue());
+            }
+            return FormValidation.ok();
+        }
+
+    }
+
+}
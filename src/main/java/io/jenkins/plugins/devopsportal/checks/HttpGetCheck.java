@@ -0,0 +1,209 @@
+package io.jenkins.plugins.devopsportal.checks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.util.FormValidation;
+import io.jenkins.plugins.devopsportal.Messages;
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.entity.ContentType;
+import org.apache.http.util.EntityUtils;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Check sending a GET request, with optional assertions on the response body.
+ *
+ * At most {@code maxBodySize} bytes of the body are read: when the body is larger, the connection is closed
+ * instead of being drained. The body can be expected to contain a text, or to be a JSON document with a
+ * value at a JSON pointer (RFC 6901, like {@code /status} or {@code /checks/0/state}).
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+public class HttpGetCheck extends AbstractHttpCheck {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static final int DEFAULT_MAX_BODY_SIZE = 65536; // bytes
+
+    private int maxBodySize = DEFAULT_MAX_BODY_SIZE;
+    private String expectedContent;
+    private String jsonPointer;
+    private String expectedValue;
+
+    @DataBoundConstructor
+    public HttpGetCheck(int minStatus, int maxStatus) {
+        super(minStatus, maxStatus);
+    }
+
+    public int getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    @DataBoundSetter
+    public void setMaxBodySize(int maxBodySize) {
+        this.maxBodySize = maxBodySize > 0 ? maxBodySize : DEFAULT_MAX_BODY_SIZE;
+    }
+
+    public String getExpectedContent() {
+        return expectedContent;
+    }
+
+    @DataBoundSetter
+    public void setExpectedContent(String expectedContent) {
+        this.expectedContent = expectedContent == null || expectedContent.isEmpty() ? null : expectedContent;
+    }
+
+    public String getJsonPointer() {
+        return jsonPointer;
+    }
+
+    @DataBoundSetter
+    public void setJsonPointer(String jsonPointer) {
+        this.jsonPointer = jsonPointer == null || jsonPointer.trim().isEmpty() ? null : jsonPointer.trim();
+    }
+
+    public String getExpectedValue() {
+        return expectedValue;
+    }
+
+    @DataBoundSetter
+    public void setExpectedValue(String expectedValue) {
+        this.expectedValue = expectedValue == null || expectedValue.isEmpty() ? null : expectedValue;
+    }
+
+    @Override
+    public void check(ServiceCheckContext context) throws IOException, ServiceCheckException {
+        final HttpGet request = new HttpGet(context.getHttpUrl());
+        try (CloseableHttpResponse response = context.execute(request)) {
+            final String body = readBody(request, response.getEntity());
+            checkStatus(response.getStatusLine().getStatusCode());
+            if (expectedContent != null && (body == null || !body.contains(expectedContent))) {
+                throw new ServiceCheckException(Messages.ServiceMonitoring_Error_UnexpectedContent()
+                        .replace("%expected%", expectedContent));
+            }
+            if (jsonPointer != null) {
+                checkJson(body);
+            }
+        }
+    }
+
+    /**
+     * @return the beginning of the body, or null if there is none
+     */
+    private String readBody(HttpGet request, HttpEntity entity) throws IOException {
+        if (entity == null) {
+            return null;
+        }
+        final InputStream in = entity.getContent();
+        if (in == null) {
+            return null;
+        }
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        final byte[] chunk = new byte[4096];
+        int read = 0;
+        while (read != -1 && buffer.size() < maxBodySize) {
+            read = in.read(chunk, 0, Math.min(chunk.length, maxBodySize - buffer.size()));
+            if (read > 0) {
+                buffer.write(chunk, 0, read);
+            }
+        }
+        if (read == -1 || in.read() == -1) {
+            // Fully read: the connection can be reused
+            EntityUtils.consume(entity);
+        }
+        else {
+            // Larger bodies are not drained, the connection is discarded instead
+            request.abort();
+        }
+        final Charset charset = ContentType.getOrDefault(entity).getCharset();
+        return new String(buffer.toByteArray(), charset != null ? charset : StandardCharsets.UTF_8);
+    }
+
+    private void checkJson(String body) throws ServiceCheckException {
+        final JsonNode node;
+        try {
+            node = body == null ? null : MAPPER.readTree(body).at(jsonPointer);
+        }
+        catch (JsonProcessingException | IllegalArgumentException ex) {
+            throw new ServiceCheckException(Messages.ServiceMonitoring_Error_UnexpectedJsonValue()
+                    .replace("%pointer%", jsonPointer)
+                    .replace("%value%", ex.getClass().getSimpleName()));
+        }
+        if (node == null || node.isMissingNode()) {
+            throw new ServiceCheckException(Messages.ServiceMonitoring_Error_UnexpectedJsonValue()
+                    .replace("%pointer%", jsonPointer)
+                    .replace("%value%", "-"));
+        }
+        if (expectedValue != null && !expectedValue.equals(node.isValueNode() ? node.asText() : node.toString())) {
+            throw new ServiceCheckException(Messages.ServiceMonitoring_Error_UnexpectedJsonValue()
+                    .replace("%pointer%", jsonPointer)
+                    .replace("%value%", node.isValueNode() ? node.asText() : node.toString()));
+        }
+    }
+
+    @Override
+    public boolean equals(final Object that) {
+        if (this == that) return true;
+        if (that == null || getClass() != that.getClass()) return false;
+        final HttpGetCheck other = (HttpGetCheck) that;
+        return new EqualsBuilder()
+                .append(getMinStatus(), other.getMinStatus())
+                .append(getMaxStatus(), other.getMaxStatus())
+                .append(maxBodySize, other.maxBodySize)
+                .append(expectedContent, other.expectedContent)
+                .append(jsonPointer, other.jsonPointer)
+                .append(expectedValue, other.expectedValue)
+                .isEquals();
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder()
+                .append(getMinStatus())
+                .append(getMaxStatus())
+                .append(maxBodySize)
+                .append(expectedContent)
+                .append(jsonPointer)
+                .append(expectedValue)
+                .toHashCode();
+    }
+
+    @Extension
+    public static final class DescriptorImpl extends AbstractHttpCheckDescriptor {
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return Messages.HttpGetCheck_DisplayName();
+        }
+
+        @SuppressWarnings("unused")
+        public int getDefaultMaxBodySize() {
+            return DEFAULT_MAX_BODY_SIZE;
+        }
+
+        @SuppressWarnings("unused")
+        public FormValidation doCheckJsonPointer(@QueryParameter String jsonPointer) {
+            if (jsonPointer != null && !jsonPointer.trim().isEmpty() && !jsonPointer.trim().startsWith("/")) {
+                return FormValidation.error(Messages.FormValidation_Error_InvalidValue());
+            }
+            return FormValidation.ok();
+        }
+
+    }
+
+}
@@ -0,0 +1,64 @@
+package io.jenkins.plugins.devopsportal.checks;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import io.jenkins.plugins.devopsportal.Messages;
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpHead;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+import java.io.IOException;
+
+/**
+ * Check sending a HEAD request: the response has no body, which makes it cheaper than a GET.
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+public class HttpHeadCheck extends AbstractHttpCheck {
+
+    @DataBoundConstructor
+    public HttpHeadCheck(int minStatus, int maxStatus) {
+        super(minStatus, maxStatus);
+    }
+
+    @Override
+    public void check(ServiceCheckContext context) throws IOException, ServiceCheckException {
+        final HttpHead request = new HttpHead(context.getHttpUrl());
+        try (CloseableHttpResponse response = context.execute(request)) {
+            checkStatus(response.getStatusLine().getStatusCode());
+        }
+    }
+
+    @Override
+    public boolean equals(final Object that) {
+        if (this == that) return true;
+        if (that == null || getClass() != that.getClass()) return false;
+        final HttpHeadCheck other = (HttpHeadCheck) that;
+        return new EqualsBuilder()
+                .append(getMinStatus(), other.getMinStatus())
+                .append(getMaxStatus(), other.getMaxStatus())
+                .isEquals();
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder()
+                .append(getMinStatus())
+                .append(getMaxStatus())
+                .toHashCode();
+    }
+
+    @Extension
+    public static final class DescriptorImpl extends AbstractHttpCheckDescriptor {
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return Messages.HttpHeadCheck_DisplayName();
+        }
+
+    }
+
+}
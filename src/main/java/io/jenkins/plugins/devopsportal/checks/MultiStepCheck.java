@@ -0,0 +1,86 @@
+package io.jenkins.plugins.devopsportal.checks;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.Descriptor;
+import io.jenkins.plugins.devopsportal.Messages;
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Check running a short chain of checks, for instance the TCP port of a database and then the health page
+ * of the application. The service is available if all steps succeed; the first failing step stops the chain.
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+public class MultiStepCheck extends ServiceCheck {
+
+    public static final int MAX_STEPS = 5;
+
+    private final List<ServiceCheckStep> steps;
+
+    @DataBoundConstructor
+    public MultiStepCheck(List<ServiceCheckStep> steps) {
+        this.steps = new ArrayList<>();
+        if (steps != null) {
+            this.steps.addAll(steps.subList(0, Math.min(MAX_STEPS, steps.size())));
+        }
+    }
+
+    public List<ServiceCheckStep> getSteps() {
+        return Collections.unmodifiableList(steps);
+    }
+
+    @Override
+    public void check(ServiceCheckContext context) throws IOException, ServiceCheckException {
+        for (int i = 0; i < steps.size(); i++) {
+            final ServiceCheckStep step = steps.get(i);
+            if (step.getCheck() == null || step.getCheck() instanceof MultiStepCheck) {
+                continue;
+            }
+            try {
+                step.getCheck().check(context.resolve(step.getUrl()));
+            }
+            catch (ServiceCheckException ex) {
+                throw new ServiceCheckException(Messages.ServiceMonitoring_Error_Step()
+                        .replace("%step%", "" + (i + 1))
+                        .replace("%message%", ex.getMessage()));
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(final Object that) {
+        if (this == that) return true;
+        if (that == null || getClass() != that.getClass()) return false;
+        final MultiStepCheck other = (MultiStepCheck) that;
+        return new EqualsBuilder()
+                .append(steps, other.steps)
+                .isEquals();
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder()
+                .append(steps)
+                .toHashCode();
+    }
+
+    @Extension
+    public static final class DescriptorImpl extends Descriptor<ServiceCheck> {
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return Messages.MultiStepCheck_DisplayName();
+        }
+
+    }
+
+}
@@ -0,0 +1,36 @@
+package io.jenkins.plugins.devopsportal.checks;
+
+import hudson.DescriptorExtensionList;
+import hudson.ExtensionPoint;
+import hudson.model.Describable;
+import hudson.model.Descriptor;
+import jenkins.model.Jenkins;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * Extension point for the availability checks of monitored services.
+ *
+ * A check is run by a {@link io.jenkins.plugins.devopsportal.utils.ServiceProbe}, on the controller or on an
+ * agent: implementations must be serializable and must not depend on the Jenkins instance. A check completes
+ * normally if the service is available, and throws a {@link ServiceCheckException} otherwise. I/O errors are
+ * reported by the probe as failures, or as invalid configurations for malformed URLs.
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+public abstract class ServiceCheck implements Describable<ServiceCheck>, ExtensionPoint, Serializable {
+
+    public abstract void check(ServiceCheckContext context) throws IOException, ServiceCheckException;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Descriptor<ServiceCheck> getDescriptor() {
+        return Jenkins.get().getDescriptorOrDie(getClass());
+    }
+
+    public static DescriptorExtensionList<ServiceCheck, Descriptor<ServiceCheck>> all() {
+        return Jenkins.get().getDescriptorList(ServiceCheck.class);
+    }
+
+}
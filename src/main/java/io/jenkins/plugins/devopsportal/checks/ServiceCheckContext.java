@@ -0,0 +1,99 @@
+package io.jenkins.plugins.devopsportal.checks;
+
+import io.jenkins.plugins.devopsportal.utils.MonitoringHttpClient;
+import io.jenkins.plugins.devopsportal.utils.ServiceProbeTimings;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.protocol.HttpClientContext;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+
+/**
+ * Target and settings of a {@link ServiceCheck}.
+ *
+ * HTTP requests sent with {@link #execute(HttpRequestBase)} use the pooled clients of the monitoring, so that
+ * the timings and the certificates of the connection are captured.
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+public class ServiceCheckContext {
+
+    private final String url;
+    private final boolean acceptInvalidCertificate;
+    private final int connectTimeout; // ms
+    private final int readTimeout; // ms
+    private final HttpClientContext httpContext;
+    private final ServiceProbeTimings timings;
+
+    public ServiceCheckContext(String url, boolean acceptInvalidCertificate, int connectTimeout, int readTimeout,
+                               HttpClientContext httpContext, ServiceProbeTimings timings) {
+        this.url = url;
+        this.acceptInvalidCertificate = acceptInvalidCertificate;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.httpContext = httpContext;
+        this.timings = timings;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    public ServiceProbeTimings getTimings() {
+        return timings;
+    }
+
+    /**
+     * @return the URL of the service, if it is a valid HTTP or HTTPS URL
+     */
+    public String getHttpUrl() throws MalformedURLException {
+        final URL target = new URL(url);
+        if (!target.getProtocol().equalsIgnoreCase("http") && !target.getProtocol().equalsIgnoreCase("https")) {
+            throw new MalformedURLException("Unsupported protocol: " + target.getProtocol());
+        }
+        return url;
+    }
+
+    public CloseableHttpResponse execute(HttpRequestBase request) throws IOException {
+        request.setConfig(RequestConfig
+                .custom()
+                .setConnectionRequestTimeout(connectTimeout)
+                .setConnectTimeout(connectTimeout)
+                .setSocketTimeout(readTimeout)
+                .build());
+        return MonitoringHttpClient.get(acceptInvalidCertificate).execute(request, httpContext);
+    }
+
+    /**
+     * Create the context of another target, sharing the settings and the timings of this one.
+     *
+     * @param target an absolute URL, or a URL relative to the current one (the current URL if empty)
+     */
+    public ServiceCheckContext resolve(String target) throws MalformedURLException {
+        if (target == null || target.trim().isEmpty()) {
+            return this;
+        }
+        try {
+            final String resolved = new URI(url).resolve(target.trim()).toString();
+            return new ServiceCheckContext(resolved, acceptInvalidCertificate, connectTimeout, readTimeout,
+                    httpContext, timings);
+        }
+        catch (URISyntaxException | IllegalArgumentException ex) {
+            throw new MalformedURLException(ex.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,14 @@
+package io.jenkins.plugins.devopsportal.checks;
+
+/**
+ * Raised by a {@link ServiceCheck} when the service answered, but not as expected.
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+public class ServiceCheckException extends Exception {
+
+    public ServiceCheckException(String message) {
+        super(message);
+    }
+
+}
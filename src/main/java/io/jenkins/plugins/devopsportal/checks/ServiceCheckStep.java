@@ -0,0 +1,94 @@
+package io.jenkins.plugins.devopsportal.checks;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.Describable;
+import hudson.model.Descriptor;
+import io.jenkins.plugins.devopsportal.Messages;
+import jenkins.model.Jenkins;
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A step of a {@link MultiStepCheck}: a check and its target.
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+public class ServiceCheckStep implements Describable<ServiceCheckStep>, Serializable {
+
+    private final String url;
+    private final ServiceCheck check;
+
+    /**
+     * @param url absolute URL, or URL relative to the service one (the service URL if empty)
+     */
+    @DataBoundConstructor
+    public ServiceCheckStep(String url, ServiceCheck check) {
+        this.url = url;
+        this.check = check;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public ServiceCheck getCheck() {
+        return check;
+    }
+
+    @Override
+    public Descriptor<ServiceCheckStep> getDescriptor() {
+        return Jenkins.get().getDescriptorByType(ServiceCheckStep.DescriptorImpl.class);
+    }
+
+    @Override
+    public boolean equals(final Object that) {
+        if (this == that) return true;
+        if (that == null || getClass() != that.getClass()) return false;
+        final ServiceCheckStep other = (ServiceCheckStep) that;
+        return new EqualsBuilder()
+                .append(url, other.url)
+                .append(check, other.check)
+                .isEquals();
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder()
+                .append(url)
+                .append(check)
+                .toHashCode();
+    }
+
+    @Extension
+    public static final class DescriptorImpl extends Descriptor<ServiceCheckStep> {
+
+        public DescriptorImpl() {
+            super(ServiceCheckStep.class);
+        }
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return Messages.ServiceCheckStep_DisplayName();
+        }
+
+        /**
+         * @return the checks which can be used in a step: steps cannot be nested
+         */
+        @SuppressWarnings("unused")
+        public List<Descriptor<ServiceCheck>> getCheckDescriptors() {
+            return ServiceCheck.all()
+                    .stream()
+                    .filter(descriptor -> !MultiStepCheck.class.equals(descriptor.clazz))
+                    .collect(Collectors.toList());
+        }
+
+    }
+
+}
@@ -0,0 +1,81 @@
+package io.jenkins.plugins.devopsportal.checks;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.Descriptor;
+import io.jenkins.plugins.devopsportal.Messages;
+import io.jenkins.plugins.devopsportal.utils.ServiceProbeTimings;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+import java.io.IOException;
+import java.net.*;
+
+/**
+ * Check opening a TCP connection, for services which do not speak HTTP such as databases or message brokers.
+ *
+ * The URL gives the host and the port, like {@code tcp://db.mydomain.com:5432}. The default ports are used
+ * for HTTP and HTTPS URLs.
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+public class TcpConnectCheck extends ServiceCheck {
+
+    @DataBoundConstructor
+    public TcpConnectCheck() {
+    }
+
+    @Override
+    public void check(ServiceCheckContext context) throws IOException {
+        final ServiceProbeTimings timings = context.getTimings();
+        final InetSocketAddress address = getAddress(context.getUrl(), timings);
+        try (Socket socket = new Socket()) {
+            timings.socketStarted();
+            socket.connect(address, context.getConnectTimeout());
+            timings.socketConnected();
+        }
+    }
+
+    private static InetSocketAddress getAddress(String url, ServiceProbeTimings timings) throws IOException {
+        final URI uri;
+        try {
+            uri = new URI(url);
+        }
+        catch (URISyntaxException ex) {
+            throw new MalformedURLException(ex.getMessage());
+        }
+        int port = uri.getPort();
+        if (port < 0 && "http".equalsIgnoreCase(uri.getScheme())) {
+            port = 80;
+        }
+        else if (port < 0 && "https".equalsIgnoreCase(uri.getScheme())) {
+            port = 443;
+        }
+        if (uri.getHost() == null || port < 0) {
+            throw new MalformedURLException("Missing host or port: " + url);
+        }
+        timings.connectionStarted();
+        return new InetSocketAddress(InetAddress.getByName(uri.getHost()), port);
+    }
+
+    @Override
+    public boolean equals(final Object that) {
+        return that != null && getClass() == that.getClass();
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    @Extension
+    public static final class DescriptorImpl extends Descriptor<ServiceCheck> {
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return Messages.TcpConnectCheck_DisplayName();
+        }
+
+    }
+
+}
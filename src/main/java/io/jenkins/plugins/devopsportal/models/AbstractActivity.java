@@ -1,10 +1,14 @@
 package io.jenkins.plugins.devopsportal.models;
 
+import edu.umd.cs.findbugs.annotations.NonNull;
 import org.kohsuke.stapler.DataBoundSetter;
 
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -19,6 +23,9 @@ public abstract class AbstractActivity implements Serializable {
     private ActivityScore score;
     private final long timestamp; // sec
 
+    // Detail payloads no longer referenced, deleted once the record has been saved without them
+    private transient List<String> discardedDetails;
+
     protected AbstractActivity(ActivityCategory category, String applicationComponent) {
         if (category == null) {
             throw new IllegalArgumentException("Activity category is null");
@@ -52,6 +59,47 @@ public abstract class AbstractActivity implements Serializable {
         return timestamp;
     }
 
+    /**
+     * Move the detail payload of a record read from an older format to the detail storage.
+     *
+     * @return true if the record has been modified and must be saved
+     */
+    boolean externalizeDetails() {
+        return false;
+    }
+
+    /**
+     * Delete the detail payload of a record that is removed, once it has been saved.
+     */
+    void deleteDetails() {
+    }
+
+    /**
+     * Move the detail payload of a record back inline, before it is archived: the stored payload is deleted
+     * once the record is removed and saved.
+     */
+    void inlineDetails() {
+    }
+
+    /**
+     * Schedule the deletion of a detail payload, which is no longer referenced by this record.
+     */
+    protected final synchronized void discardDetails(@NonNull String detailsId) {
+        if (discardedDetails == null) {
+            discardedDetails = new ArrayList<>();
+        }
+        discardedDetails.add(detailsId);
+    }
+
+    /**
+     * Get the detail payloads discarded since the last call, to be deleted once the record is saved.
+     */
+    synchronized List<String> drainDiscardedDetails() {
+        final List<String> retVal = discardedDetails != null ? discardedDetails : Collections.emptyList();
+        discardedDetails = null;
+        return retVal;
+    }
+
     @SuppressWarnings("unused")
     public String getUUID() {
         return UUID.nameUUIDFromBytes(applicationComponent.getBytes(StandardCharsets.UTF_8)).toString();
@@ -4,9 +4,13 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.EnvVars;
 import hudson.Extension;
 import hudson.FilePath;
+import hudson.XmlFile;
 import hudson.model.*;
 import hudson.util.CopyOnWriteList;
 import io.jenkins.plugins.devopsportal.Messages;
+import io.jenkins.plugins.devopsportal.workers.PersistencePeriodicWork;
+import io.jenkins.plugins.devopsportal.utils.ArchiveStorage;
+import io.jenkins.plugins.devopsportal.utils.DetailStorage;
 import io.jenkins.plugins.devopsportal.utils.JenkinsUtils;
 import jenkins.model.Jenkins;
 import org.apache.commons.lang.builder.EqualsBuilder;
@@ -16,12 +20,18 @@ import org.apache.commons.lang.builder.ToStringStyle;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * A persistent record of the progress of build activities for a software release.
@@ -42,12 +52,24 @@ public class ApplicationBuildStatus implements Describable<ApplicationBuildStatu
 
     private final Map<ActivityCategory, List<AbstractActivity>> activities;
 
+    // Computed on demand, and reset each time an activity changes
+    private transient volatile ApplicationBuildSummary summary;
+
     @DataBoundConstructor
     public ApplicationBuildStatus() {
         activities = new HashMap<>();
         for (ActivityCategory category : ActivityCategory.values()) {
-            activities.put(category, new ArrayList<>());
+            activities.put(category, new CopyOnWriteArrayList<>());
+        }
+    }
+
+    protected Object readResolve() {
+        // Activities lists are copy-on-write so that they can be saved while another thread updates them
+        activities.replaceAll((category, list) -> new CopyOnWriteArrayList<>(list));
+        for (ActivityCategory category : ActivityCategory.values()) {
+            activities.putIfAbsent(category, new CopyOnWriteArrayList<>());
         }
+        return this;
     }
 
     public String getApplicationName() {
@@ -137,8 +159,37 @@ public class ApplicationBuildStatus implements Describable<ApplicationBuildStatu
         return buildCommit != null && !buildCommit.isEmpty();
     }
 
+    /**
+     * Move the detail payloads of activities read from an older format to the detail storage.
+     *
+     * @return true if the record has been modified and must be saved
+     */
+    boolean externalizeDetails() {
+        boolean modified = false;
+        for (List<AbstractActivity> list : activities.values()) {
+            for (AbstractActivity activity : list) {
+                modified |= activity.externalizeDetails();
+            }
+        }
+        return modified;
+    }
+
+    void deleteDetails() {
+        activities.values().forEach(list -> list.forEach(AbstractActivity::deleteDetails));
+    }
+
+    void inlineDetails() {
+        activities.values().forEach(list -> list.forEach(AbstractActivity::inlineDetails));
+    }
+
+    List<String> drainDiscardedDetails() {
+        final List<String> retVal = new ArrayList<>();
+        activities.values().forEach(list -> list.forEach(activity -> retVal.addAll(activity.drainDiscardedDetails())));
+        return retVal;
+    }
+
     @Override
-    public Descriptor<ApplicationBuildStatus> getDescriptor() {
+    public DescriptorImpl getDescriptor() {
         return Jenkins.get().getDescriptorByType(ApplicationBuildStatus.DescriptorImpl.class);
     }
 
@@ -195,9 +246,9 @@ public class ApplicationBuildStatus implements Describable<ApplicationBuildStatu
                                                               @NonNull EnvVars env,
                                                               @NonNull GenericActivityHandler<T> updater,
                                                               @NonNull FilePath workspace) {
-        T activity;
+        final Result result;
         synchronized (activities) {
-            activity = (T) activities.getOrDefault(category, new ArrayList<>())
+            T activity = (T) activities.getOrDefault(category, new ArrayList<>())
                     .stream()
                     .filter(item -> item.getApplicationComponent().equals(applicationComponent))
                     .findFirst()
@@ -205,14 +256,14 @@ public class ApplicationBuildStatus implements Describable<ApplicationBuildStatu
             if (activity == null) {
                 activity = createActivity(category, applicationComponent);
                 if (!activities.containsKey(category)) {
-                    activities.put(category, new ArrayList<>());
+                    activities.put(category, new CopyOnWriteArrayList<>());
                 }
                 activities.get(category).add(activity);
             }
-        }
-        final Result result = updater.updateActivity(this, activity, listener, env, workspace);
-        synchronized (activities) {
-            getDescriptor().save();
+            // Updaters are expected to be prepared already (see GenericActivityHandler.prepareActivity)
+            result = updater.updateActivity(this, activity, listener, env, workspace);
+            summary = null;
+            getDescriptor().markDirty(this);
         }
         return result;
     }
@@ -253,6 +304,7 @@ public class ApplicationBuildStatus implements Describable<ApplicationBuildStatu
         Optional<AbstractActivity> activity = getComponentActivityByCategory(category, applicationComponent);
         if (activity.isPresent()) {
             synchronized (activities) {
+                summary = null;
                 return this.activities.get(category).remove(activity.get());
             }
         }
@@ -265,14 +317,32 @@ public class ApplicationBuildStatus implements Describable<ApplicationBuildStatu
         synchronized (activities) {
             // Create category
             if (!activities.containsKey(category)) {
-                activities.put(category, new ArrayList<>());
+                activities.put(category, new CopyOnWriteArrayList<>());
             }
             // Remove old activity
             removeComponentActivity(category, applicationComponent);
             // Add new one
             getActivitiesByCategory(category).add(activity);
-            getDescriptor().save();
+            summary = null;
+            getDescriptor().markDirty(this);
+        }
+    }
+
+    /**
+     * Get the summary of the activities, computed once until an activity changes.
+     */
+    public ApplicationBuildSummary getSummary() {
+        ApplicationBuildSummary current = summary;
+        if (current == null) {
+            synchronized (activities) {
+                current = summary;
+                if (current == null) {
+                    current = new ApplicationBuildSummary(this);
+                    summary = current;
+                }
+            }
         }
+        return current;
     }
 
     @SuppressWarnings("unused")
@@ -280,10 +350,99 @@ public class ApplicationBuildStatus implements Describable<ApplicationBuildStatu
         return UUID.nameUUIDFromBytes((applicationName + applicationVersion).getBytes(StandardCharsets.UTF_8)).toString();
     }
 
+    /**
+     * Storage unit of build statuses: all the versions of an application, saved in a dedicated file.
+     * The shard is also used as the lock serializing the updates of the application.
+     */
+    public static final class ApplicationShard implements Saveable {
+
+        private final String applicationName;
+        private final List<ApplicationBuildStatus> versions = new CopyOnWriteArrayList<>();
+
+        // Detail payloads of removed records, deleted once the shard is saved without them
+        private transient List<String> discardedDetails;
+
+        public ApplicationShard(@NonNull String applicationName) {
+            this.applicationName = applicationName;
+        }
+
+        public String getApplicationName() {
+            return applicationName;
+        }
+
+        public List<ApplicationBuildStatus> getVersions() {
+            return versions;
+        }
+
+        public XmlFile getConfigFile() {
+            return getShardFile(applicationName);
+        }
+
+        /**
+         * Schedule the deletion of the detail payloads of a removed record.
+         */
+        synchronized void discardDetails(@NonNull ApplicationBuildStatus status) {
+            status.deleteDetails();
+            final List<String> discarded = status.drainDiscardedDetails();
+            if (!discarded.isEmpty()) {
+                if (discardedDetails == null) {
+                    discardedDetails = new ArrayList<>();
+                }
+                discardedDetails.addAll(discarded);
+            }
+        }
+
+        @Override
+        public synchronized void save() throws IOException {
+            // Details are deleted only once the shard file no longer references them, so that a crash
+            // cannot leave a record pointing to a deleted payload
+            final List<String> discarded = discardedDetails != null ? discardedDetails : new ArrayList<>();
+            discardedDetails = null;
+            versions.forEach(status -> discarded.addAll(status.drainDiscardedDetails()));
+            final XmlFile file = getConfigFile();
+            try {
+                if (versions.isEmpty()) {
+                    if (file.exists()) {
+                        file.delete();
+                    }
+                }
+                else {
+                    file.write(this);
+                }
+            }
+            catch (IOException | RuntimeException ex) {
+                discardedDetails = discarded;
+                throw ex;
+            }
+            discarded.forEach(DetailStorage::delete);
+        }
+
+        public static File getShardDirectory() {
+            return new File(Jenkins.get().getRootDir(), "devops-portal/build-status");
+        }
+
+        public static XmlFile getShardFile(@NonNull String applicationName) {
+            final String uuid = UUID.nameUUIDFromBytes(applicationName.getBytes(StandardCharsets.UTF_8)).toString();
+            return new XmlFile(Jenkins.XSTREAM2, new File(getShardDirectory(), uuid + ".xml"));
+        }
+
+    }
+
     @Extension
     public static final class DescriptorImpl extends Descriptor<ApplicationBuildStatus> implements Serializable {
 
-        private final CopyOnWriteList<ApplicationBuildStatus> buildStatus = new CopyOnWriteList<>();
+        private static final Logger LOGGER = Logger.getLogger("io.jenkins.plugins.devopsportal");
+
+        // Legacy storage: all build statuses in the descriptor file, migrated to application shards on load
+        private CopyOnWriteList<ApplicationBuildStatus> buildStatus;
+
+        // Application name -> shard, each shard being saved in its own file
+        private final transient ConcurrentMap<String, ApplicationShard> shards = new ConcurrentHashMap<>();
+
+        // Lookup indexes, rebuilt on load: application name -> version -> record, and job#number -> records
+        private final transient ConcurrentMap<String, ConcurrentMap<String, ApplicationBuildStatus>> applicationIndex
+                = new ConcurrentHashMap<>();
+        private final transient ConcurrentMap<String, List<ApplicationBuildStatus>> runIndex = new ConcurrentHashMap<>();
 
         public DescriptorImpl() {
             super(ApplicationBuildStatus.class);
@@ -296,65 +455,284 @@ public class ApplicationBuildStatus implements Describable<ApplicationBuildStatu
             return Messages.BuildStatus_DisplayName();
         }
 
-        public synchronized List<ApplicationBuildStatus> getBuildStatus() {
-            List<ApplicationBuildStatus> retVal = new ArrayList<>(buildStatus.getView());
+        @Override
+        public synchronized void load() {
+            super.load();
+            shards.clear();
+            applicationIndex.clear();
+            runIndex.clear();
+            final File[] files = ApplicationShard.getShardDirectory().listFiles((dir, name) -> name.endsWith(".xml"));
+            if (files != null) {
+                for (File file : files) {
+                    try {
+                        final ApplicationShard shard = (ApplicationShard) new XmlFile(Jenkins.XSTREAM2, file).read();
+                        shards.put(shard.getApplicationName(), shard);
+                        boolean modified = false;
+                        for (ApplicationBuildStatus status : shard.getVersions()) {
+                            indexApplication(status);
+                            indexRun(status, getRunKey(status));
+                            modified |= status.externalizeDetails();
+                        }
+                        if (modified) {
+                            PersistencePeriodicWork.markDirty(shard);
+                        }
+                    }
+                    catch (IOException | RuntimeException ex) {
+                        LOGGER.log(Level.WARNING, "Unable to load build status file: " + file, ex);
+                    }
+                }
+            }
+            if (buildStatus != null) {
+                migrateLegacyStorage();
+            }
+        }
+
+        private void migrateLegacyStorage() {
+            final Set<ApplicationShard> migrated = new HashSet<>();
+            for (ApplicationBuildStatus status : buildStatus) {
+                if (getBuildStatusByApplication(status.getApplicationName(), status.getApplicationVersion()).isPresent()) {
+                    continue;
+                }
+                final ApplicationShard shard = getShard(status.getApplicationName());
+                status.externalizeDetails();
+                shard.getVersions().add(status);
+                indexApplication(status);
+                indexRun(status, getRunKey(status));
+                migrated.add(shard);
+            }
+            try {
+                for (ApplicationShard shard : migrated) {
+                    shard.save();
+                }
+                buildStatus = null;
+                super.save();
+                LOGGER.log(Level.INFO, "Migrated build statuses of {0} application(s) to {1}",
+                        new Object[] { migrated.size(), ApplicationShard.getShardDirectory() });
+            }
+            catch (IOException ex) {
+                LOGGER.log(Level.WARNING, "Unable to migrate build statuses storage", ex);
+            }
+        }
+
+        private ApplicationShard getShard(@NonNull String applicationName) {
+            return shards.computeIfAbsent(applicationName.trim(), ApplicationShard::new);
+        }
+
+        /**
+         * Schedule the save of the shard containing the given record.
+         */
+        public void markDirty(@NonNull ApplicationBuildStatus status) {
+            if (status.getApplicationName() != null) {
+                final ApplicationShard shard = shards.get(status.getApplicationName());
+                if (shard != null && shard.getVersions().contains(status)) {
+                    PersistencePeriodicWork.markDirty(shard);
+                }
+            }
+        }
+
+        private static String getRunKey(String buildJob, String buildNumber) {
+            if (buildJob == null || buildNumber == null) {
+                return null;
+            }
+            return buildJob + "#" + buildNumber;
+        }
+
+        private static String getRunKey(ApplicationBuildStatus status) {
+            return getRunKey(status.getBuildJob(), status.getBuildNumber());
+        }
+
+        private void indexApplication(ApplicationBuildStatus status) {
+            applicationIndex
+                    .computeIfAbsent(status.getApplicationName(), key -> new ConcurrentHashMap<>())
+                    .putIfAbsent(status.getApplicationVersion(), status);
+        }
+
+        private void unindexApplication(ApplicationBuildStatus status) {
+            applicationIndex.computeIfPresent(status.getApplicationName(), (key, versions) -> {
+                versions.remove(status.getApplicationVersion(), status);
+                return versions.isEmpty() ? null : versions;
+            });
+        }
+
+        private void indexRun(ApplicationBuildStatus status, String runKey) {
+            if (runKey != null) {
+                runIndex.compute(runKey, (key, records) -> {
+                    List<ApplicationBuildStatus> retVal = records != null ? records : new CopyOnWriteArrayList<>();
+                    retVal.add(status);
+                    return retVal;
+                });
+            }
+        }
+
+        private void unindexRun(ApplicationBuildStatus status, String runKey) {
+            if (runKey != null) {
+                runIndex.computeIfPresent(runKey, (key, records) -> {
+                    records.removeIf(item -> item == status);
+                    return records.isEmpty() ? null : records;
+                });
+            }
+        }
+
+        private void reindexRun(ApplicationBuildStatus status, String previousRunKey) {
+            String runKey = getRunKey(status);
+            if (!Objects.equals(previousRunKey, runKey)) {
+                unindexRun(status, previousRunKey);
+                indexRun(status, runKey);
+            }
+        }
+
+        public List<ApplicationBuildStatus> getBuildStatus() {
+            List<ApplicationBuildStatus> retVal = new ArrayList<>();
+            for (ApplicationShard shard : shards.values()) {
+                retVal.addAll(shard.getVersions());
+            }
             retVal.sort(Comparator.comparing(ApplicationBuildStatus::getApplicationName));
             return retVal;
         }
 
-        public synchronized Optional<ApplicationBuildStatus> getBuildStatusByApplication(@NonNull String applicationName,
-                                                                                         @NonNull String applicationVersion) {
-            return buildStatus
-                    .getView()
-                    .stream()
-                    .filter(item -> applicationName.trim().equals(item.getApplicationName()))
-                    .filter(item -> applicationVersion.trim().equals(item.getApplicationVersion()))
-                    .findFirst();
+        public Optional<ApplicationBuildStatus> getBuildStatusByApplication(@NonNull String applicationName,
+                                                                            @NonNull String applicationVersion) {
+            Map<String, ApplicationBuildStatus> versions = applicationIndex.get(applicationName.trim());
+            if (versions == null) {
+                return Optional.empty();
+            }
+            return Optional.ofNullable(versions.get(applicationVersion.trim()));
         }
 
-        public synchronized void update(@NonNull String applicationName, @NonNull String applicationVersion,
-                                        @NonNull Consumer<ApplicationBuildStatus> updater) {
-            ApplicationBuildStatus status = getBuildStatusByApplication(applicationName, applicationVersion).orElse(null);
-            if (status == null) {
-                status = new ApplicationBuildStatus();
-                status.setApplicationName(applicationName.trim());
-                status.setApplicationVersion(applicationVersion.trim());
-                buildStatus.add(status);
+        public List<ApplicationBuildStatus> getBuildStatusByApplication(@NonNull String applicationName) {
+            Map<String, ApplicationBuildStatus> versions = applicationIndex.get(applicationName.trim());
+            if (versions == null) {
+                return Collections.emptyList();
             }
-            updater.accept(status);
-            status.setBuildTimestamp(Instant.now().getEpochSecond());
-            save();
+            return new ArrayList<>(versions.values());
         }
 
-        public synchronized void update(@NonNull String jobName, int buildNumber,
-                                        @NonNull Consumer<ApplicationBuildStatus> updater) {
-            List<ApplicationBuildStatus> status = buildStatus
-                    .getView()
-                    .stream()
-                    .filter(item -> jobName.equals(item.getBuildJob()))
-                    .filter(item -> String.valueOf(buildNumber).equals(item.getBuildNumber()))
-                    .collect(Collectors.toList());
+        public List<String> getApplicationNames() {
+            return new ArrayList<>(applicationIndex.keySet());
+        }
+
+        public void update(@NonNull String applicationName, @NonNull String applicationVersion,
+                           @NonNull Consumer<ApplicationBuildStatus> updater) {
+            final ApplicationShard shard = getShard(applicationName);
+            synchronized (shard) {
+                ApplicationBuildStatus status = getBuildStatusByApplication(applicationName, applicationVersion)
+                        .orElse(null);
+                if (status == null) {
+                    status = new ApplicationBuildStatus();
+                    status.setApplicationName(applicationName.trim());
+                    status.setApplicationVersion(applicationVersion.trim());
+                    shard.getVersions().add(status);
+                    indexApplication(status);
+                }
+                final String runKey = getRunKey(status);
+                updater.accept(status);
+                status.setBuildTimestamp(Instant.now().getEpochSecond());
+                reindexRun(status, runKey);
+                PersistencePeriodicWork.markDirty(shard);
+            }
+        }
+
+        /**
+         * Update a build status under the lock of its application, without creating it nor changing its build
+         * timestamp.
+         *
+         * @return false if the build status does not exist
+         */
+        public boolean updateIfPresent(@NonNull String applicationName, @NonNull String applicationVersion,
+                                       @NonNull Consumer<ApplicationBuildStatus> updater) {
+            final ApplicationShard shard = shards.get(applicationName.trim());
+            if (shard == null) {
+                return false;
+            }
+            synchronized (shard) {
+                final ApplicationBuildStatus status = getBuildStatusByApplication(applicationName, applicationVersion)
+                        .orElse(null);
+                if (status == null) {
+                    return false;
+                }
+                updater.accept(status);
+                PersistencePeriodicWork.markDirty(shard);
+                return true;
+            }
+        }
+
+        public void update(@NonNull String jobName, int buildNumber, @NonNull Consumer<ApplicationBuildStatus> updater) {
+            final String runKey = getRunKey(jobName, String.valueOf(buildNumber));
+            List<ApplicationBuildStatus> status = new ArrayList<>(runIndex.getOrDefault(runKey, Collections.emptyList()));
             for (ApplicationBuildStatus record : status) {
-                updater.accept(record);
+                final ApplicationShard shard = getShard(record.getApplicationName());
+                synchronized (shard) {
+                    updater.accept(record);
+                    reindexRun(record, runKey);
+                    PersistencePeriodicWork.markDirty(shard);
+                }
             }
-            if (!status.isEmpty()) {
-                save();
+        }
+
+        /**
+         * Keep only the most recent versions of each application, older ones being moved to the archive.
+         *
+         * @return the number of archived versions
+         */
+        public int applyRetention(int maxVersionsPerApplication) throws IOException {
+            if (maxVersionsPerApplication <= 0) {
+                return 0;
             }
+            int count = 0;
+            for (ApplicationShard shard : shards.values()) {
+                synchronized (shard) {
+                    if (shard.getVersions().size() <= maxVersionsPerApplication) {
+                        continue;
+                    }
+                    final List<ApplicationBuildStatus> versions = new ArrayList<>(shard.getVersions());
+                    versions.sort(Comparator.comparingLong(ApplicationBuildStatus::getBuildTimestamp).reversed());
+                    final List<ApplicationBuildStatus> evicted = new ArrayList<>(
+                            versions.subList(maxVersionsPerApplication, versions.size()));
+                    // Archived records carry their details, the stored payloads being deleted with the shard save
+                    evicted.forEach(ApplicationBuildStatus::inlineDetails);
+                    ArchiveStorage.archive(ArchiveStorage.BUILD_STATUS, evicted);
+                    for (ApplicationBuildStatus status : evicted) {
+                        shard.getVersions().removeIf(item -> item == status);
+                        shard.discardDetails(status);
+                        unindexApplication(status);
+                        unindexRun(status, getRunKey(status));
+                    }
+                    PersistencePeriodicWork.markDirty(shard);
+                    count += evicted.size();
+                }
+            }
+            return count;
+        }
+
+        public Optional<ApplicationBuildStatus> getArchivedBuildStatus(@NonNull String applicationName,
+                                                                       @NonNull String applicationVersion) {
+            return ArchiveStorage
+                    .query(ArchiveStorage.BUILD_STATUS, ApplicationBuildStatus.class, item ->
+                            applicationName.trim().equals(item.getApplicationName())
+                                    && applicationVersion.trim().equals(item.getApplicationVersion()))
+                    .stream()
+                    .reduce((first, second) -> second);
         }
 
         public boolean isApplicationExists(@NonNull String applicationName) {
-            return getBuildStatus().stream().anyMatch(item -> applicationName.equals(item.getApplicationName()));
+            return applicationIndex.containsKey(applicationName.trim());
         }
 
         public boolean deleteBuildStatusByApplicationVersion(String applicationName, String applicationVersion) {
-            final ApplicationBuildStatus status = getBuildStatusByApplication(applicationName, applicationVersion)
-                    .orElse(null);
-            if (status != null) {
-                synchronized (this) {
-                    if (buildStatus.remove(status)) {
-                        save();
-                        return true;
-                    }
+            // Unknown applications must not be given an empty shard
+            final ApplicationShard shard = shards.get(applicationName.trim());
+            if (shard == null) {
+                return false;
+            }
+            synchronized (shard) {
+                final ApplicationBuildStatus status = getBuildStatusByApplication(applicationName, applicationVersion)
+                        .orElse(null);
+                if (status != null && shard.getVersions().remove(status)) {
+                    unindexApplication(status);
+                    unindexRun(status, getRunKey(status));
+                    shard.discardDetails(status);
+                    PersistencePeriodicWork.markDirty(shard);
+                    return true;
                 }
             }
             return false;
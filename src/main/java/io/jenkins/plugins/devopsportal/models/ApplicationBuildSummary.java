@@ -0,0 +1,209 @@
+package io.jenkins.plugins.devopsportal.models;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import io.jenkins.plugins.devopsportal.Messages;
+import io.jenkins.plugins.devopsportal.utils.SummaryTitle;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Summary of an application version displayed by the build dashboard.
+ *
+ * Summaries are computed once from the activities of a build status, and kept until one of them changes
+ * (see {@link ApplicationBuildStatus#getSummary()}).
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+public class ApplicationBuildSummary implements Serializable {
+
+    private final SummaryTitle build;
+    private final String artifactsCount;
+    private final String coverageRate;
+    private final SummaryTitle quality;
+    private final String bugScore;
+    private final String vulnerabilityScore;
+    private final String hotspotScore;
+    private final String dependencyVulnerabilityCount;
+    private final String worstScore;
+    private final SummaryTitle release;
+    private final String releasesCount;
+    private final List<String> releasesTags;
+
+    /**
+     * @param status the build status, or null to get the summary of an unknown version
+     */
+    public ApplicationBuildSummary(@CheckForNull ApplicationBuildStatus status) {
+        if (status == null) {
+            final SummaryTitle unknown = new SummaryTitle("warn", "help-circle-outline",
+                    Messages.BuildDashboard_SummaryStatus_Unknown());
+            build = unknown;
+            artifactsCount = "-";
+            coverageRate = "-";
+            quality = unknown;
+            bugScore = "-";
+            vulnerabilityScore = "-";
+            hotspotScore = "-";
+            dependencyVulnerabilityCount = "-";
+            worstScore = "-";
+            release = unknown;
+            releasesCount = "-";
+            releasesTags = Collections.emptyList();
+            return;
+        }
+
+        // Build
+        final List<AbstractActivity> builds = status.getActivitiesByCategory(ActivityCategory.BUILD);
+        final long success = builds.stream().filter(activity -> activity.getScore() == ActivityScore.A).count();
+        if (builds.isEmpty()) {
+            build = new SummaryTitle("warn", "help-circle-outline", Messages.BuildDashboard_SummaryStatus_NotBuilt());
+        }
+        else if (success < builds.size()) {
+            build = new SummaryTitle("bad", "skull-outline", Messages.BuildDashboard_SummaryStatus_Failure());
+        }
+        else {
+            build = new SummaryTitle("good", "heart-outline", Messages.BuildDashboard_SummaryStatus_Healthy());
+        }
+        artifactsCount = success + "/" + builds.size();
+
+        // Coverage
+        final List<QualityAuditActivity> audits = status
+                .getActivitiesByCategory(ActivityCategory.QUALITY_AUDIT)
+                .stream()
+                .map(activity -> (QualityAuditActivity) activity)
+                .collect(Collectors.toList());
+        final Stream<Float> value1 = audits
+                .stream()
+                .map(QualityAuditActivity::getTestCoverage)
+                .filter(value -> value > 0);
+        final Stream<Float> value2 = status
+                .getActivitiesByCategory(ActivityCategory.UNIT_TEST)
+                .stream()
+                .map(activity -> (UnitTestActivity) activity)
+                .map(UnitTestActivity::getTestCoverage)
+                .filter(value -> value > 0);
+        final double average = Stream.concat(value1, value2)
+                .mapToDouble(d -> d)
+                .average()
+                .orElse(0);
+        coverageRate = String.format("%.0f", average * 100) + "%";
+
+        // Quality scores
+        bugScore = getLowerQualityScore(audits, QualityAuditActivity::getBugScore);
+        vulnerabilityScore = getLowerQualityScore(audits, QualityAuditActivity::getVulnerabilityScore);
+        hotspotScore = getLowerQualityScore(audits, QualityAuditActivity::getHotspotScore);
+
+        // Dependencies
+        final List<DependenciesAnalysisActivity> analysis = status
+                .getActivitiesByCategory(ActivityCategory.DEPENDENCIES_ANALYSIS)
+                .stream()
+                .map(activity -> (DependenciesAnalysisActivity) activity)
+                .collect(Collectors.toList());
+        dependencyVulnerabilityCount = "" + analysis
+                .stream()
+                .mapToInt(DependenciesAnalysisActivity::getVulnerabilitiesCount)
+                .sum();
+        worstScore = analysis
+                .stream()
+                .map(DependenciesAnalysisActivity::getWorstSeverity)
+                .filter(Objects::nonNull)
+                .min(Comparator.comparingInt(DependenciesAnalysisActivity.SEVERITIES::indexOf))
+                .orElse("-");
+
+        // Quality
+        if (audits.stream().anyMatch(QualityAuditActivity::isPending)) {
+            quality = new SummaryTitle("pending", "sync-circle-outline", Messages.BuildDashboard_SummaryStatus_Updating());
+        }
+        else if (audits.stream().anyMatch(QualityAuditActivity::isFailed)) {
+            quality = new SummaryTitle("bad", "skull-outline", Messages.BuildDashboard_SummaryStatus_Unavailable());
+        }
+        else if ("CRITICAL".equals(worstScore)) {
+            quality = new SummaryTitle("bad", "skull-outline", Messages.BuildDashboard_SummaryStatus_DependencyFailure());
+        }
+        else if (Stream.of(bugScore, vulnerabilityScore, hotspotScore).anyMatch(Arrays.asList("E", "D", "C")::contains)) {
+            quality = new SummaryTitle("bad", "skull-outline", Messages.BuildDashboard_SummaryStatus_QualityFailure());
+        }
+        else {
+            quality = new SummaryTitle("good", "heart-outline", Messages.BuildDashboard_SummaryStatus_Healthy());
+        }
+
+        // Releases
+        final List<AbstractActivity> releases = status.getActivitiesByCategory(ActivityCategory.ARTIFACT_RELEASE);
+        if (releases.isEmpty()) {
+            release = new SummaryTitle("bad", "skull-outline", Messages.BuildDashboard_SummaryStatus_Missing());
+        }
+        else {
+            release = new SummaryTitle("good", "heart-outline", Messages.BuildDashboard_SummaryStatus_Healthy());
+        }
+        releasesCount = "" + releases.size();
+        releasesTags = Collections.unmodifiableList(releases
+                .stream()
+                .map(activity -> (ArtifactReleaseActivity) activity)
+                .flatMap(activity -> activity.getTags().stream())
+                .distinct()
+                .collect(Collectors.toList()));
+    }
+
+    private static String getLowerQualityScore(List<QualityAuditActivity> audits,
+                                               Function<QualityAuditActivity, ActivityScore> extractor) {
+        return audits
+                .stream()
+                .map(extractor)
+                .filter(Objects::nonNull)
+                .map(Enum::name)
+                .max(String::compareTo)
+                .orElse("?");
+    }
+
+    public SummaryTitle getBuild() {
+        return build;
+    }
+
+    public String getArtifactsCount() {
+        return artifactsCount;
+    }
+
+    public String getCoverageRate() {
+        return coverageRate;
+    }
+
+    public SummaryTitle getQuality() {
+        return quality;
+    }
+
+    public String getBugScore() {
+        return bugScore;
+    }
+
+    public String getVulnerabilityScore() {
+        return vulnerabilityScore;
+    }
+
+    public String getHotspotScore() {
+        return hotspotScore;
+    }
+
+    public String getDependencyVulnerabilityCount() {
+        return dependencyVulnerabilityCount;
+    }
+
+    public String getWorstScore() {
+        return worstScore;
+    }
+
+    public SummaryTitle getRelease() {
+        return release;
+    }
+
+    public String getReleasesCount() {
+        return releasesCount;
+    }
+
+    public List<String> getReleasesTags() {
+        return releasesTags;
+    }
+
+}
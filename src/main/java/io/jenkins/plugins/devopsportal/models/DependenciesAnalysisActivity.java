@@ -1,62 +1,206 @@
 package io.jenkins.plugins.devopsportal.models;
 
+import edu.umd.cs.findbugs.annotations.NonNull;
+import io.jenkins.plugins.devopsportal.utils.DetailStorage;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * A persistent record of a DEPENDENCIES_ANALYSIS activity.
  *
+ * Only the summary (counts and worst severity) is kept with the record: outdated dependencies and
+ * vulnerabilities are stored apart with {@link DetailStorage}, and loaded when they are displayed.
+ *
  * @author Rémi BELLO {@literal <remi@evolya.fr>}
  */
 public class DependenciesAnalysisActivity extends AbstractActivity {
 
+    private static final Logger LOGGER = Logger.getLogger("io.jenkins.plugins.devopsportal");
+
+    // From the worst to the lowest
+    public static final List<String> SEVERITIES = Collections.unmodifiableList(
+            Arrays.asList("CRITICAL", "HIGHEST", "HIGH", "MEDIUM", "LOW", "LOWEST"));
+
+    private int outdatedDependenciesCount;
+    private int vulnerableDependenciesCount;
+    private int vulnerabilitiesCount;
+    private String worstSeverity;
+
+    private String detailsId;
+
+    // Details kept inline: records of older versions, or when the detail storage is not available
     private List<DependencyUpgrade> outdatedDependenciesList;
     private VulnerabilityAnalysisResult vulnerabilities;
 
     @DataBoundConstructor
     public DependenciesAnalysisActivity(String applicationComponent) {
         super(ActivityCategory.DEPENDENCIES_ANALYSIS, applicationComponent);
-        this.outdatedDependenciesList = new ArrayList<>();
-        this.vulnerabilities = new VulnerabilityAnalysisResult();
+    }
+
+    protected Object readResolve() {
+        if (detailsId == null) {
+            // Older records have no summary
+            updateSummary(getInlineDetails());
+        }
+        return this;
     }
 
     public List<DependencyUpgrade> getOutdatedDependenciesList() {
-        return outdatedDependenciesList;
+        return getDetails().outdatedDependenciesList;
     }
 
     @DataBoundSetter
     public void setOutdatedDependenciesList(List<DependencyUpgrade> outdatedDependenciesList) {
-        this.outdatedDependenciesList = Objects.requireNonNull(outdatedDependenciesList);
+        setDetails(new Details(Objects.requireNonNull(outdatedDependenciesList), getVulnerabilities()));
     }
 
     public VulnerabilityAnalysisResult getVulnerabilities() {
-        return vulnerabilities;
+        return getDetails().vulnerabilities;
     }
 
     @DataBoundSetter
     public void setVulnerabilities(VulnerabilityAnalysisResult vulnerabilities) {
-        this.vulnerabilities = Objects.requireNonNull(vulnerabilities);
+        setDetails(new Details(getOutdatedDependenciesList(), Objects.requireNonNull(vulnerabilities)));
     }
 
     @SuppressWarnings("unused")
     public boolean hasIssues() {
-        return (outdatedDependenciesList != null && !outdatedDependenciesList.isEmpty()) || !vulnerabilities.isEmpty();
+        return outdatedDependenciesCount > 0 || vulnerableDependenciesCount > 0;
     }
 
     public int getVulnerableDependenciesCount() {
-        return vulnerabilities.getDependenciesCount();
+        return vulnerableDependenciesCount;
     }
 
     public int getVulnerabilitiesCount() {
-        return vulnerabilities.getVulnerabilitiesCount();
+        return vulnerabilitiesCount;
     }
 
     public int getOutdatedDependenciesCount() {
-        return outdatedDependenciesList.size();
+        return outdatedDependenciesCount;
+    }
+
+    /**
+     * @return the worst severity of the vulnerabilities, or null if there is no vulnerability
+     */
+    public String getWorstSeverity() {
+        return worstSeverity;
+    }
+
+    @NonNull
+    private synchronized Details getDetails() {
+        if (detailsId != null) {
+            final Details details = DetailStorage.get(detailsId, Details.class);
+            if (details != null) {
+                return details;
+            }
+        }
+        return getInlineDetails();
+    }
+
+    private Details getInlineDetails() {
+        return new Details(
+                outdatedDependenciesList != null ? outdatedDependenciesList : Collections.emptyList(),
+                vulnerabilities != null ? vulnerabilities : new VulnerabilityAnalysisResult()
+        );
+    }
+
+    private synchronized void setDetails(@NonNull Details details) {
+        final String previous = detailsId;
+        detailsId = null;
+        outdatedDependenciesList = null;
+        vulnerabilities = null;
+        if (!details.isEmpty()) {
+            try {
+                detailsId = DetailStorage.isAvailable() ? DetailStorage.put(details) : null;
+            }
+            catch (IOException ex) {
+                LOGGER.log(Level.WARNING, "Unable to store dependencies analysis details, they are kept inline", ex);
+            }
+            if (detailsId == null) {
+                outdatedDependenciesList = details.outdatedDependenciesList;
+                vulnerabilities = details.vulnerabilities;
+            }
+        }
+        updateSummary(details);
+        if (previous != null) {
+            // Deleted once the record is saved with the new payload
+            discardDetails(previous);
+        }
+    }
+
+    private void updateSummary(@NonNull Details details) {
+        outdatedDependenciesCount = details.outdatedDependenciesList.size();
+        vulnerableDependenciesCount = details.vulnerabilities.getDependenciesCount();
+        vulnerabilitiesCount = details.vulnerabilities.getVulnerabilitiesCount();
+        worstSeverity = details.vulnerabilities
+                .getItems()
+                .values()
+                .stream()
+                .flatMap(Collection::stream)
+                .map(DependencyVulnerability::getSeverity)
+                .filter(SEVERITIES::contains)
+                .min(Comparator.comparingInt(SEVERITIES::indexOf))
+                .orElse(null);
+    }
+
+    @Override
+    synchronized boolean externalizeDetails() {
+        if (detailsId != null || !DetailStorage.isAvailable()) {
+            return false;
+        }
+        final Details details = getInlineDetails();
+        if (details.isEmpty()) {
+            return false;
+        }
+        setDetails(details);
+        return detailsId != null;
+    }
+
+    @Override
+    synchronized void deleteDetails() {
+        if (detailsId != null) {
+            discardDetails(detailsId);
+        }
+    }
+
+    @Override
+    synchronized void inlineDetails() {
+        if (detailsId == null) {
+            return;
+        }
+        final Details details = getDetails();
+        final String previous = detailsId;
+        detailsId = null;
+        outdatedDependenciesList = new ArrayList<>(details.outdatedDependenciesList);
+        vulnerabilities = details.vulnerabilities;
+        discardDetails(previous);
+    }
+
+    /**
+     * Detail payload of the activity. It is shared through a cache, and must not be modified.
+     */
+    public static final class Details implements Serializable {
+
+        private final List<DependencyUpgrade> outdatedDependenciesList;
+        private final VulnerabilityAnalysisResult vulnerabilities;
+
+        public Details(@NonNull List<DependencyUpgrade> outdatedDependenciesList,
+                       @NonNull VulnerabilityAnalysisResult vulnerabilities) {
+            this.outdatedDependenciesList = new ArrayList<>(outdatedDependenciesList);
+            this.vulnerabilities = vulnerabilities;
+        }
+
+        public boolean isEmpty() {
+            return outdatedDependenciesList.isEmpty() && vulnerabilities.isEmpty();
+        }
+
     }
 
 }
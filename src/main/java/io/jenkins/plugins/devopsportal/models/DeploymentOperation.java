@@ -1,5 +1,6 @@
 package io.jenkins.plugins.devopsportal.models;
 
+import com.thoughtworks.xstream.io.xml.CompactWriter;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
 import hudson.model.Describable;
@@ -7,9 +8,12 @@ import hudson.model.Descriptor;
 import hudson.model.Run;
 import hudson.util.CopyOnWriteList;
 import io.jenkins.plugins.devopsportal.Messages;
+import io.jenkins.plugins.devopsportal.workers.PersistencePeriodicWork;
+import io.jenkins.plugins.devopsportal.utils.ArchiveStorage;
 import io.jenkins.plugins.devopsportal.utils.JenkinsUtils;
 import io.jenkins.plugins.devopsportal.utils.MiscUtils;
 import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.apache.commons.lang.builder.ToStringBuilder;
@@ -17,9 +21,21 @@ import org.apache.commons.lang.builder.ToStringStyle;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
 import java.util.*;
 import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 /**
@@ -207,8 +223,20 @@ public class DeploymentOperation implements Describable<DeploymentOperation>, Se
     @Extension
     public static final class DescriptorImpl extends Descriptor<DeploymentOperation> implements Serializable {
 
+        private static final Logger LOGGER = Logger.getLogger("io.jenkins.plugins.devopsportal");
+
+        // Number of journal entries triggering the write of a new snapshot
+        public static final int JOURNAL_COMPACTION_THRESHOLD = SystemProperties.getInteger(
+                DeploymentOperation.class.getName() + ".journalCompactionThreshold", 500);
+
         private final CopyOnWriteList<DeploymentOperation> runOperations = new CopyOnWriteList<>();
 
+        // Sequence number of the last journal entry included in this snapshot
+        private long journalSequence;
+
+        private transient long lastSequence;
+        private transient int journalEntries;
+
         public DescriptorImpl() {
             super(DeploymentOperation.class);
             load();
@@ -220,6 +248,129 @@ public class DeploymentOperation implements Describable<DeploymentOperation>, Se
             return Messages.DeploymentOperation_DisplayName();
         }
 
+        public static File getJournalFile() {
+            return new File(Jenkins.get().getRootDir(), "devops-portal/deployments.journal");
+        }
+
+        /**
+         * Load the last snapshot, then replay the journal entries appended after it.
+         */
+        @Override
+        public synchronized void load() {
+            runOperations.clear();
+            journalSequence = 0;
+            super.load();
+            lastSequence = journalSequence;
+            journalEntries = 0;
+            final File journal = getJournalFile();
+            if (!journal.exists()) {
+                return;
+            }
+            try (BufferedReader reader = Files.newBufferedReader(journal.toPath(), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    final int separator = line.indexOf(' ');
+                    if (separator < 0) {
+                        continue;
+                    }
+                    try {
+                        final long sequence = Long.parseLong(line.substring(0, separator));
+                        journalEntries++;
+                        if (sequence > journalSequence) {
+                            runOperations.add((DeploymentOperation) Jenkins.XSTREAM2.fromXML(line.substring(separator + 1)));
+                            lastSequence = Math.max(lastSequence, sequence);
+                        }
+                    }
+                    catch (RuntimeException ex) {
+                        // Incomplete entry, probably interrupted by a crash
+                        LOGGER.log(Level.WARNING, "Skipping invalid deployment journal entry: " + line, ex);
+                    }
+                }
+            }
+            catch (IOException ex) {
+                LOGGER.log(Level.WARNING, "Unable to replay deployment journal: " + journal, ex);
+            }
+        }
+
+        /**
+         * Write a snapshot of all the deployments, then truncate the journal. A failed snapshot is retried with
+         * the next flush.
+         */
+        @Override
+        public synchronized void save() {
+            try {
+                saveSnapshot();
+            }
+            catch (IOException ex) {
+                LOGGER.log(Level.WARNING, "Unable to save deployments snapshot", ex);
+                PersistencePeriodicWork.markDirty(this);
+            }
+        }
+
+        /**
+         * Write a snapshot of all the deployments, then truncate the journal.
+         *
+         * @throws IOException if the snapshot could not be written: the journal is kept, and replayed on top of
+         *                     the previous snapshot
+         */
+        public synchronized void saveSnapshot() throws IOException {
+            final long previous = journalSequence;
+            try {
+                journalSequence = lastSequence;
+                getConfigFile().write(this);
+            }
+            catch (IOException | RuntimeException ex) {
+                journalSequence = previous;
+                throw ex;
+            }
+            Files.deleteIfExists(getJournalFile().toPath());
+            journalEntries = 0;
+        }
+
+        /**
+         * Append an entry to the journal. A failed write is rolled back, and an entry left incomplete by a crash
+         * is terminated first, so that the next entries are always written on their own line.
+         */
+        private void appendToJournal(DeploymentOperation record) throws IOException {
+            final StringWriter xml = new StringWriter();
+            Jenkins.XSTREAM2.marshal(record, new CompactWriter(xml));
+            // The sequence number is consumed even if the write fails, so that it is never reused
+            final String line = (++lastSequence) + " " + xml.toString().replace("\r", "&#xd;").replace("\n", "&#xa;") + "\n";
+            final File journal = getJournalFile();
+            Files.createDirectories(journal.getParentFile().toPath());
+            try (FileChannel channel = FileChannel.open(journal.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                final long size = channel.size();
+                final ByteBuffer buffer = ByteBuffer.wrap(
+                        (isLineTerminated(channel, size) ? line : "\n" + line).getBytes(StandardCharsets.UTF_8));
+                try {
+                    long position = size;
+                    while (buffer.hasRemaining()) {
+                        position += channel.write(buffer, position);
+                    }
+                    channel.force(false);
+                }
+                catch (IOException ex) {
+                    try {
+                        channel.truncate(size);
+                    }
+                    catch (IOException e) {
+                        ex.addSuppressed(e);
+                    }
+                    throw ex;
+                }
+            }
+            journalEntries++;
+        }
+
+        private static boolean isLineTerminated(FileChannel channel, long size) throws IOException {
+            if (size == 0) {
+                return true;
+            }
+            final ByteBuffer last = ByteBuffer.allocate(1);
+            return channel.read(last, size - 1) == 1 && last.get(0) == '\n';
+        }
+
         public synchronized List<DeploymentOperation> getRunOperations() {
             List<DeploymentOperation> retVal = new ArrayList<>(runOperations.getView());
             retVal.sort(Comparator.comparing(DeploymentOperation::getApplicationName));
@@ -230,7 +381,16 @@ public class DeploymentOperation implements Describable<DeploymentOperation>, Se
             DeploymentOperation record = new DeploymentOperation();
             runOperations.add(record);
             updater.accept(record);
-            save();
+            try {
+                appendToJournal(record);
+                if (journalEntries >= JOURNAL_COMPACTION_THRESHOLD) {
+                    PersistencePeriodicWork.markDirty(this);
+                }
+            }
+            catch (IOException ex) {
+                LOGGER.log(Level.WARNING, "Unable to append to deployment journal, falling back to a snapshot", ex);
+                PersistencePeriodicWork.markDirty(this);
+            }
         }
 
         public Optional<DeploymentOperation> getLastDeploymentByService(String serviceId) {
@@ -265,14 +425,71 @@ public class DeploymentOperation implements Describable<DeploymentOperation>, Se
                     .max((a, b) -> Long.compare(b.getTimestamp(), a.getTimestamp()));
         }
 
+        /**
+         * Move to the archive the deployments older than the maximum age, and the ones exceeding the maximum
+         * count of deployments per service. The last deployment of each service is always kept.
+         *
+         * @return the number of archived deployments
+         */
+        public synchronized int applyRetention(long maxAgeSeconds, int maxDeploymentsPerService) throws IOException {
+            if (maxAgeSeconds <= 0 && maxDeploymentsPerService <= 0) {
+                return 0;
+            }
+            final long minTimestamp = Instant.now().getEpochSecond() - maxAgeSeconds;
+            final Map<String, List<DeploymentOperation>> byService = runOperations
+                    .getView()
+                    .stream()
+                    .collect(Collectors.groupingBy(item -> Objects.toString(item.getServiceId(), "")));
+            final List<DeploymentOperation> evicted = new ArrayList<>();
+            for (List<DeploymentOperation> deployments : byService.values()) {
+                deployments.sort((a, b) -> Long.compare(b.getTimestamp(), a.getTimestamp()));
+                for (int i = 1; i < deployments.size(); i++) {
+                    final DeploymentOperation operation = deployments.get(i);
+                    if ((maxDeploymentsPerService > 0 && i >= maxDeploymentsPerService)
+                            || (maxAgeSeconds > 0 && operation.getTimestamp() < minTimestamp)) {
+                        evicted.add(operation);
+                    }
+                }
+            }
+            if (evicted.isEmpty()) {
+                return 0;
+            }
+            ArchiveStorage.archive(ArchiveStorage.DEPLOYMENTS, evicted);
+            final Set<DeploymentOperation> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+            removed.addAll(evicted);
+            runOperations.replaceBy(runOperations
+                    .getView()
+                    .stream()
+                    .filter(item -> !removed.contains(item))
+                    .collect(Collectors.toList()));
+            saveSnapshot();
+            return evicted.size();
+        }
+
+        public List<DeploymentOperation> getArchivedDeploymentsByService(String serviceId) {
+            return ArchiveStorage
+                    .query(ArchiveStorage.DEPLOYMENTS, DeploymentOperation.class,
+                            item -> serviceId.equals(item.getServiceId()))
+                    .stream()
+                    .sorted((a, b) -> Long.compare(b.getTimestamp(), a.getTimestamp()))
+                    .collect(Collectors.toList());
+        }
+
         public boolean deleteDeploymentByRun(String environmentId, String jobName, String runNumber) {
             final DeploymentOperation operation = getDeploymentByRun(environmentId, jobName, runNumber)
                     .orElse(null);
             if (operation != null) {
                 synchronized (this) {
                     if (runOperations.remove(operation)) {
-                        save();
-                        return true;
+                        // Compact immediately so that the journal cannot restore the deleted record
+                        try {
+                            saveSnapshot();
+                            return true;
+                        }
+                        catch (IOException ex) {
+                            LOGGER.log(Level.WARNING, "Unable to save deployments snapshot", ex);
+                            runOperations.add(operation);
+                        }
                     }
                 }
             }
@@ -21,4 +21,17 @@ public interface GenericActivityHandler<T extends AbstractActivity> {
             @NonNull FilePath workspace
     );
 
+    /**
+     * Gather the data required by the activity (remote calls, report parsing...) before the build status
+     * record is locked, and return the handler that will apply it to the activity.
+     * Handlers without any I/O can keep the default implementation.
+     */
+    default GenericActivityHandler<T> prepareActivity(
+            @NonNull TaskListener listener,
+            @NonNull EnvVars env,
+            @NonNull FilePath workspace
+    ) {
+        return this;
+    }
+
 }
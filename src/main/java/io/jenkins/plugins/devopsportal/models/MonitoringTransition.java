@@ -0,0 +1,42 @@
+package io.jenkins.plugins.devopsportal.models;
+
+import java.io.Serializable;
+
+/**
+ * A change of the monitoring state of a service.
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+public class MonitoringTransition implements Serializable {
+
+    private final long timestamp; // seconds
+    private final MonitoringStatus from;
+    private final MonitoringStatus to;
+
+    public MonitoringTransition(long timestamp, MonitoringStatus from, MonitoringStatus to) {
+        this.timestamp = timestamp;
+        this.from = from;
+        this.to = to;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public MonitoringStatus getFrom() {
+        return from;
+    }
+
+    public MonitoringStatus getTo() {
+        return to;
+    }
+
+    /**
+     * @return true if the service went up or down, false for a change between two failure states
+     */
+    public boolean isAvailabilityChange() {
+        return from != MonitoringStatus.DISABLED && to != MonitoringStatus.DISABLED
+                && (from == MonitoringStatus.SUCCESS) != (to == MonitoringStatus.SUCCESS);
+    }
+
+}
@@ -1,22 +1,33 @@
 package io.jenkins.plugins.devopsportal.models;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
+import io.jenkins.plugins.devopsportal.utils.DetailStorage;
 import io.jenkins.plugins.devopsportal.utils.MiscUtils;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
 
+import java.io.IOException;
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 /**
  * A persistent record of a QUALITY_AUDIT activity.
  *
+ * Only the summary (counts and scores) is kept with the record: issues and hotspots are stored apart
+ * with {@link DetailStorage}, and loaded when they are displayed.
+ *
  * @author Rémi BELLO {@literal <remi@evolya.fr>}
  */
 public class QualityAuditActivity extends AbstractActivity {
 
+    private static final Logger LOGGER = Logger.getLogger("io.jenkins.plugins.devopsportal");
+
     private int bugCount;
     private ActivityScore bugScore;
     private int vulnerabilityCount;
@@ -28,7 +39,11 @@ public class QualityAuditActivity extends AbstractActivity {
     private long linesCount;
     private boolean qualityGatePassed = false;
     private boolean complete = false;
+    private String error;
+
+    private String detailsId;
 
+    // Details kept inline: records of older versions, or when the detail storage is not available
     private List<QualityIssue> bugs;
     private List<QualityIssue> vulnerabilities;
     private List<SecurityHotspot> hotspots;
@@ -36,9 +51,6 @@ public class QualityAuditActivity extends AbstractActivity {
     @DataBoundConstructor
     public QualityAuditActivity(String applicationComponent) {
         super(ActivityCategory.QUALITY_AUDIT, applicationComponent);
-        this.bugs = new ArrayList<>();
-        this.vulnerabilities = new ArrayList<>();
-        this.hotspots = new ArrayList<>();
     }
 
     public int getBugCount() {
@@ -48,8 +60,11 @@ public class QualityAuditActivity extends AbstractActivity {
     @DataBoundSetter
     public void setBugCount(int bugCount) {
         this.bugCount = bugCount;
-        if (bugCount == 0) {
-            this.bugs = new ArrayList<>();
+        if (bugCount == 0 && hasIssues()) {
+            final Details details = getDetails();
+            if (!details.bugs.isEmpty()) {
+                setDetails(new Details(Collections.emptyList(), details.vulnerabilities, details.hotspots));
+            }
         }
     }
 
@@ -69,8 +84,11 @@ public class QualityAuditActivity extends AbstractActivity {
     @DataBoundSetter
     public void setVulnerabilityCount(int vulnerabilityCount) {
         this.vulnerabilityCount = vulnerabilityCount;
-        if (vulnerabilityCount == 0) {
-            this.vulnerabilities = new ArrayList<>();
+        if (vulnerabilityCount == 0 && hasIssues()) {
+            final Details details = getDetails();
+            if (!details.vulnerabilities.isEmpty()) {
+                setDetails(new Details(details.bugs, Collections.emptyList(), details.hotspots));
+            }
         }
     }
 
@@ -90,8 +108,11 @@ public class QualityAuditActivity extends AbstractActivity {
     @DataBoundSetter
     public void setHotspotCount(int hotspotCount) {
         this.hotspotCount = hotspotCount;
-        if (hotspotCount == 0) {
-            this.hotspots = new ArrayList<>();
+        if (hotspotCount == 0 && hasIssues()) {
+            final Details details = getDetails();
+            if (!details.hotspots.isEmpty()) {
+                setDetails(new Details(details.bugs, details.vulnerabilities, Collections.emptyList()));
+            }
         }
     }
 
@@ -161,23 +182,128 @@ public class QualityAuditActivity extends AbstractActivity {
 
     public void setComplete(boolean complete) {
         this.complete = complete;
+        this.error = null;
+    }
+
+    /**
+     * Get the reason why the audit data could not be fetched, or null.
+     */
+    public String getError() {
+        return error;
+    }
+
+    public boolean isFailed() {
+        return error != null;
+    }
+
+    /**
+     * Mark the audit as failed: it is left incomplete, with the data of the previous analysis if any.
+     */
+    public void setFailed(@NonNull String error) {
+        this.complete = false;
+        this.error = error;
+    }
+
+    /**
+     * Whether the audit is still waiting for its data.
+     */
+    public boolean isPending() {
+        return !complete && error == null;
     }
 
     public List<QualityIssue> getBugs() {
-        return bugs;
+        return getDetails().bugs;
     }
 
     public List<QualityIssue> getVulnerabilities() {
-        return vulnerabilities;
+        return getDetails().vulnerabilities;
     }
 
     public List<SecurityHotspot> getHotspots() {
-        return hotspots;
+        return getDetails().hotspots;
     }
 
     public boolean hasIssues() {
-        return (bugs != null && vulnerabilities != null && hotspots != null) &&
-                (bugs.size() > 0 || vulnerabilities.size() > 0 || hotspots.size() > 0);
+        // Only non-empty details are stored
+        return detailsId != null || !getInlineDetails().isEmpty();
+    }
+
+    @NonNull
+    private synchronized Details getDetails() {
+        if (detailsId != null) {
+            final Details details = DetailStorage.get(detailsId, Details.class);
+            if (details != null) {
+                return details;
+            }
+        }
+        return getInlineDetails();
+    }
+
+    private Details getInlineDetails() {
+        return new Details(
+                bugs != null ? bugs : Collections.emptyList(),
+                vulnerabilities != null ? vulnerabilities : Collections.emptyList(),
+                hotspots != null ? hotspots : Collections.emptyList()
+        );
+    }
+
+    private synchronized void setDetails(@NonNull Details details) {
+        final String previous = detailsId;
+        detailsId = null;
+        bugs = null;
+        vulnerabilities = null;
+        hotspots = null;
+        if (!details.isEmpty()) {
+            try {
+                detailsId = DetailStorage.isAvailable() ? DetailStorage.put(details) : null;
+            }
+            catch (IOException ex) {
+                LOGGER.log(Level.WARNING, "Unable to store quality audit details, they are kept inline", ex);
+            }
+            if (detailsId == null) {
+                bugs = details.bugs;
+                vulnerabilities = details.vulnerabilities;
+                hotspots = details.hotspots;
+            }
+        }
+        if (previous != null) {
+            // Deleted once the record is saved with the new payload
+            discardDetails(previous);
+        }
+    }
+
+    @Override
+    synchronized boolean externalizeDetails() {
+        if (detailsId != null || !DetailStorage.isAvailable()) {
+            return false;
+        }
+        final Details details = getInlineDetails();
+        if (details.isEmpty()) {
+            return false;
+        }
+        setDetails(details);
+        return detailsId != null;
+    }
+
+    @Override
+    synchronized void deleteDetails() {
+        if (detailsId != null) {
+            discardDetails(detailsId);
+        }
+    }
+
+    @Override
+    synchronized void inlineDetails() {
+        if (detailsId == null) {
+            return;
+        }
+        final Details details = getDetails();
+        final String previous = detailsId;
+        detailsId = null;
+        bugs = new ArrayList<>(details.bugs);
+        vulnerabilities = new ArrayList<>(details.vulnerabilities);
+        hotspots = new ArrayList<>(details.hotspots);
+        discardDetails(previous);
     }
 
     public void setMetrics(List<Map<String, Object>> metrics) {
@@ -206,28 +332,71 @@ public class QualityAuditActivity extends AbstractActivity {
     }
 
     public void setIssues(List<Map<String, Object>> issues) {
-        setBugCount(0);
-        setVulnerabilityCount(0);
-        for (Map<String, Object> item : issues) {
-            if ("java:S1135".equals(MiscUtils.getStringOrEmpty(item, "rule"))) {
+        setQualityIssues(issues.stream().map(QualityIssue::new).collect(Collectors.toList()));
+    }
+
+    /**
+     * Set the bugs and vulnerabilities from the issues of the audit, other issues being ignored.
+     */
+    public void setQualityIssues(@NonNull List<QualityIssue> issues) {
+        setQualityIssues(issues, getHotspots());
+    }
+
+    /**
+     * Set the issues and the hotspots of the audit at once, so that their details are stored only once.
+     */
+    public void setQualityIssues(@NonNull List<QualityIssue> issues, @NonNull List<SecurityHotspot> hotspots) {
+        final List<QualityIssue> bugs = new ArrayList<>();
+        final List<QualityIssue> vulnerabilities = new ArrayList<>();
+        for (QualityIssue item : issues) {
+            if ("java:S1135".equals(item.getRule())) {
                 // Ignore TO DO issues
                 continue;
             }
-            String type = MiscUtils.getStringOrEmpty(item, "type").toUpperCase();
+            String type = item.getType() != null ? item.getType().toUpperCase() : "";
             if ("BUG".equals(type)) {
-                this.bugs.add(new QualityIssue(item));
+                bugs.add(item);
             }
             else if ("VULNERABILITY".equals(type)) {
-                this.vulnerabilities.add(new QualityIssue(item));
+                vulnerabilities.add(item);
             }
         }
-        bugCount = this.bugs.size();
-        vulnerabilityCount = this.vulnerabilities.size();
+        bugCount = bugs.size();
+        vulnerabilityCount = vulnerabilities.size();
+        hotspotCount = hotspots.size();
+        setDetails(new Details(bugs, vulnerabilities, hotspots));
     }
 
     public void setHotSpots(@NonNull List<Map<String, Object>> hotspots) {
+        setSecurityHotspots(hotspots.stream().map(SecurityHotspot::new).collect(Collectors.toList()));
+    }
+
+    public void setSecurityHotspots(@NonNull List<SecurityHotspot> hotspots) {
         this.hotspotCount = hotspots.size();
-        this.hotspots = hotspots.stream().map(SecurityHotspot::new).collect(Collectors.toList());
+        final Details details = getDetails();
+        setDetails(new Details(details.bugs, details.vulnerabilities, hotspots));
+    }
+
+    /**
+     * Detail payload of the activity. It is shared through a cache, and must not be modified.
+     */
+    public static final class Details implements Serializable {
+
+        private final List<QualityIssue> bugs;
+        private final List<QualityIssue> vulnerabilities;
+        private final List<SecurityHotspot> hotspots;
+
+        public Details(@NonNull List<QualityIssue> bugs, @NonNull List<QualityIssue> vulnerabilities,
+                       @NonNull List<SecurityHotspot> hotspots) {
+            this.bugs = new ArrayList<>(bugs);
+            this.vulnerabilities = new ArrayList<>(vulnerabilities);
+            this.hotspots = new ArrayList<>(hotspots);
+        }
+
+        public boolean isEmpty() {
+            return bugs.isEmpty() && vulnerabilities.isEmpty() && hotspots.isEmpty();
+        }
+
     }
 
 }
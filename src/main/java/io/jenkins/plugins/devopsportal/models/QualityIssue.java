@@ -1,5 +1,6 @@
 package io.jenkins.plugins.devopsportal.models;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import io.jenkins.plugins.devopsportal.utils.MiscUtils;
 import org.kohsuke.stapler.DataBoundConstructor;
@@ -11,6 +12,8 @@ import java.util.Map;
 /**
  * Model for an issue in a quality audit activity
  *
+ * It is also read directly from the SonarQube API responses, using the API attribute names.
+ *
  * @author Rémi BELLO {@literal <remi@evolya.fr>}
  */
 public class QualityIssue implements Serializable {
@@ -21,6 +24,7 @@ public class QualityIssue implements Serializable {
     private String rule;
     private String message;
     private String creation;
+    private transient String type;
 
     @DataBoundConstructor
     public QualityIssue() {
@@ -33,6 +37,7 @@ public class QualityIssue implements Serializable {
         message = MiscUtils.getStringOrEmpty(issue, "message");
         rule = MiscUtils.getStringOrEmpty(issue, "rule");
         creation = MiscUtils.getStringOrEmpty(issue, "creationDate");
+        type = MiscUtils.getStringOrEmpty(issue, "type");
     }
 
     public String getSeverity() {
@@ -49,6 +54,7 @@ public class QualityIssue implements Serializable {
     }
 
     @DataBoundSetter
+    @JsonProperty("component")
     public void setFile(String file) {
         this.file = file;
     }
@@ -85,8 +91,20 @@ public class QualityIssue implements Serializable {
     }
 
     @DataBoundSetter
+    @JsonProperty("creationDate")
     public void setCreation(String creation) {
         this.creation = creation;
     }
 
+    /**
+     * @return the SonarQube issue type (BUG, VULNERABILITY, CODE_SMELL), only known while the issue is fetched
+     */
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
 }
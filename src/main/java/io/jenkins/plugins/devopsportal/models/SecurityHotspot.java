@@ -1,5 +1,6 @@
 package io.jenkins.plugins.devopsportal.models;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import io.jenkins.plugins.devopsportal.utils.MiscUtils;
 import org.kohsuke.stapler.DataBoundConstructor;
@@ -11,6 +12,8 @@ import java.util.Map;
 /**
  * Model for a security hotspot in a quality audit activity
  *
+ * It is also read directly from the SonarQube API responses, using the API attribute names.
+ *
  * @author Rémi BELLO {@literal <remi@evolya.fr>}
  */
 public class SecurityHotspot implements Serializable {
@@ -40,6 +43,7 @@ public class SecurityHotspot implements Serializable {
     }
 
     @DataBoundSetter
+    @JsonProperty("securityCategory")
     public void setCategory(String category) {
         this.category = category;
     }
@@ -49,6 +53,7 @@ public class SecurityHotspot implements Serializable {
     }
 
     @DataBoundSetter
+    @JsonProperty("component")
     public void setFile(String file) {
         this.file = file;
     }
@@ -78,6 +83,7 @@ public class SecurityHotspot implements Serializable {
 
     @SuppressWarnings("unused")
     @DataBoundSetter
+    @JsonProperty("vulnerabilityProbability")
     public void setProbability(String probability) {
         this.probability = probability;
     }
@@ -87,6 +93,7 @@ public class SecurityHotspot implements Serializable {
     }
 
     @DataBoundSetter
+    @JsonProperty("creationDate")
     public void setCreation(String creation) {
         this.creation = creation;
     }
@@ -4,9 +4,12 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
 import hudson.model.Describable;
 import hudson.model.Descriptor;
+import hudson.model.Label;
 import hudson.util.CopyOnWriteList;
 import hudson.util.FormValidation;
 import io.jenkins.plugins.devopsportal.Messages;
+import io.jenkins.plugins.devopsportal.checks.HttpGetCheck;
+import io.jenkins.plugins.devopsportal.checks.ServiceCheck;
 import io.jenkins.plugins.devopsportal.utils.MiscUtils;
 import jenkins.model.Jenkins;
 import org.apache.commons.lang.StringEscapeUtils;
@@ -30,13 +33,18 @@ import java.util.*;
  */
 public class ServiceConfiguration implements Describable<ServiceConfiguration>, Serializable {
 
+    public static final int MIN_MONITORING_INTERVAL = 5; // seconds
+
     private String id;
     private String label;
     private String category;
     private String url;
+    private ServiceCheck check; // GET expecting a 200 status if null
     private boolean enableMonitoring;
     private int delayMonitoringMinutes;
+    private int delayMonitoringSeconds; // overrides the minutes if set
     private boolean acceptInvalidCertificate;
+    private String agentLabel; // probes run on the controller if empty
 
     @DataBoundConstructor
     public ServiceConfiguration(String label, String category, String url, boolean enableMonitoring,
@@ -88,6 +96,15 @@ public class ServiceConfiguration implements Describable<ServiceConfiguration>,
         this.url = url;
     }
 
+    public ServiceCheck getCheck() {
+        return check;
+    }
+
+    @DataBoundSetter
+    public void setCheck(ServiceCheck check) {
+        this.check = check;
+    }
+
     public boolean isEnableMonitoring() {
         return enableMonitoring;
     }
@@ -106,6 +123,25 @@ public class ServiceConfiguration implements Describable<ServiceConfiguration>,
         this.delayMonitoringMinutes = delayMonitoringMinutes;
     }
 
+    public int getDelayMonitoringSeconds() {
+        return delayMonitoringSeconds;
+    }
+
+    @DataBoundSetter
+    public void setDelayMonitoringSeconds(int delayMonitoringSeconds) {
+        this.delayMonitoringSeconds = delayMonitoringSeconds;
+    }
+
+    /**
+     * @return the time interval between two checks, in seconds
+     */
+    public long getMonitoringInterval() {
+        if (delayMonitoringSeconds > 0) {
+            return Math.max(MIN_MONITORING_INTERVAL, delayMonitoringSeconds);
+        }
+        return Math.max(1, delayMonitoringMinutes) * 60L;
+    }
+
     public boolean isAcceptInvalidCertificate() {
         return acceptInvalidCertificate;
     }
@@ -115,6 +151,15 @@ public class ServiceConfiguration implements Describable<ServiceConfiguration>,
         this.acceptInvalidCertificate = acceptInvalidCertificate;
     }
 
+    public String getAgentLabel() {
+        return agentLabel;
+    }
+
+    @DataBoundSetter
+    public void setAgentLabel(String agentLabel) {
+        this.agentLabel = agentLabel == null || agentLabel.trim().isEmpty() ? null : agentLabel.trim();
+    }
+
     public boolean isValidURL() {
         return MiscUtils.isValidURL(this.url);
     }
@@ -153,9 +198,12 @@ public class ServiceConfiguration implements Describable<ServiceConfiguration>,
                 .append(label, other.label)
                 .append(category, other.category)
                 .append(url, other.url)
+                .append(check, other.check)
                 .append(enableMonitoring, other.enableMonitoring)
                 .append(delayMonitoringMinutes, other.delayMonitoringMinutes)
+                .append(delayMonitoringSeconds, other.delayMonitoringSeconds)
                 .append(acceptInvalidCertificate, other.acceptInvalidCertificate)
+                .append(agentLabel, other.agentLabel)
                 .isEquals();
     }
 
@@ -213,11 +261,26 @@ public class ServiceConfiguration implements Describable<ServiceConfiguration>,
             return 5;
         }
 
+        @SuppressWarnings("unused")
+        public int getDefaultDelayMonitoringSeconds() {
+            return 0;
+        }
+
         @SuppressWarnings("unused")
         public boolean getDefaultAcceptInvalidCertificate() {
             return false;
         }
 
+        @SuppressWarnings("unused")
+        public List<Descriptor<ServiceCheck>> getCheckDescriptors() {
+            return ServiceCheck.all();
+        }
+
+        @SuppressWarnings("unused")
+        public Descriptor<ServiceCheck> getDefaultCheckDescriptor() {
+            return Jenkins.get().getDescriptorByType(HttpGetCheck.DescriptorImpl.class);
+        }
+
         public synchronized List<ServiceConfiguration> getServiceConfigurations() {
             List<ServiceConfiguration> retVal = new ArrayList<>(serviceConfigurations.getView());
             retVal.sort(Comparator.comparing(ServiceConfiguration::getLabel));
@@ -227,6 +290,7 @@ public class ServiceConfiguration implements Describable<ServiceConfiguration>,
         public synchronized void setServiceConfigurations(List<ServiceConfiguration> services) {
             serviceConfigurations.clear();
             serviceConfigurations.addAll(services);
+            // Saved right away, as the settings screen reports the configuration as saved
             save();
         }
 
@@ -265,6 +329,27 @@ public class ServiceConfiguration implements Describable<ServiceConfiguration>,
             return FormValidation.ok();
         }
 
+        @SuppressWarnings("unused")
+        public FormValidation doCheckDelayMonitoringSeconds(@QueryParameter int delayMonitoringSeconds) {
+            if (delayMonitoringSeconds < 0
+                    || (delayMonitoringSeconds > 0 && delayMonitoringSeconds < MIN_MONITORING_INTERVAL)) {
+                return FormValidation.error(Messages.FormValidation_Error_InvalidValue());
+            }
+            return FormValidation.ok();
+        }
+
+        @SuppressWarnings("unused")
+        public FormValidation doCheckAgentLabel(@QueryParameter String agentLabel) {
+            if (agentLabel == null || agentLabel.trim().isEmpty()) {
+                return FormValidation.ok();
+            }
+            final Label label = Jenkins.get().getLabel(agentLabel.trim());
+            if (label == null || label.isEmpty()) {
+                return FormValidation.warning(Messages.FormValidation_Warning_NoAgentMatchingLabel());
+            }
+            return FormValidation.ok();
+        }
+
     }
 
 }
@@ -6,7 +6,12 @@ import hudson.model.Describable;
 import hudson.model.Descriptor;
 import hudson.util.CopyOnWriteList;
 import io.jenkins.plugins.devopsportal.Messages;
+import io.jenkins.plugins.devopsportal.utils.ArchiveStorage;
+import io.jenkins.plugins.devopsportal.utils.LatencyHistogram;
+import io.jenkins.plugins.devopsportal.utils.ServiceProbeTimings;
+import io.jenkins.plugins.devopsportal.workers.PersistencePeriodicWork;
 import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.apache.commons.lang.builder.ToStringBuilder;
@@ -14,11 +19,17 @@ import org.apache.commons.lang.builder.ToStringStyle;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * A persistent record of the availability state of an application service.
@@ -27,6 +38,11 @@ import java.util.function.Consumer;
  */
 public class ServiceMonitoring implements Describable<ServiceMonitoring>, Serializable {
 
+    public static final int MAX_TRANSITIONS = 50;
+
+    public static final long LATENCY_WINDOW = Math.max(60L, SystemProperties.getLong(
+            ServiceMonitoring.class.getName() + ".latencyWindow", 3600L)); // seconds
+
     private String serviceId;
     private MonitoringStatus currentMonitoringStatus;
     private long lastSuccessTimestamp; // seconds
@@ -35,6 +51,11 @@ public class ServiceMonitoring implements Describable<ServiceMonitoring>, Serial
     private int failureCount;
     private long lastCertificateCheckTimestamp; // seconds
     private long certificateExpiration; // ms
+    private ServiceProbeTimings lastTimings;
+    private LatencyHistogram responseTimes;
+    private LatencyHistogram previousResponseTimes;
+    private List<MonitoringTransition> transitions;
+    private boolean flapping;
 
     @DataBoundConstructor
     public ServiceMonitoring() {
@@ -125,6 +146,41 @@ public class ServiceMonitoring implements Describable<ServiceMonitoring>, Serial
         this.certificateExpiration = certificateExpiration;
     }
 
+    @SuppressWarnings("unused")
+    public ServiceProbeTimings getLastTimings() {
+        return lastTimings;
+    }
+
+    public void addResponseTime(@NonNull ServiceProbeTimings timings, long timestamp) {
+        final long windowStart = timestamp - timestamp % LATENCY_WINDOW;
+        if (responseTimes == null || responseTimes.getStart() != windowStart) {
+            // The previous window is kept only if it is the one just before
+            previousResponseTimes = responseTimes != null && responseTimes.getStart() == windowStart - LATENCY_WINDOW
+                    ? responseTimes : null;
+            responseTimes = new LatencyHistogram(windowStart);
+        }
+        responseTimes.record(timings.getTotal());
+        lastTimings = timings;
+    }
+
+    public boolean isResponseTimeAvailable() {
+        return getResponseTimePercentile(100) >= 0;
+    }
+
+    /**
+     * @param percentile from 0 to 100
+     * @return the response time (ms) of the given percentile over the current and the previous windows, or -1
+     */
+    public long getResponseTimePercentile(int percentile) {
+        final long now = Instant.now().getEpochSecond();
+        final long windowStart = now - now % LATENCY_WINDOW;
+        final LatencyHistogram current = responseTimes;
+        final LatencyHistogram previous = previousResponseTimes;
+        return LatencyHistogram.getPercentile(percentile,
+                current != null && current.getStart() >= windowStart - LATENCY_WINDOW ? current : null,
+                previous != null && previous.getStart() >= windowStart - LATENCY_WINDOW ? previous : null);
+    }
+
     public String getIcon() {
         if (currentMonitoringStatus == null) {
             return MonitoringStatus.defaultIcon();
@@ -203,10 +259,6 @@ public class ServiceMonitoring implements Describable<ServiceMonitoring>, Serial
         return Math.max(lastSuccessTimestamp, lastFailureTimestamp);
     }
 
-    public boolean isAvailabilityUpdateRequired(int delayMonitoringMinutes) {
-        return getLastUpdateTimestamp() + delayMonitoringMinutes * 60L <= Instant.now().getEpochSecond();
-    }
-
     public boolean isCertificateUpdateRequired() {
         return getLastCertificateCheckTimestamp() + 3600L <= Instant.now().getEpochSecond();
     }
@@ -219,6 +271,54 @@ public class ServiceMonitoring implements Describable<ServiceMonitoring>, Serial
         return false;
     }
 
+    /**
+     * @return the last state changes, the most recent first
+     */
+    public List<MonitoringTransition> getTransitions() {
+        if (transitions == null) {
+            return Collections.emptyList();
+        }
+        final List<MonitoringTransition> list = new ArrayList<>(transitions);
+        Collections.reverse(list);
+        return list;
+    }
+
+    public void addTransition(@NonNull MonitoringTransition transition) {
+        if (transitions == null) {
+            transitions = new ArrayList<>();
+        }
+        transitions.add(transition);
+        if (transitions.size() > MAX_TRANSITIONS) {
+            transitions.remove(0);
+        }
+    }
+
+    public boolean isFlapping() {
+        return flapping;
+    }
+
+    /**
+     * Detect flapping from the number of times the service went up or down during a period. A hysteresis
+     * avoids leaving the flapping state as soon as the count drops below the threshold.
+     *
+     * @param since start of the period, in seconds
+     * @param threshold number of availability changes from which the service is flapping
+     * @return true if the flapping state changed
+     */
+    public boolean updateFlapping(long since, int threshold) {
+        final long changes = transitions == null ? 0 : transitions
+                .stream()
+                .filter(transition -> transition.getTimestamp() >= since)
+                .filter(MonitoringTransition::isAvailabilityChange)
+                .count();
+        final boolean value = flapping ? changes > threshold / 2 : changes >= threshold;
+        if (value == flapping) {
+            return false;
+        }
+        flapping = value;
+        return true;
+    }
+
     public void setFailure(MonitoringStatus status, String message) {
         if (status != null) {
             setCurrentMonitoringStatus(status);
@@ -244,7 +344,7 @@ public class ServiceMonitoring implements Describable<ServiceMonitoring>, Serial
             return Messages.ServiceMonitoring_DisplayName();
         }
 
-        public void update(@NonNull String serviceId, Consumer<ServiceMonitoring> updater) {
+        public synchronized void update(@NonNull String serviceId, Consumer<ServiceMonitoring> updater) {
             ServiceMonitoring item = getMonitoringByService(serviceId).orElse(null);
             if (item == null) {
                 item = new ServiceMonitoring();
@@ -252,7 +352,31 @@ public class ServiceMonitoring implements Describable<ServiceMonitoring>, Serial
                 servicesMonitoring.add(item);
             }
             updater.accept(item);
-            save();
+            PersistencePeriodicWork.markDirty(this);
+        }
+
+        /**
+         * Move to the archive the monitoring states of services which are no longer configured.
+         *
+         * @return the number of archived monitoring states
+         */
+        public synchronized int retainServices(@NonNull Collection<String> serviceIds) throws IOException {
+            final List<ServiceMonitoring> evicted = servicesMonitoring
+                    .getView()
+                    .stream()
+                    .filter(item -> !serviceIds.contains(item.getServiceId()))
+                    .collect(Collectors.toList());
+            if (evicted.isEmpty()) {
+                return 0;
+            }
+            ArchiveStorage.archive(ArchiveStorage.MONITORING, evicted);
+            servicesMonitoring.replaceBy(servicesMonitoring
+                    .getView()
+                    .stream()
+                    .filter(item -> serviceIds.contains(item.getServiceId()))
+                    .collect(Collectors.toList()));
+            PersistencePeriodicWork.markDirty(this);
+            return evicted.size();
         }
 
         public Optional<ServiceMonitoring> getMonitoringByService(String id) {
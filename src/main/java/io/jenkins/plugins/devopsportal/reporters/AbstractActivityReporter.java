@@ -85,6 +85,24 @@ public abstract class AbstractActivityReporter<T extends AbstractActivity> exten
             return;
         }
 
+        // Gather activity data (remote calls, reports parsing) before locking the BuildStatus
+        final GenericActivityHandler<T> handler;
+        try {
+            handler = prepareActivity(listener, env, workspace);
+        }
+        catch (Exception ex) {
+            listener.getLogger().printf(
+                    "Build activity '%s' changed run result to: %s due to an %s : %s%n",
+                    getActivityCategory(),
+                    Result.FAILURE,
+                    ex.getClass().getSimpleName(),
+                    ex.getMessage()
+            );
+            LOGGER.log(Level.INFO, "Failed to execute: " + getClass().getName(), ex);
+            run.setResult(Result.FAILURE);
+            return;
+        }
+
         // Create or update BuildStatus
         getBuildStatusDescriptor().update(applicationName, applicationVersion, record -> {
 
@@ -107,7 +125,7 @@ public abstract class AbstractActivityReporter<T extends AbstractActivity> exten
                         getActivityCategory(),
                         listener,
                         env,
-                        this,
+                        handler,
                         workspace
                 );
                 // In case of failure
@@ -12,6 +12,7 @@ import io.jenkins.plugins.devopsportal.models.ActivityCategory;
 import io.jenkins.plugins.devopsportal.models.ActivityScore;
 import io.jenkins.plugins.devopsportal.models.ApplicationBuildStatus;
 import io.jenkins.plugins.devopsportal.models.BuildActivity;
+import io.jenkins.plugins.devopsportal.models.GenericActivityHandler;
 import io.jenkins.plugins.devopsportal.utils.MiscUtils;
 import io.jenkins.plugins.devopsportal.utils.RemoteFileSizeGetter;
 import org.kohsuke.stapler.DataBoundConstructor;
@@ -64,21 +65,23 @@ public class BuildActivityReporter extends AbstractActivityReporter<BuildActivit
     @Override
     public Result updateActivity(@NonNull ApplicationBuildStatus status, @NonNull BuildActivity activity,
                                  @NonNull TaskListener listener, @NonNull EnvVars env, @NonNull FilePath workspace) {
-        activity.setArtifactFileName(artifactFileName);
-        activity.setArtifactFileSizeLimit(artifactFileSizeLimit);
-        long previousSize = activity.getArtifactFileSize();
-        activity.setArtifactFileSize(0);
-        activity.setArtifactFileSizeDelta(0);
+        return prepareActivity(listener, env, workspace).updateActivity(status, activity, listener, env, workspace);
+    }
+
+    @Override
+    public GenericActivityHandler<BuildActivity> prepareActivity(@NonNull TaskListener listener,
+                                                                 @NonNull EnvVars env, @NonNull FilePath workspace) {
         if (artifactFileName == null) {
-            return null;
+            return (status, activity, taskListener, environment, path) -> applyFileSize(activity, taskListener, 0, false);
         }
         // Get file size
+        long size = 0;
         try {
             if (workspace.isRemote()) {
-                getFileSizeFromRemoteWorkspace(activity, new FilePath(workspace, artifactFileName));
+                size = getFileSizeFromRemoteWorkspace(new FilePath(workspace, artifactFileName));
             }
             else {
-                getFileSizeFromLocalWorkspace(activity, env);
+                size = getFileSizeFromLocalWorkspace(env);
             }
         }
         catch (InterruptedException ex) {
@@ -91,9 +94,27 @@ public class BuildActivityReporter extends AbstractActivityReporter<BuildActivit
             if (LOGGER.isLoggable(Level.FINER)) {
                 LOGGER.log(Level.FINER, "Error reading artifact file: " + artifactFileName, ex);
             }
+            return (status, activity, taskListener, environment, path) -> applyFileSize(activity, taskListener, 0, true);
+        }
+        final long artifactFileSize = size;
+        return (status, activity, taskListener, environment, path) -> applyFileSize(activity, taskListener, artifactFileSize, false);
+    }
+
+    private Result applyFileSize(@NonNull BuildActivity activity, @NonNull TaskListener listener,
+                                 long artifactFileSize, boolean error) {
+        activity.setArtifactFileName(artifactFileName);
+        activity.setArtifactFileSizeLimit(artifactFileSizeLimit);
+        long previousSize = activity.getArtifactFileSize();
+        activity.setArtifactFileSize(0);
+        activity.setArtifactFileSizeDelta(0);
+        if (artifactFileName == null) {
+            return null;
+        }
+        if (error) {
             activity.setScore(ActivityScore.E);
             return Result.FAILURE;
         }
+        activity.setArtifactFileSize(artifactFileSize);
         // File size comparison
         if (activity.getArtifactFileSize() > 0) {
             activity.setArtifactFileSizeDelta(activity.getArtifactFileSize() - previousSize);
@@ -116,19 +137,19 @@ public class BuildActivityReporter extends AbstractActivityReporter<BuildActivit
         return null;
     }
 
-    private void getFileSizeFromRemoteWorkspace(BuildActivity activity, FilePath target) throws IOException, InterruptedException {
-        long size = target.act(new RemoteFileSizeGetter());
-        activity.setArtifactFileSize(size);
+    private long getFileSizeFromRemoteWorkspace(FilePath target) throws IOException, InterruptedException {
+        return target.act(new RemoteFileSizeGetter());
     }
 
-    private void getFileSizeFromLocalWorkspace(@NonNull BuildActivity activity, @NonNull EnvVars env) {
+    private long getFileSizeFromLocalWorkspace(@NonNull EnvVars env) {
         final File file = MiscUtils.checkFilePathIllegalAccess(
             env.get("WORKSPACE", null),
             artifactFileName
         );
         if (file != null) {
-            activity.setArtifactFileSize(file.length());
+            return file.length();
         }
+        return 0;
     }
 
     @Override
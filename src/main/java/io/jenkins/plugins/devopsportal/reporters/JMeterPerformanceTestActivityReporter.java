@@ -9,6 +9,7 @@ import hudson.model.TaskListener;
 import io.jenkins.plugins.devopsportal.Messages;
 import io.jenkins.plugins.devopsportal.models.ActivityCategory;
 import io.jenkins.plugins.devopsportal.models.ApplicationBuildStatus;
+import io.jenkins.plugins.devopsportal.models.GenericActivityHandler;
 import io.jenkins.plugins.devopsportal.models.PerformanceTestActivity;
 import io.jenkins.plugins.devopsportal.utils.MiscUtils;
 import io.jenkins.plugins.devopsportal.utils.PerformanceTestResult;
@@ -50,12 +51,14 @@ public class JMeterPerformanceTestActivityReporter extends AbstractActivityRepor
     @Override
     public Result updateActivity(@NonNull ApplicationBuildStatus status, @NonNull PerformanceTestActivity activity,
                                  @NonNull TaskListener listener, @NonNull EnvVars env, @NonNull FilePath workspace) {
+        return prepareActivity(listener, env, workspace).updateActivity(status, activity, listener, env, workspace);
+    }
 
-        activity.setTestCount(0);
-        activity.setSampleCount(0);
-        activity.setErrorCount(0);
-
-        PerformanceTestResult result;
+    @Override
+    public GenericActivityHandler<PerformanceTestActivity> prepareActivity(@NonNull TaskListener listener,
+                                                                           @NonNull EnvVars env,
+                                                                           @NonNull FilePath workspace) {
+        final PerformanceTestResult result;
         try {
             if (workspace.isRemote()) {
                 result = parseFilesFromRemoteWorkspace(new FilePath(workspace, jmeterReportPath));
@@ -67,7 +70,10 @@ public class JMeterPerformanceTestActivityReporter extends AbstractActivityRepor
         catch (InterruptedException ex) {
             // Restore interrupted state...
             Thread.currentThread().interrupt();
-            return null;
+            return (status, activity, taskListener, environment, path) -> {
+                resetCounters(activity);
+                return null;
+            };
         }
         catch (Exception ex) {
             listener.getLogger().println(Messages.JMeterPerformanceTestActivityReporter_Error_XmlParserError()
@@ -76,20 +82,33 @@ public class JMeterPerformanceTestActivityReporter extends AbstractActivityRepor
             if (LOGGER.isLoggable(Level.FINER)) {
                 LOGGER.log(Level.FINER, "Error reading performance report file: " + jmeterReportPath, ex);
             }
-            return Result.FAILURE;
+            return (status, activity, taskListener, environment, path) -> {
+                resetCounters(activity);
+                return Result.FAILURE;
+            };
         }
 
         if (result == null) {
             listener.getLogger().println("No performance report '" + jmeterReportPath
                     + "' found. Configuration error?");
-            return Result.UNSTABLE;
+            return (status, activity, taskListener, environment, path) -> {
+                resetCounters(activity);
+                return Result.UNSTABLE;
+            };
         }
 
-        activity.setTestCount(result.getTestCount());
-        activity.setSampleCount(result.getSampleCount());
-        activity.setErrorCount(result.getErrorCount());
+        return (status, activity, taskListener, environment, path) -> {
+            activity.setTestCount(result.getTestCount());
+            activity.setSampleCount(result.getSampleCount());
+            activity.setErrorCount(result.getErrorCount());
+            return PerformanceTestActivityReporter.handleActivityResult(activity);
+        };
+    }
 
-        return PerformanceTestActivityReporter.handleActivityResult(activity);
+    private static void resetCounters(@NonNull PerformanceTestActivity activity) {
+        activity.setTestCount(0);
+        activity.setSampleCount(0);
+        activity.setErrorCount(0);
     }
 
     private PerformanceTestResult parseFilesFromLocalWorkspace(EnvVars env) throws Exception {
@@ -46,13 +46,20 @@ public class MavenDependenciesAnalysisActivityReporter extends AbstractActivityR
     @Override
     public Result updateActivity(@NonNull ApplicationBuildStatus status, @NonNull DependenciesAnalysisActivity activity,
                                  @NonNull TaskListener listener, @NonNull EnvVars env, @NonNull FilePath workspace) {
+        return prepareActivity(listener, env, workspace).updateActivity(status, activity, listener, env, workspace);
+    }
+
+    @Override
+    public GenericActivityHandler<DependenciesAnalysisActivity> prepareActivity(@NonNull TaskListener listener,
+                                                                                @NonNull EnvVars env,
+                                                                                @NonNull FilePath workspace) {
 
         // Log
         listener.getLogger().println(Messages.DependenciesAnalysisActivityReporter_AnalysisStarted()
                 .replace("%file%", reportPath)
         );
 
-        VulnerabilityAnalysisResult result;
+        final VulnerabilityAnalysisResult result;
         try {
             if (workspace.isRemote()) {
                 result = parseFilesFromRemoteWorkspace(new FilePath(workspace, reportPath));
@@ -64,7 +71,7 @@ public class MavenDependenciesAnalysisActivityReporter extends AbstractActivityR
         catch (InterruptedException ex) {
             // Restore interrupted state...
             Thread.currentThread().interrupt();
-            return null;
+            return (status, activity, taskListener, environment, path) -> null;
         }
         catch (Exception ex) {
             listener.getLogger().println("Error, unable to parse report file: " + ex.getClass().getSimpleName()
@@ -72,20 +79,22 @@ public class MavenDependenciesAnalysisActivityReporter extends AbstractActivityR
             if (LOGGER.isLoggable(Level.FINER)) {
                 LOGGER.log(Level.FINER, "Error reading analysis report file: " + reportPath, ex);
             }
-            return Result.FAILURE;
+            return (status, activity, taskListener, environment, path) -> Result.FAILURE;
         }
 
         if (result == null) {
             listener.getLogger().println("No dependency analysis report '" + reportPath
                     + "' found. Configuration error?");
-            return Result.UNSTABLE;
+            return (status, activity, taskListener, environment, path) -> Result.UNSTABLE;
         }
 
         listener.getLogger().println("Dependencies: " + result.getDependenciesCount());
         listener.getLogger().println("Vulnerabilities: " + result.getVulnerabilitiesCount());
 
-        activity.setVulnerabilities(result);
-        return null;
+        return (status, activity, taskListener, environment, path) -> {
+            activity.setVulnerabilities(result);
+            return null;
+        };
     }
 
     private VulnerabilityAnalysisResult parseFilesFromLocalWorkspace(EnvVars env) throws Exception {
@@ -9,12 +9,19 @@ import hudson.model.TaskListener;
 import io.jenkins.plugins.devopsportal.Messages;
 import io.jenkins.plugins.devopsportal.models.ActivityCategory;
 import io.jenkins.plugins.devopsportal.models.ApplicationBuildStatus;
+import io.jenkins.plugins.devopsportal.models.GenericActivityHandler;
 import io.jenkins.plugins.devopsportal.models.QualityAuditActivity;
 import io.jenkins.plugins.devopsportal.workers.SonarQubeCheckPeriodicWork;
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
 /**
  * Build step of a project used to record a QUALITY_AUDIT activity.
  *
@@ -22,6 +29,15 @@ import org.kohsuke.stapler.DataBoundSetter;
  */
 public class SonarQualityAuditActivityReporter extends AbstractActivityReporter<QualityAuditActivity> {
 
+    private static final Logger LOGGER = Logger.getLogger("io.jenkins.plugins.devopsportal");
+
+    // Files written by the SonarQube scanners, holding the compute engine task of the analysis
+    private static final String[] REPORT_TASK_FILES = {
+            "target/sonar/report-task.txt", // Maven
+            "build/sonar/report-task.txt", // Gradle
+            ".scannerwork/report-task.txt" // Scanner CLI
+    };
+
     private String projectKey;
     private boolean acceptInvalidCertificate;
 
@@ -49,34 +65,90 @@ public class SonarQualityAuditActivityReporter extends AbstractActivityReporter<
     }
 
     @Override
-    @SuppressWarnings({"java:S3516"})
     public Result updateActivity(@NonNull ApplicationBuildStatus status, @NonNull QualityAuditActivity activity,
                                  @NonNull TaskListener listener, @NonNull EnvVars env, @NonNull FilePath workspace) {
+        return prepareActivity(listener, env, workspace).updateActivity(status, activity, listener, env, workspace);
+    }
 
+    @Override
+    public GenericActivityHandler<QualityAuditActivity> prepareActivity(@NonNull TaskListener listener,
+                                                                        @NonNull EnvVars env,
+                                                                        @NonNull FilePath workspace) {
         if (!env.containsKey("SONAR_AUTH_TOKEN") || !env.containsKey("SONAR_HOST_URL")) {
             listener.getLogger().println(Messages.SonarQualityAuditActivityReporter_Error_MissingEnvVar());
-            return null;
+            return (status, activity, taskListener, environment, path) -> null;
         }
+        // The scanner report is read from the workspace before the build status is locked
+        final String ceTaskId = getCeTaskId(workspace, projectKey);
+        return (status, activity, taskListener, environment, path) ->
+                applyAudit(status, activity, taskListener, env, ceTaskId);
+    }
+
+    private Result applyAudit(@NonNull ApplicationBuildStatus status, @NonNull QualityAuditActivity activity,
+                              @NonNull TaskListener listener, @NonNull EnvVars env, String ceTaskId) {
 
         activity.setComplete(false);
 
-        SonarQubeCheckPeriodicWork.push(
-                env.get("JOB_NAME"),
-                env.get("BUILD_NUMBER"),
-                projectKey,
-                activity,
-                env.get("SONAR_HOST_URL"),
-                env.get("SONAR_AUTH_TOKEN"),
-                status.getApplicationName(),
-                status.getApplicationVersion(),
-                getApplicationComponent(),
-                acceptInvalidCertificate
-        );
+        try {
+            SonarQubeCheckPeriodicWork.push(
+                    env.get("JOB_NAME"),
+                    env.get("BUILD_NUMBER"),
+                    projectKey,
+                    env.get("SONAR_HOST_URL"),
+                    env.get("SONAR_AUTH_TOKEN"),
+                    status.getApplicationName(),
+                    status.getApplicationVersion(),
+                    getApplicationComponent(),
+                    acceptInvalidCertificate,
+                    ceTaskId
+            );
+        }
+        catch (IOException ex) {
+            // The audit is still processed, but it would be lost if Jenkins stops before the queue is saved
+            listener.getLogger().println("Unable to save the SonarQube work queue: " + ex.getMessage());
+            LOGGER.log(Level.WARNING, "Unable to save the SonarQube work queue", ex);
+            return Result.UNSTABLE;
+        }
 
         return null;
 
     }
 
+    /**
+     * Get the compute engine task of the last analysis of the project, from the scanner report in the workspace.
+     *
+     * @return the task identifier, or null if no report was found
+     */
+    static String getCeTaskId(@NonNull FilePath workspace, String projectKey) {
+        String taskId = null;
+        long lastModified = -1;
+        for (String path : REPORT_TASK_FILES) {
+            final FilePath file = workspace.child(path);
+            try {
+                if (!file.exists() || file.lastModified() <= lastModified) {
+                    continue;
+                }
+                final Properties report = new Properties();
+                try (InputStream in = file.read()) {
+                    report.load(in);
+                }
+                if (report.getProperty("ceTaskId") != null
+                        && (projectKey == null || projectKey.equals(report.getProperty("projectKey")))) {
+                    taskId = report.getProperty("ceTaskId");
+                    lastModified = file.lastModified();
+                }
+            }
+            catch (IOException ex) {
+                LOGGER.log(Level.FINE, "Unable to read SonarQube report: " + file.getRemote(), ex);
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return taskId;
+            }
+        }
+        return taskId;
+    }
+
     @Override
     public ActivityCategory getActivityCategory() {
         return ActivityCategory.QUALITY_AUDIT;
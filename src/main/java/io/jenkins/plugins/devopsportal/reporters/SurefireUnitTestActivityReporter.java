@@ -10,6 +10,7 @@ import hudson.model.TaskListener;
 import io.jenkins.plugins.devopsportal.Messages;
 import io.jenkins.plugins.devopsportal.models.ActivityCategory;
 import io.jenkins.plugins.devopsportal.models.ApplicationBuildStatus;
+import io.jenkins.plugins.devopsportal.models.GenericActivityHandler;
 import io.jenkins.plugins.devopsportal.models.UnitTestActivity;
 import io.jenkins.plugins.devopsportal.utils.RemoteFileSurefireParser;
 import io.jenkins.plugins.devopsportal.utils.TestSuiteResult;
@@ -53,9 +54,13 @@ public class SurefireUnitTestActivityReporter extends AbstractActivityReporter<U
     @Override
     public Result updateActivity(@NonNull ApplicationBuildStatus status, @NonNull UnitTestActivity activity,
                                  @NonNull TaskListener listener, @NonNull EnvVars env, @NonNull FilePath workspace) {
+        return prepareActivity(listener, env, workspace).updateActivity(status, activity, listener, env, workspace);
+    }
 
-        activity.resetCounters();
-        TestSuiteResult result = null;
+    @Override
+    public GenericActivityHandler<UnitTestActivity> prepareActivity(@NonNull TaskListener listener,
+                                                                    @NonNull EnvVars env, @NonNull FilePath workspace) {
+        final TestSuiteResult result;
         try {
             if (workspace.isRemote()) {
                 result = parseFilesFromRemoteWorkspace(workspace, surefireReportPath);
@@ -67,7 +72,10 @@ public class SurefireUnitTestActivityReporter extends AbstractActivityReporter<U
         catch (InterruptedException ex) {
             // Restore interrupted state...
             Thread.currentThread().interrupt();
-            return null;
+            return (status, activity, taskListener, environment, path) -> {
+                activity.resetCounters();
+                return null;
+            };
         }
         catch (Exception ex) {
             listener.getLogger().println("Error, unable to parse test files: " + ex.getClass().getSimpleName()
@@ -75,7 +83,10 @@ public class SurefireUnitTestActivityReporter extends AbstractActivityReporter<U
             if (LOGGER.isLoggable(Level.FINER)) {
                 LOGGER.log(Level.FINER, "Error parsing test files: " + surefireReportPath, ex);
             }
-            return Result.FAILURE;
+            return (status, activity, taskListener, environment, path) -> {
+                activity.resetCounters();
+                return Result.FAILURE;
+            };
         }
         if (result.files.isEmpty()) {
             listener.getLogger().println("No test reports that matches '" + surefireReportPath
@@ -84,13 +95,17 @@ public class SurefireUnitTestActivityReporter extends AbstractActivityReporter<U
         else {
             listener.getLogger().println(result.files.size() + " test reports where collected:");
             listener.getLogger().println(String.join(", ", result.files));
-            activity.setTestsPassed(result.testsPassed);
-            activity.setTestsIgnored(result.testsIgnored);
-            activity.setTestsFailed(result.testsFailed);
-
         }
-        activity.updateScore();
-        return null;
+        return (status, activity, taskListener, environment, path) -> {
+            activity.resetCounters();
+            if (!result.files.isEmpty()) {
+                activity.setTestsPassed(result.testsPassed);
+                activity.setTestsIgnored(result.testsIgnored);
+                activity.setTestsFailed(result.testsFailed);
+            }
+            activity.updateScore();
+            return null;
+        };
     }
 
     private TestSuiteResult parseFilesFromRemoteWorkspace(FilePath workspace, String path)
@@ -0,0 +1,97 @@
+package io.jenkins.plugins.devopsportal.utils;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import jenkins.model.Jenkins;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Storage of the records evicted by the retention policy, as compressed archive segments.
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+public final class ArchiveStorage {
+
+    private static final Logger LOGGER = Logger.getLogger("io.jenkins.plugins.devopsportal");
+
+    public static final String BUILD_STATUS = "build-status";
+    public static final String DEPLOYMENTS = "deployments";
+    public static final String MONITORING = "monitoring";
+    public static final String HISTORY = "history";
+
+    private ArchiveStorage() {
+    }
+
+    public static File getArchiveDirectory() {
+        return new File(Jenkins.get().getRootDir(), "devops-portal/archive");
+    }
+
+    /**
+     * Write a new archive segment containing the given records.
+     */
+    public static void archive(@NonNull String kind, @NonNull List<?> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        final File directory = getArchiveDirectory();
+        Files.createDirectories(directory.toPath());
+        final File tmp = Files.createTempFile(directory.toPath(), kind + "-" + System.currentTimeMillis() + "-", ".tmp")
+                .toFile();
+        final File segment = new File(directory, tmp.getName().replace(".tmp", ".xml.gz"));
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(tmp)),
+                StandardCharsets.UTF_8)) {
+            Jenkins.XSTREAM2.toXML(new ArrayList<>(records), writer);
+        }
+        if (!tmp.renameTo(segment)) {
+            Files.deleteIfExists(tmp.toPath());
+            throw new IOException("Unable to create archive segment: " + segment);
+        }
+    }
+
+    /**
+     * Move a file to the archive, as it is.
+     */
+    public static void archiveFile(@NonNull String kind, @NonNull File file) throws IOException {
+        final File directory = getArchiveDirectory();
+        Files.createDirectories(directory.toPath());
+        final File target = new File(directory, kind + "-" + System.currentTimeMillis() + "-" + file.getName());
+        Files.move(file.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read all the archive segments of the given kind, and return the records matching the filter.
+     */
+    public static <T> List<T> query(@NonNull String kind, @NonNull Class<T> type, @NonNull Predicate<T> filter) {
+        final File[] segments = getArchiveDirectory()
+                .listFiles((dir, name) -> name.startsWith(kind + "-") && name.endsWith(".xml.gz"));
+        if (segments == null) {
+            return Collections.emptyList();
+        }
+        Arrays.sort(segments, Comparator.comparing(File::getName));
+        final List<T> retVal = new ArrayList<>();
+        for (File segment : segments) {
+            try (Reader reader = new InputStreamReader(new GZIPInputStream(new FileInputStream(segment)),
+                    StandardCharsets.UTF_8)) {
+                for (Object record : (List<?>) Jenkins.XSTREAM2.fromXML(reader)) {
+                    if (type.isInstance(record) && filter.test(type.cast(record))) {
+                        retVal.add(type.cast(record));
+                    }
+                }
+            }
+            catch (IOException | RuntimeException ex) {
+                LOGGER.log(Level.WARNING, "Unable to read archive segment: " + segment, ex);
+            }
+        }
+        return retVal;
+    }
+
+}
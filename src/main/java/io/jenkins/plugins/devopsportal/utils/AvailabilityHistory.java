@@ -0,0 +1,464 @@
+package io.jenkins.plugins.devopsportal.utils;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.Saveable;
+import io.jenkins.plugins.devopsportal.models.MonitoringStatus;
+import io.jenkins.plugins.devopsportal.workers.PersistencePeriodicWork;
+import jenkins.model.Jenkins;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Probe history of a monitored service.
+ *
+ * The history is made of fixed-size ring buffers: the last raw probes, minute buckets over one day, hour
+ * buckets over one month and day buckets over more than one year, plus the last incidents. Its memory size
+ * does not depend on the age of the service. Each history is persisted in a compact binary file, saved by
+ * the {@link PersistencePeriodicWork}.
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+public class AvailabilityHistory implements Saveable {
+
+    private static final Logger LOGGER = Logger.getLogger("io.jenkins.plugins.devopsportal");
+
+    private static final int MAGIC = 0x44504148; // "DPAH"
+    private static final int VERSION = 1;
+
+    public static final int RAW_SIZE = 120;
+    public static final int INCIDENTS_SIZE = 50;
+
+    private static final Map<String, AvailabilityHistory> HISTORIES = new ConcurrentHashMap<>();
+
+    private final String serviceId;
+
+    // Raw probes
+    private final long[] rawTimestamps = new long[RAW_SIZE]; // seconds
+    private final byte[] rawStatus = new byte[RAW_SIZE];
+    private final int[] rawLatencies = new int[RAW_SIZE]; // ms, -1 if not measured
+    private int rawCount;
+    private int rawNext;
+
+    // Rolled-up probes
+    private final Buckets minutes = new Buckets(60, 1440);
+    private final Buckets hours = new Buckets(3600, 24 * 31);
+    private final Buckets days = new Buckets(86400, 400);
+
+    // Incidents, the last one is open if its end is 0
+    private final long[] incidentStarts = new long[INCIDENTS_SIZE]; // seconds
+    private final long[] incidentEnds = new long[INCIDENTS_SIZE]; // seconds
+    private final byte[] incidentStatus = new byte[INCIDENTS_SIZE];
+    private int incidentCount;
+    private int incidentNext;
+
+    AvailabilityHistory(@NonNull String serviceId) {
+        this.serviceId = serviceId;
+    }
+
+    /**
+     * Get the history of a service, loading it from the disk on first access.
+     */
+    @NonNull
+    public static AvailabilityHistory get(@NonNull String serviceId) {
+        return HISTORIES.computeIfAbsent(serviceId, id -> {
+            final AvailabilityHistory history = new AvailabilityHistory(id);
+            history.load();
+            return history;
+        });
+    }
+
+    /**
+     * Move to the archive the histories of services which are no longer configured.
+     *
+     * @return the number of archived histories
+     */
+    public static int retainServices(@NonNull Collection<String> serviceIds) {
+        int count = 0;
+        if (!isAvailable()) {
+            HISTORIES.keySet().retainAll(serviceIds);
+            return 0;
+        }
+        final File[] files = getStorageDirectory().listFiles((dir, name) -> name.endsWith(".bin"));
+        if (files != null) {
+            for (File file : files) {
+                final String id = file.getName().substring(0, file.getName().length() - 4);
+                if (serviceIds.contains(id)) {
+                    continue;
+                }
+                // Removed histories are not saved anymore, a save in progress is awaited
+                final AvailabilityHistory removed = HISTORIES.remove(id);
+                try {
+                    if (removed != null) {
+                        synchronized (removed) {
+                            ArchiveStorage.archiveFile(ArchiveStorage.HISTORY, file);
+                        }
+                    }
+                    else {
+                        ArchiveStorage.archiveFile(ArchiveStorage.HISTORY, file);
+                    }
+                    count++;
+                }
+                catch (IOException ex) {
+                    LOGGER.log(Level.WARNING, "Unable to archive history file: " + file, ex);
+                }
+            }
+        }
+        HISTORIES.keySet().retainAll(serviceIds);
+        return count;
+    }
+
+    private static boolean isAvailable() {
+        return Jenkins.getInstanceOrNull() != null;
+    }
+
+    public static File getStorageDirectory() {
+        return new File(Jenkins.get().getRootDir(), "devops-portal/history");
+    }
+
+    private File getFile() {
+        return new File(getStorageDirectory(), serviceId + ".bin");
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    /**
+     * @param timestamp time of the probe, in seconds
+     * @param latency response time of the probe in ms, or -1 if it was not measured
+     */
+    public void record(long timestamp, @NonNull MonitoringStatus status, long latency) {
+        if (status == MonitoringStatus.DISABLED) {
+            return;
+        }
+        final boolean up = status == MonitoringStatus.SUCCESS;
+        synchronized (this) {
+            rawTimestamps[rawNext] = timestamp;
+            rawStatus[rawNext] = (byte) status.ordinal();
+            rawLatencies[rawNext] = (int) Math.min(Integer.MAX_VALUE, latency);
+            rawNext = (rawNext + 1) % RAW_SIZE;
+            rawCount = Math.min(rawCount + 1, RAW_SIZE);
+            minutes.record(timestamp, up);
+            hours.record(timestamp, up);
+            days.record(timestamp, up);
+            final int last = (incidentNext + INCIDENTS_SIZE - 1) % INCIDENTS_SIZE;
+            final boolean open = incidentCount > 0 && incidentEnds[last] == 0;
+            if (!up && !open) {
+                incidentStarts[incidentNext] = timestamp;
+                incidentEnds[incidentNext] = 0;
+                incidentStatus[incidentNext] = (byte) status.ordinal();
+                incidentNext = (incidentNext + 1) % INCIDENTS_SIZE;
+                incidentCount = Math.min(incidentCount + 1, INCIDENTS_SIZE);
+            }
+            else if (up && open) {
+                incidentEnds[last] = timestamp;
+            }
+        }
+        PersistencePeriodicWork.markDirty(this);
+    }
+
+    /**
+     * @return the last raw probes, the most recent first
+     */
+    public synchronized List<Probe> getProbes() {
+        final List<Probe> probes = new ArrayList<>(rawCount);
+        for (int i = 1; i <= rawCount; i++) {
+            final int index = (rawNext - i + RAW_SIZE) % RAW_SIZE;
+            probes.add(new Probe(rawTimestamps[index], MonitoringStatus.values()[rawStatus[index]], rawLatencies[index]));
+        }
+        return probes;
+    }
+
+    /**
+     * Compute the uptime over a period, using the most precise buckets which cover it.
+     *
+     * @param from start of the period, in seconds
+     * @param to end of the period, in seconds
+     * @return the uptime percentage, or -1 if there is no probe in the period
+     */
+    public synchronized double getUptime(long from, long to) {
+        final Buckets buckets = getBuckets(to - from);
+        final long[] counts = buckets.count(from, to);
+        return counts[1] > 0 ? 100.0 * counts[0] / counts[1] : -1;
+    }
+
+    /**
+     * Compute the uptime of consecutive slots, for example to draw a sparkline.
+     *
+     * @return the uptime percentage of each slot, or -1 for slots without probe
+     */
+    public synchronized double[] getUptimes(long from, long to, int slots) {
+        final double[] uptimes = new double[slots];
+        final long duration = (to - from) / slots;
+        final Buckets buckets = getBuckets(to - from);
+        for (int i = 0; i < slots; i++) {
+            final long[] counts = buckets.count(from + i * duration, from + (i + 1) * duration);
+            uptimes[i] = counts[1] > 0 ? 100.0 * counts[0] / counts[1] : -1;
+        }
+        return uptimes;
+    }
+
+    private Buckets getBuckets(long duration) {
+        // The finest buckets which still cover the period
+        if (duration <= minutes.getDuration()) {
+            return minutes;
+        }
+        if (duration <= hours.getDuration()) {
+            return hours;
+        }
+        return days;
+    }
+
+    /**
+     * @return the incidents started after the given timestamp (seconds), the most recent first
+     */
+    public synchronized List<Incident> getIncidents(long from) {
+        final List<Incident> incidents = new ArrayList<>();
+        for (int i = 1; i <= incidentCount; i++) {
+            final int index = (incidentNext - i + INCIDENTS_SIZE) % INCIDENTS_SIZE;
+            if (incidentEnds[index] != 0 && incidentEnds[index] < from) {
+                break;
+            }
+            incidents.add(new Incident(incidentStarts[index], incidentEnds[index],
+                    MonitoringStatus.values()[incidentStatus[index]]));
+        }
+        return incidents;
+    }
+
+    /**
+     * Mean time to recovery of the incidents resolved after the given timestamp.
+     *
+     * @return the MTTR in seconds, or -1 if no incident was resolved
+     */
+    public long getMeanTimeToRecovery(long from) {
+        long total = 0;
+        int count = 0;
+        for (Incident incident : getIncidents(from)) {
+            if (!incident.isOpen()) {
+                total += incident.getDuration();
+                count++;
+            }
+        }
+        return count > 0 ? total / count : -1;
+    }
+
+    @Override
+    public synchronized void save() throws IOException {
+        // Histories of removed services are not saved again
+        if (!isAvailable() || HISTORIES.get(serviceId) != this) {
+            return;
+        }
+        final File file = getFile();
+        Files.createDirectories(file.getParentFile().toPath());
+        final File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(new FileOutputStream(tmp))))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(rawCount);
+            output.writeInt(rawNext);
+            for (int i = 0; i < RAW_SIZE; i++) {
+                output.writeLong(rawTimestamps[i]);
+                output.writeByte(rawStatus[i]);
+                output.writeInt(rawLatencies[i]);
+            }
+            minutes.write(output);
+            hours.write(output);
+            days.write(output);
+            output.writeInt(incidentCount);
+            output.writeInt(incidentNext);
+            for (int i = 0; i < INCIDENTS_SIZE; i++) {
+                output.writeLong(incidentStarts[i]);
+                output.writeLong(incidentEnds[i]);
+                output.writeByte(incidentStatus[i]);
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private synchronized void load() {
+        if (!isAvailable() || !getFile().exists()) {
+            return;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(new FileInputStream(getFile()))))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                LOGGER.warning("Ignoring unsupported history file: " + getFile());
+                return;
+            }
+            rawCount = input.readInt();
+            rawNext = input.readInt();
+            for (int i = 0; i < RAW_SIZE; i++) {
+                rawTimestamps[i] = input.readLong();
+                rawStatus[i] = input.readByte();
+                rawLatencies[i] = input.readInt();
+            }
+            minutes.read(input);
+            hours.read(input);
+            days.read(input);
+            incidentCount = input.readInt();
+            incidentNext = input.readInt();
+            for (int i = 0; i < INCIDENTS_SIZE; i++) {
+                incidentStarts[i] = input.readLong();
+                incidentEnds[i] = input.readLong();
+                incidentStatus[i] = input.readByte();
+            }
+        }
+        catch (IOException | RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Unable to load history of service: " + serviceId, ex);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AvailabilityHistory[" + serviceId + "]";
+    }
+
+    /**
+     * Ring of probe counters, indexed by period number since the epoch.
+     */
+    private static final class Buckets {
+
+        private final long period; // seconds
+        private final int size;
+        private final long[] keys;
+        private final int[] up;
+        private final int[] total;
+
+        Buckets(long period, int size) {
+            this.period = period;
+            this.size = size;
+            this.keys = new long[size];
+            this.up = new int[size];
+            this.total = new int[size];
+        }
+
+        long getDuration() {
+            return period * size;
+        }
+
+        void record(long timestamp, boolean success) {
+            final long key = timestamp / period;
+            final int index = (int) (key % size);
+            if (keys[index] != key) {
+                keys[index] = key;
+                up[index] = 0;
+                total[index] = 0;
+            }
+            if (success) {
+                up[index]++;
+            }
+            total[index]++;
+        }
+
+        /**
+         * @return the number of successful probes and the total number of probes, in buckets overlapping the period
+         */
+        long[] count(long from, long to) {
+            final long[] counts = new long[2];
+            final long last = (to - 1) / period;
+            for (long key = Math.max(from / period, last - size + 1); key <= last; key++) {
+                final int index = (int) (key % size);
+                if (keys[index] == key) {
+                    counts[0] += up[index];
+                    counts[1] += total[index];
+                }
+            }
+            return counts;
+        }
+
+        void write(DataOutputStream output) throws IOException {
+            output.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                output.writeLong(keys[i]);
+                output.writeInt(up[i]);
+                output.writeInt(total[i]);
+            }
+        }
+
+        void read(DataInputStream input) throws IOException {
+            if (input.readInt() != size) {
+                throw new IOException("Unexpected size of buckets");
+            }
+            for (int i = 0; i < size; i++) {
+                keys[i] = input.readLong();
+                up[i] = input.readInt();
+                total[i] = input.readInt();
+            }
+        }
+
+    }
+
+    public static final class Probe {
+
+        private final long timestamp; // seconds
+        private final MonitoringStatus status;
+        private final long latency; // ms
+
+        Probe(long timestamp, MonitoringStatus status, long latency) {
+            this.timestamp = timestamp;
+            this.status = status;
+            this.latency = latency;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public MonitoringStatus getStatus() {
+            return status;
+        }
+
+        public long getLatency() {
+            return latency;
+        }
+
+    }
+
+    public static final class Incident {
+
+        private final long start; // seconds
+        private final long end; // seconds, 0 if the incident is not resolved
+        private final MonitoringStatus status;
+
+        Incident(long start, long end, MonitoringStatus status) {
+            this.start = start;
+            this.end = end;
+            this.status = status;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+
+        public MonitoringStatus getStatus() {
+            return status;
+        }
+
+        public boolean isOpen() {
+            return end == 0;
+        }
+
+        /**
+         * @return the duration in seconds, until now if the incident is not resolved
+         */
+        public long getDuration() {
+            return (isOpen() ? Instant.now().getEpochSecond() : end) - start;
+        }
+
+    }
+
+}
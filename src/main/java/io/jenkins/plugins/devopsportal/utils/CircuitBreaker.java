@@ -0,0 +1,82 @@
+package io.jenkins.plugins.devopsportal.utils;
+
+/**
+ * Circuit breaker protecting a remote server from calls while it is failing.
+ *
+ * The circuit opens after a number of consecutive failures, and calls are refused until the open duration
+ * has elapsed. A single trial call is then allowed: the circuit closes if it succeeds, and opens again otherwise.
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+public final class CircuitBreaker {
+
+    private final int failureThreshold;
+    private final long openDuration; // ms
+
+    private int failures;
+    private long openUntil; // ms, 0 when closed
+    private boolean trial;
+
+    public CircuitBreaker(int failureThreshold, long openDuration) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDuration = Math.max(0, openDuration);
+    }
+
+    /**
+     * @return true if a call can be made, in which case its outcome must be reported
+     */
+    public synchronized boolean tryAcquire(long now) {
+        if (openUntil == 0) {
+            return true;
+        }
+        if (now < openUntil || trial) {
+            return false;
+        }
+        trial = true;
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        failures = 0;
+        openUntil = 0;
+        trial = false;
+    }
+
+    public synchronized void onFailure(long now) {
+        failures++;
+        if (trial || failures >= failureThreshold) {
+            openUntil = now + openDuration;
+            trial = false;
+        }
+    }
+
+    /**
+     * Report that an acquired call was finally not made.
+     */
+    public synchronized void release() {
+        trial = false;
+    }
+
+    public synchronized boolean isOpen(long now) {
+        return openUntil != 0 && (now < openUntil || trial);
+    }
+
+    /**
+     * @return the time (ms) from which a trial call is allowed, or 0 if the circuit is closed
+     */
+    public synchronized long getOpenUntil() {
+        return openUntil;
+    }
+
+    /**
+     * @return the time (ms) from which a refused call can be made again: the end of the open duration, or
+     * another open duration while the trial call is running. 0 if the circuit is closed.
+     */
+    public synchronized long getRetryAt(long now) {
+        if (openUntil == 0) {
+            return 0;
+        }
+        return now < openUntil ? openUntil : now + openDuration;
+    }
+
+}
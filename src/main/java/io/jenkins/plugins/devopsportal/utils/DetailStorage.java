@@ -0,0 +1,126 @@
+package io.jenkins.plugins.devopsportal.utils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Storage of the activities detail payloads (issues, vulnerabilities...), kept outside the build status
+ * files and loaded on demand through a cache bounded by size.
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+public final class DetailStorage {
+
+    private static final Logger LOGGER = Logger.getLogger("io.jenkins.plugins.devopsportal");
+
+    // Approximate maximum size of the cached payloads, based on their XML length
+    public static final long CACHE_SIZE = SystemProperties.getLong(
+            DetailStorage.class.getName() + ".cacheSize", 32L * 1024 * 1024);
+
+    private static final Cache<String, CacheEntry> CACHE = CacheBuilder
+            .newBuilder()
+            .maximumWeight(CACHE_SIZE)
+            .weigher((String key, CacheEntry entry) -> entry.weight)
+            .build();
+
+    private DetailStorage() {
+    }
+
+    /**
+     * Check if the storage can be used: it requires a running Jenkins instance.
+     */
+    public static boolean isAvailable() {
+        return Jenkins.getInstanceOrNull() != null;
+    }
+
+    public static File getStorageDirectory() {
+        return new File(Jenkins.get().getRootDir(), "devops-portal/details");
+    }
+
+    private static File getFile(@NonNull String id) {
+        return new File(getStorageDirectory(), id + ".xml.gz");
+    }
+
+    /**
+     * Store a new payload.
+     *
+     * @return the identifier of the payload
+     */
+    public static String put(@NonNull Object payload) throws IOException {
+        final String id = UUID.randomUUID().toString();
+        final String xml = Jenkins.XSTREAM2.toXML(payload);
+        final File file = getFile(id);
+        Files.createDirectories(file.getParentFile().toPath());
+        final File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(tmp)),
+                StandardCharsets.UTF_8)) {
+            writer.write(xml);
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        CACHE.put(id, new CacheEntry(payload, xml.length()));
+        return id;
+    }
+
+    /**
+     * Get a payload, loading it from the disk if it is not in cache.
+     *
+     * @return the payload, or null if it is not available
+     */
+    @CheckForNull
+    public static <T> T get(@NonNull String id, @NonNull Class<T> type) {
+        try {
+            final Object payload = CACHE.get(id, () -> load(id)).payload;
+            return type.isInstance(payload) ? type.cast(payload) : null;
+        }
+        catch (ExecutionException | RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Unable to load activity details: " + id, ex);
+            return null;
+        }
+    }
+
+    public static void delete(@NonNull String id) {
+        CACHE.invalidate(id);
+        try {
+            Files.deleteIfExists(getFile(id).toPath());
+        }
+        catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "Unable to delete activity details: " + id, ex);
+        }
+    }
+
+    private static CacheEntry load(String id) throws IOException {
+        final String xml;
+        try (InputStream input = new GZIPInputStream(new FileInputStream(getFile(id)))) {
+            xml = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        return new CacheEntry(Jenkins.XSTREAM2.fromXML(xml), xml.length());
+    }
+
+    private static final class CacheEntry {
+
+        private final Object payload;
+        private final int weight;
+
+        CacheEntry(Object payload, int weight) {
+            this.payload = payload;
+            this.weight = weight;
+        }
+
+    }
+
+}
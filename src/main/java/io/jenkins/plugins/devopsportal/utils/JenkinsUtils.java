@@ -1,10 +1,17 @@
 package io.jenkins.plugins.devopsportal.utils;
 
+import hudson.Extension;
 import hudson.model.*;
+import hudson.model.listeners.ItemListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
 import jenkins.model.Jenkins;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -17,20 +24,70 @@ public final class JenkinsUtils {
 
     private static final Logger LOGGER = Logger.getLogger("io.jenkins.plugins.devopsportal");
 
+    // Full name of the jobs resolved by (job, branch), an empty value if the job does not exist
+    private static final Map<String, String> JOB_CACHE = new ConcurrentHashMap<>();
+    private static final AtomicLong JOB_CACHE_GENERATION = new AtomicLong();
+
     public static Optional<Run<?, ?>> getBuild(String jobName, String branchName, String buildNumber) {
-        if (Jenkins.getInstanceOrNull() == null) {
+        if (Jenkins.getInstanceOrNull() == null || jobName == null) {
             return Optional.empty();
         }
         if (branchName != null && branchName.isEmpty()) {
             branchName = null;
         }
-        Job<?, ?> job = findJobByName(jobName, branchName, Jenkins.get().getItems());
+        Job<?, ?> job = getJob(jobName, branchName);
         if (job == null) {
             return Optional.empty();
         }
         return Optional.ofNullable(job.getBuild(buildNumber));
     }
 
+    /**
+     * Resolve a job by its name, and the name of the branch for multi-branch projects.
+     * Resolutions are cached until an item is created, moved or deleted.
+     */
+    public static Job<?, ?> getJob(String jobName, String branchName) {
+        final String key = jobName + "#" + (branchName != null ? branchName : "");
+        String fullName = JOB_CACHE.get(key);
+        if (fullName == null) {
+            final long generation = JOB_CACHE_GENERATION.get();
+            // Resolutions are shared by all users, permissions are checked by the lookup below
+            try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+                final Job<?, ?> job = resolveJob(jobName, branchName);
+                fullName = job != null ? job.getFullName() : "";
+            }
+            // Items may have changed during the resolution
+            if (generation == JOB_CACHE_GENERATION.get()) {
+                JOB_CACHE.put(key, fullName);
+            }
+        }
+        if (fullName.isEmpty()) {
+            return null;
+        }
+        return Jenkins.get().getItemByFullName(fullName, Job.class);
+    }
+
+    private static Job<?, ?> resolveJob(String jobName, String branchName) {
+        // Direct lookups, when the name is a full name
+        final Item item = Jenkins.get().getItemByFullName(jobName);
+        if (branchName == null && item instanceof Job) {
+            return (Job<?, ?>) item;
+        }
+        if (branchName != null && item instanceof ItemGroup) {
+            final Item branch = ((ItemGroup<?>) item).getItem(branchName);
+            if (branch instanceof Job) {
+                return (Job<?, ?>) branch;
+            }
+        }
+        // Search by name in folders
+        return findJobByName(jobName, branchName, Jenkins.get().getItems());
+    }
+
+    public static void clearJobCache() {
+        JOB_CACHE_GENERATION.incrementAndGet();
+        JOB_CACHE.clear();
+    }
+
     public static Job<?, ?> findJobByName(String jobName, String itemName, Collection<? extends TopLevelItem> items) {
         return findJobByName(jobName, itemName, items, "");
     }
@@ -95,4 +152,27 @@ public final class JenkinsUtils {
         return null;
     }
 
+    /**
+     * Invalidate the resolved jobs when the items change.
+     */
+    @Extension
+    public static final class JobCacheInvalidator extends ItemListener {
+
+        @Override
+        public void onCreated(Item item) {
+            clearJobCache();
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            clearJobCache();
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            clearJobCache();
+        }
+
+    }
+
 }
@@ -0,0 +1,141 @@
+package io.jenkins.plugins.devopsportal.utils;
+
+import java.io.Serializable;
+
+/**
+ * Compact histogram of response times, over a time window.
+ *
+ * Values below 32 ms are counted exactly, larger values in logarithmic buckets with a relative precision of 4%,
+ * up to 10 minutes. The size of the histogram does not depend on the number of samples: only the non-empty
+ * buckets are persisted, encoded when the histogram is saved.
+ *
+ * Monitoring records keep two histograms, the current window and the previous one, so that percentiles
+ * always cover at least one full window.
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+public class LatencyHistogram implements Serializable {
+
+    private static final int LINEAR_BUCKETS = 32;
+    private static final double RATIO = 1.04;
+    private static final long MAX_VALUE = 600000L; // ms
+
+    public static final int BUCKETS = getBucket(MAX_VALUE) + 1;
+
+    private final long start; // seconds
+    private long count;
+    private String buckets = ""; // non-empty buckets, for example: "12:3,40:1"
+
+    private transient int[] counts; // decoded from the buckets on first use
+
+    public LatencyHistogram(long start) {
+        this.start = start;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized void record(long value) {
+        getCounts()[getBucket(value)]++;
+        count++;
+    }
+
+    protected synchronized Object writeReplace() {
+        if (counts != null) {
+            buckets = encode(counts);
+        }
+        return this;
+    }
+
+    /**
+     * @param percentile from 0 to 100
+     * @param histograms the histograms to merge, nulls are ignored
+     * @return the value of the given percentile, or -1 if the histograms are empty
+     */
+    public static long getPercentile(double percentile, LatencyHistogram... histograms) {
+        final int[] merged = new int[BUCKETS];
+        long total = 0;
+        for (LatencyHistogram histogram : histograms) {
+            if (histogram == null) {
+                continue;
+            }
+            synchronized (histogram) {
+                final int[] values = histogram.getCounts();
+                for (int i = 0; i < BUCKETS; i++) {
+                    merged[i] += values[i];
+                }
+                total += histogram.count;
+            }
+        }
+        if (total == 0) {
+            return -1;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long cumulated = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulated += merged[i];
+            if (cumulated >= rank) {
+                return getBucketValue(i);
+            }
+        }
+        return getBucketValue(BUCKETS - 1);
+    }
+
+    static int getBucket(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) Math.max(0, value);
+        }
+        final long bounded = Math.min(value, MAX_VALUE);
+        return LINEAR_BUCKETS + (int) Math.ceil(Math.log((double) bounded / LINEAR_BUCKETS) / Math.log(RATIO));
+    }
+
+    /**
+     * @return the upper bound of the bucket
+     */
+    static long getBucketValue(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        return Math.min(MAX_VALUE, Math.round(LINEAR_BUCKETS * Math.pow(RATIO, bucket - LINEAR_BUCKETS)));
+    }
+
+    private int[] getCounts() {
+        if (counts == null) {
+            counts = decode(buckets);
+        }
+        return counts;
+    }
+
+    private static String encode(int[] counts) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                if (sb.length() > 0) {
+                    sb.append(',');
+                }
+                sb.append(i).append(':').append(counts[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static int[] decode(String buckets) {
+        final int[] counts = new int[BUCKETS];
+        if (buckets != null && !buckets.isEmpty()) {
+            for (String bucket : buckets.split(",")) {
+                final int separator = bucket.indexOf(':');
+                final int index = Integer.parseInt(bucket.substring(0, separator));
+                if (index >= 0 && index < BUCKETS) {
+                    counts[index] = Integer.parseInt(bucket.substring(separator + 1));
+                }
+            }
+        }
+        return counts;
+    }
+
+}
@@ -97,6 +97,43 @@ public final class MiscUtils {
         }
     }
 
+    /**
+     * Normalize a URL, so that URLs of the same endpoint can be compared: the scheme and the host are lower cased,
+     * default HTTP ports and fragments are removed, and an empty path is replaced by "/".
+     *
+     * @return the normalized URL, or the trimmed URL if it cannot be parsed
+     */
+    public static String normalizeURL(@Nullable String url) {
+        if (url == null) {
+            return "";
+        }
+        final String trimmed = url.trim();
+        try {
+            final URI uri = new URI(trimmed);
+            if (uri.getScheme() == null || uri.getHost() == null) {
+                return trimmed;
+            }
+            final String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+            final StringBuilder sb = new StringBuilder(scheme).append("://");
+            if (uri.getRawUserInfo() != null) {
+                sb.append(uri.getRawUserInfo()).append('@');
+            }
+            sb.append(uri.getHost().toLowerCase(Locale.ROOT));
+            final int port = uri.getPort();
+            if (port >= 0 && !(port == 80 && "http".equals(scheme)) && !(port == 443 && "https".equals(scheme))) {
+                sb.append(':').append(port);
+            }
+            sb.append(uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath());
+            if (uri.getRawQuery() != null) {
+                sb.append('?').append(uri.getRawQuery());
+            }
+            return sb.toString();
+        }
+        catch (URISyntaxException ex) {
+            return trimmed;
+        }
+    }
+
     public static String getStringOrEmpty(Map<String, Object> map, String key) {
         if (map == null || key == null || !map.containsKey(key)) {
             return "";
@@ -0,0 +1,267 @@
+package io.jenkins.plugins.devopsportal.utils;
+
+import hudson.init.Terminator;
+import jenkins.util.SystemProperties;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.Registry;
+import org.apache.http.config.Lookup;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.ManagedHttpClientConnection;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.DefaultHttpClientConnectionOperator;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+import org.apache.http.ssl.SSLContexts;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.SSLSession;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.security.cert.Certificate;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Long-lived HTTP clients shared by the service monitoring probes.
+ *
+ * Connections are pooled and kept alive between probes, and each client reuses the same SSL context so
+ * that TLS sessions are resumed. One client validates certificates, the other one accepts any certificate.
+ *
+ * The peer certificates of HTTPS connections are stored in the {@link #PEER_CERTIFICATES} attribute of the
+ * request context, so that the availability probe also provides the certificate expiration. The duration of
+ * each phase of the request is stored in the {@link #TIMINGS} attribute.
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+public final class MonitoringHttpClient {
+
+    private static final Logger LOGGER = Logger.getLogger("io.jenkins.plugins.devopsportal");
+
+    public static final int MAX_CONNECTIONS = SystemProperties.getInteger(
+            MonitoringHttpClient.class.getName() + ".maxConnections", 64);
+
+    public static final int MAX_CONNECTIONS_PER_ROUTE = SystemProperties.getInteger(
+            MonitoringHttpClient.class.getName() + ".maxConnectionsPerRoute", 2);
+
+    public static final long MAX_IDLE_TIME = SystemProperties.getLong(
+            MonitoringHttpClient.class.getName() + ".maxIdleTime", 120000L);
+
+    /**
+     * Attribute of the {@link HttpClientContext} holding the peer certificates ({@code Certificate[]}).
+     */
+    public static final String PEER_CERTIFICATES = "devopsportal.peer-certificates";
+
+    /**
+     * Attribute of the {@link HttpClientContext} holding the {@link ServiceProbeTimings} to update, if any.
+     */
+    public static final String TIMINGS = "devopsportal.timings";
+
+    private static Pool strict;
+    private static Pool trustAll;
+
+    private MonitoringHttpClient() {
+    }
+
+    public static synchronized CloseableHttpClient get(boolean acceptInvalidCertificate) {
+        if (acceptInvalidCertificate) {
+            if (trustAll == null) {
+                trustAll = new Pool(new TimingSSLConnectionSocketFactory(
+                        SSLUtils.getSSLContext(SSLUtils.getUntrustedManager()),
+                        NoopHostnameVerifier.INSTANCE
+                ));
+            }
+            return trustAll.client;
+        }
+        if (strict == null) {
+            strict = new Pool(new TimingSSLConnectionSocketFactory(
+                    SSLContexts.createSystemDefault(),
+                    SSLConnectionSocketFactory.getDefaultHostnameVerifier()
+            ));
+        }
+        return strict.client;
+    }
+
+    /**
+     * @return the statistics of the connection pools, for example: "strict [leased: 0; pending: 0; available: 2; max: 64]"
+     */
+    public static synchronized String getStatistics() {
+        return "strict " + (strict != null ? strict.getStats() : "-")
+                + ", trust-all " + (trustAll != null ? trustAll.getStats() : "-");
+    }
+
+    @Terminator
+    public static synchronized void shutdown() {
+        for (Pool pool : new Pool[] { strict, trustAll }) {
+            if (pool != null) {
+                try {
+                    pool.client.close();
+                }
+                catch (IOException ex) {
+                    LOGGER.log(Level.FINE, "Unable to close monitoring HTTP client", ex);
+                }
+            }
+        }
+        strict = null;
+        trustAll = null;
+    }
+
+    private static ServiceProbeTimings getTimings(HttpContext context) {
+        final Object timings = context != null ? context.getAttribute(TIMINGS) : null;
+        return timings instanceof ServiceProbeTimings ? (ServiceProbeTimings) timings : null;
+    }
+
+    /**
+     * Captures the peer certificates while the connection is still leased: it is released before the response
+     * interceptors are called when the response has no body.
+     */
+    private static final class ProbeRequestExecutor extends HttpRequestExecutor {
+
+        @Override
+        public HttpResponse execute(HttpRequest request, HttpClientConnection connection, HttpContext context)
+                throws IOException, HttpException {
+            final ServiceProbeTimings timings = getTimings(context);
+            if (timings != null) {
+                timings.requestStarted();
+            }
+            final HttpResponse response = super.execute(request, connection, context);
+            if (timings != null) {
+                timings.responseReceived();
+            }
+            if (connection instanceof ManagedHttpClientConnection) {
+                final SSLSession session = ((ManagedHttpClientConnection) connection).getSSLSession();
+                if (session != null) {
+                    try {
+                        final Certificate[] certificates = session.getPeerCertificates();
+                        context.setAttribute(PEER_CERTIFICATES, certificates);
+                    }
+                    catch (SSLPeerUnverifiedException ex) {
+                        LOGGER.log(Level.FINE, "Unable to get peer certificates", ex);
+                    }
+                }
+            }
+            return response;
+        }
+
+    }
+
+    private static final class TimingConnectionOperator extends DefaultHttpClientConnectionOperator {
+
+        TimingConnectionOperator(Lookup<ConnectionSocketFactory> socketFactoryRegistry) {
+            super(socketFactoryRegistry, null, null);
+        }
+
+        @Override
+        public void connect(ManagedHttpClientConnection connection, HttpHost host, InetSocketAddress localAddress,
+                            int connectTimeout, SocketConfig socketConfig, HttpContext context) throws IOException {
+            final ServiceProbeTimings timings = getTimings(context);
+            if (timings != null) {
+                timings.connectionStarted();
+            }
+            super.connect(connection, host, localAddress, connectTimeout, socketConfig, context);
+        }
+
+    }
+
+    private static final class TimingPlainConnectionSocketFactory extends PlainConnectionSocketFactory {
+
+        @Override
+        public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+                                    InetSocketAddress localAddress, HttpContext context) throws IOException {
+            final ServiceProbeTimings timings = getTimings(context);
+            if (timings != null) {
+                timings.socketStarted();
+            }
+            final Socket result = super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+            if (timings != null) {
+                timings.socketConnected();
+            }
+            return result;
+        }
+
+    }
+
+    /**
+     * The TLS handshake is done by {@link #createLayeredSocket}, once the socket is connected.
+     */
+    private static final class TimingSSLConnectionSocketFactory extends SSLConnectionSocketFactory {
+
+        TimingSSLConnectionSocketFactory(SSLContext sslContext, HostnameVerifier hostnameVerifier) {
+            super(sslContext, hostnameVerifier);
+        }
+
+        @Override
+        public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+                                    InetSocketAddress localAddress, HttpContext context) throws IOException {
+            final ServiceProbeTimings timings = getTimings(context);
+            if (timings != null) {
+                timings.socketStarted();
+            }
+            return super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+        }
+
+        @Override
+        public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context)
+                throws IOException {
+            final ServiceProbeTimings timings = getTimings(context);
+            if (timings != null) {
+                timings.socketConnected();
+            }
+            final Socket result = super.createLayeredSocket(socket, target, port, context);
+            if (timings != null) {
+                timings.handshakeCompleted();
+            }
+            return result;
+        }
+
+    }
+
+    private static final class Pool {
+
+        private final PoolingHttpClientConnectionManager manager;
+        private final CloseableHttpClient client;
+
+        Pool(SSLConnectionSocketFactory sslSocketFactory) {
+            final Registry<ConnectionSocketFactory> registry = RegistryBuilder
+                    .<ConnectionSocketFactory>create()
+                    .register("http", new TimingPlainConnectionSocketFactory())
+                    .register("https", sslSocketFactory)
+                    .build();
+            manager = new PoolingHttpClientConnectionManager(
+                    new TimingConnectionOperator(registry), null, -1, TimeUnit.MILLISECONDS);
+            manager.setMaxTotal(MAX_CONNECTIONS);
+            manager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+            manager.setValidateAfterInactivity(2000);
+            client = HttpClients
+                    .custom()
+                    .setConnectionManager(manager)
+                    .evictExpiredConnections()
+                    .evictIdleConnections(MAX_IDLE_TIME, TimeUnit.MILLISECONDS)
+                    .disableCookieManagement()
+                    .setRequestExecutor(new ProbeRequestExecutor())
+                    .build();
+        }
+
+        PoolStats getStats() {
+            return manager.getTotalStats();
+        }
+
+    }
+
+}
@@ -0,0 +1,62 @@
+package io.jenkins.plugins.devopsportal.utils;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.security.MasterToSlaveCallable;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Let run a batch of service probes on a Jenkins agent, in a single round trip.
+ *
+ * The results are returned in the same order as the probes.
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+public class RemoteServiceProbes extends MasterToSlaveCallable<List<ServiceProbeResult>, IOException>
+        implements Serializable {
+
+    private final List<ServiceProbe> probes;
+    private final int parallelism;
+
+    public RemoteServiceProbes(List<ServiceProbe> probes, int parallelism) {
+        this.probes = new ArrayList<>(probes);
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    @Override
+    public List<ServiceProbeResult> call() throws IOException {
+        final int threads = Math.max(1, Math.min(parallelism, probes.size()));
+        final ExecutorService executor = Executors.newFixedThreadPool(threads,
+                new NamingThreadFactory(new DaemonThreadFactory(), "DevOps Portal Remote Probe"));
+        try {
+            final List<Future<ServiceProbeResult>> futures = new ArrayList<>();
+            for (ServiceProbe probe : probes) {
+                futures.add(executor.submit(probe::run));
+            }
+            final List<ServiceProbeResult> results = new ArrayList<>();
+            for (Future<ServiceProbeResult> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running probes", ex);
+        }
+        catch (ExecutionException ex) {
+            throw new IOException("Unable to run probes", ex.getCause());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,239 @@
+package io.jenkins.plugins.devopsportal.utils;
+
+import io.jenkins.plugins.devopsportal.Messages;
+import io.jenkins.plugins.devopsportal.checks.HttpGetCheck;
+import io.jenkins.plugins.devopsportal.checks.ServiceCheck;
+import io.jenkins.plugins.devopsportal.checks.ServiceCheckContext;
+import io.jenkins.plugins.devopsportal.checks.ServiceCheckException;
+import io.jenkins.plugins.devopsportal.models.MonitoringStatus;
+import io.jenkins.plugins.devopsportal.models.ServiceConfiguration;
+import nl.altindag.ssl.util.CertificateUtils;
+import org.apache.http.client.protocol.HttpClientContext;
+
+import javax.net.ssl.SSLHandshakeException;
+import java.io.Serializable;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Availability check of a monitored service.
+ *
+ * Probes do not access the monitoring records: they can run concurrently, and their result is applied
+ * to the record afterwards. The availability is checked by the {@link ServiceCheck} configured for the
+ * service, a GET request expecting a 200 status by default.
+ *
+ * For HTTPS services, the certificate expiration is read from the connection opened by the availability
+ * check. A standalone certificate check is only done when the chain could not be captured, or when it is
+ * forced with {@link #setStandaloneCertificateCheck(boolean)}. Certificates only depend on the host and the
+ * port: the expirations are shared for one hour between the probes of services on the same endpoint.
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+public class ServiceProbe implements Serializable {
+
+    private static final Logger LOGGER = Logger.getLogger("io.jenkins.plugins.devopsportal");
+
+    private static final long CERTIFICATE_CACHE_TTL = 3600000L; // ms
+
+    // Expiration (ms, 0 if unknown) and check time (ms) of the certificates, by host and port
+    private static final Map<String, long[]> CERTIFICATES = new ConcurrentHashMap<>();
+
+    private final String url;
+    private final ServiceCheck check;
+    private final boolean acceptInvalidCertificate;
+    private final int connectTimeout; // ms
+    private final int readTimeout; // ms
+    private boolean certificateCheck = false;
+    private boolean standaloneCertificateCheck = false;
+
+    public ServiceProbe(String url, boolean acceptInvalidCertificate, int connectTimeout, int readTimeout) {
+        this(url, null, acceptInvalidCertificate, connectTimeout, readTimeout);
+    }
+
+    public ServiceProbe(String url, ServiceCheck check, boolean acceptInvalidCertificate, int connectTimeout,
+                        int readTimeout) {
+        this.url = url;
+        this.check = check != null ? check : new HttpGetCheck(200, 200);
+        this.acceptInvalidCertificate = acceptInvalidCertificate;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+    }
+
+    public ServiceProbe(ServiceConfiguration service, int connectTimeout, int readTimeout) {
+        this(service.getUrl(), service.getCheck(), service.isAcceptInvalidCertificate(), connectTimeout,
+                readTimeout);
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public ServiceCheck getCheck() {
+        return check;
+    }
+
+    public boolean isCertificateCheck() {
+        return certificateCheck;
+    }
+
+    public void setCertificateCheck(boolean certificateCheck) {
+        this.certificateCheck = certificateCheck;
+    }
+
+    public boolean isStandaloneCertificateCheck() {
+        return standaloneCertificateCheck;
+    }
+
+    public void setStandaloneCertificateCheck(boolean standaloneCertificateCheck) {
+        this.standaloneCertificateCheck = standaloneCertificateCheck;
+    }
+
+    public ServiceProbeResult run() {
+        final HttpClientContext context = HttpClientContext.create();
+        final ServiceProbeResult result = checkAvailability(context);
+        if (standaloneCertificateCheck) {
+            if (certificateCheck) {
+                checkCertificate(result);
+            }
+        }
+        else if (!updateCertificateExpiration(result, context.getAttribute(MonitoringHttpClient.PEER_CERTIFICATES))
+                && certificateCheck) {
+            checkCertificate(result);
+        }
+        return result;
+    }
+
+    private ServiceProbeResult checkAvailability(HttpClientContext context) {
+        final long now = Instant.now().getEpochSecond();
+        final ServiceProbeTimings timings = new ServiceProbeTimings();
+        context.setAttribute(MonitoringHttpClient.TIMINGS, timings);
+        final long start = System.nanoTime();
+        try {
+            ServiceProbeResult result;
+            try {
+                check.check(new ServiceCheckContext(url, acceptInvalidCertificate, connectTimeout, readTimeout,
+                        context, timings));
+                result = new ServiceProbeResult(MonitoringStatus.SUCCESS, null, now);
+            }
+            catch (ServiceCheckException ex) {
+                result = new ServiceProbeResult(MonitoringStatus.FAILURE, ex.getMessage(), now);
+            }
+            // Only answers are timed: failed connections would distort the distribution
+            timings.setTotal(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            result.setTimings(timings);
+            return result;
+        }
+        catch (MalformedURLException ex) {
+            final String message = Messages.ServiceMonitoring_Error_InvalidConfigurationURL()
+                    .replace("%url%", url);
+            return new ServiceProbeResult(MonitoringStatus.INVALID_CONFIGURATION, message, now);
+        }
+        catch (SSLHandshakeException ex) {
+            final String message = Messages.ServiceMonitoring_Error_InvalidHttpsConfiguration()
+                    .replace("%exception%", ex.getClass().getSimpleName())
+                    .replace("%message%", "" + ex.getMessage());
+            return new ServiceProbeResult(MonitoringStatus.INVALID_HTTPS, message, now);
+        }
+        catch (Exception ex) {
+            final String message = Messages.ServiceMonitoring_Error_OtherException()
+                    .replace("%exception%", ex.getClass().getSimpleName())
+                    .replace("%message%", "" + ex.getMessage());
+            return new ServiceProbeResult(MonitoringStatus.FAILURE, message, now);
+        }
+    }
+
+    private void checkCertificate(ServiceProbeResult result) {
+        // Also for plain HTTP services, so that they are not checked again before the next hour
+        result.setCertificateChecked(true);
+        if (!url.regionMatches(true, 0, "https:", 0, 6)) {
+            return;
+        }
+        final String endpoint = getEndpoint();
+        final long[] cached = endpoint != null ? CERTIFICATES.get(endpoint) : null;
+        if (cached != null && cached[1] + CERTIFICATE_CACHE_TTL > System.currentTimeMillis()) {
+            if (cached[0] > 0) {
+                result.setCertificateExpiration(cached[0]);
+            }
+            return;
+        }
+        try {
+            URL target = new URL(url);
+            if (target.getProtocol().equalsIgnoreCase("https")) {
+                setCertificateExpiration(result, CertificateUtils.getCertificate(url).get(url));
+            }
+        }
+        catch (Throwable ex) {
+            LOGGER.warning("Unable to fetch certificates for: " + url);
+        }
+    }
+
+    /**
+     * @return the host and port of an HTTPS URL, or null
+     */
+    private String getEndpoint() {
+        try {
+            final URL target = new URL(url);
+            if (target.getHost() == null || target.getHost().isEmpty()) {
+                return null;
+            }
+            final int port = target.getPort() < 0 ? target.getDefaultPort() : target.getPort();
+            return target.getHost().toLowerCase(Locale.ROOT) + ":" + port;
+        }
+        catch (MalformedURLException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Update the certificate expiration from the chain captured during the availability check.
+     *
+     * @return false if no certificate was captured
+     */
+    private boolean updateCertificateExpiration(ServiceProbeResult result, Object peerCertificates) {
+        if (!(peerCertificates instanceof Certificate[])) {
+            return false;
+        }
+        final List<X509Certificate> chain = new ArrayList<>();
+        for (Certificate cert : (Certificate[]) peerCertificates) {
+            if (cert instanceof X509Certificate) {
+                chain.add((X509Certificate) cert);
+            }
+        }
+        if (chain.isEmpty()) {
+            return false;
+        }
+        result.setCertificateChecked(true);
+        setCertificateExpiration(result, chain);
+        return true;
+    }
+
+    private void setCertificateExpiration(ServiceProbeResult result, List<X509Certificate> chain) {
+        Date lastExpiration = null;
+        for (X509Certificate cert : chain) {
+            LOGGER.fine(url + " > " + cert.getSubjectX500Principal() + " > " + cert.getNotAfter());
+            if (lastExpiration == null || cert.getNotAfter().before(lastExpiration)) {
+                lastExpiration = cert.getNotAfter();
+            }
+        }
+        if (lastExpiration != null) {
+            result.setCertificateExpiration(lastExpiration.getTime());
+        }
+        final String endpoint = getEndpoint();
+        if (endpoint != null) {
+            CERTIFICATES.put(endpoint, new long[] {
+                    lastExpiration != null ? lastExpiration.getTime() : 0, System.currentTimeMillis() });
+        }
+    }
+
+}
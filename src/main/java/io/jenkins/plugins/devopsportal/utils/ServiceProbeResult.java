@@ -0,0 +1,94 @@
+package io.jenkins.plugins.devopsportal.utils;
+
+import io.jenkins.plugins.devopsportal.models.MonitoringStatus;
+import io.jenkins.plugins.devopsportal.models.MonitoringTransition;
+import io.jenkins.plugins.devopsportal.models.ServiceMonitoring;
+
+import java.io.Serializable;
+
+/**
+ * Result of a service probe, applied to the monitoring record once the probe is completed.
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+public class ServiceProbeResult implements Serializable {
+
+    private final MonitoringStatus status;
+    private final String message;
+    private final long timestamp; // seconds
+    private long certificateExpiration; // ms
+    private boolean certificateChecked = false;
+    private ServiceProbeTimings timings;
+
+    public ServiceProbeResult(MonitoringStatus status, String message, long timestamp) {
+        this.status = status;
+        this.message = message;
+        this.timestamp = timestamp;
+    }
+
+    public MonitoringStatus getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public long getCertificateExpiration() {
+        return certificateExpiration;
+    }
+
+    public boolean isCertificateChecked() {
+        return certificateChecked;
+    }
+
+    public void setCertificateChecked(boolean certificateChecked) {
+        this.certificateChecked = certificateChecked;
+    }
+
+    public void setCertificateExpiration(long certificateExpiration) {
+        this.certificateExpiration = certificateExpiration;
+    }
+
+    public ServiceProbeTimings getTimings() {
+        return timings;
+    }
+
+    public void setTimings(ServiceProbeTimings timings) {
+        this.timings = timings;
+    }
+
+    public boolean isSuccess() {
+        return status == MonitoringStatus.SUCCESS;
+    }
+
+    public void applyTo(ServiceMonitoring record) {
+        final MonitoringStatus previous = record.getCurrentMonitoringStatus();
+        if (isSuccess()) {
+            record.setCurrentMonitoringStatus(MonitoringStatus.SUCCESS);
+            record.setLastSuccessTimestamp(timestamp);
+            record.setLastFailureReason(null);
+            record.setFailureCount(0);
+        }
+        else {
+            record.setFailure(status, message);
+        }
+        if (previous != null && previous != status) {
+            record.addTransition(new MonitoringTransition(timestamp, previous, status));
+        }
+        if (timings != null) {
+            record.addResponseTime(timings, timestamp);
+        }
+        if (certificateChecked) {
+            record.setLastCertificateCheckTimestamp(timestamp);
+            if (certificateExpiration > 0) {
+                record.setCertificateExpiration(certificateExpiration);
+            }
+        }
+    }
+
+}
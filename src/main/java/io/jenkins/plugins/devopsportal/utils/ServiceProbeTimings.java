@@ -0,0 +1,87 @@
+package io.jenkins.plugins.devopsportal.utils;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Duration of the phases of a service probe, in milliseconds.
+ *
+ * The DNS, connect and TLS phases are zero when a pooled connection was reused.
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+public class ServiceProbeTimings implements Serializable {
+
+    private long dns; // ms
+    private long connect; // ms
+    private long tls; // ms
+    private long firstByte; // ms
+    private long total; // ms
+
+    // Marks, in nanoseconds
+    private transient Long connectionStart;
+    private transient Long socketStart;
+    private transient Long requestStart;
+
+    public long getDns() {
+        return dns;
+    }
+
+    public long getConnect() {
+        return connect;
+    }
+
+    public long getTls() {
+        return tls;
+    }
+
+    public long getFirstByte() {
+        return firstByte;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    void setTotal(long total) {
+        this.total = total;
+    }
+
+    public void connectionStarted() {
+        connectionStart = System.nanoTime();
+    }
+
+    public void socketStarted() {
+        socketStart = System.nanoTime();
+        if (connectionStart != null) {
+            dns = elapsed(connectionStart, socketStart);
+        }
+    }
+
+    public void socketConnected() {
+        if (socketStart != null) {
+            connect = elapsed(socketStart, System.nanoTime());
+        }
+    }
+
+    void handshakeCompleted() {
+        if (socketStart != null) {
+            tls = elapsed(socketStart, System.nanoTime()) - connect;
+        }
+    }
+
+    void requestStarted() {
+        requestStart = System.nanoTime();
+    }
+
+    void responseReceived() {
+        if (requestStart != null) {
+            firstByte = elapsed(requestStart, System.nanoTime());
+        }
+    }
+
+    private static long elapsed(long start, long end) {
+        return TimeUnit.NANOSECONDS.toMillis(end - start);
+    }
+
+}
@@ -1,6 +1,16 @@
 package io.jenkins.plugins.devopsportal.utils;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import hudson.init.Terminator;
+import io.jenkins.plugins.devopsportal.models.QualityIssue;
+import io.jenkins.plugins.devopsportal.models.SecurityHotspot;
+import jenkins.util.SystemProperties;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.utils.URIBuilder;
@@ -11,10 +21,16 @@ import org.apache.http.impl.client.HttpClients;
 import org.apache.http.ssl.SSLContextBuilder;
 
 import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -22,21 +38,90 @@ import java.util.logging.Logger;
 /**
  * Utility class to fetch data from Sonar Qube using REST API.
  *
+ * Issues and hotspots are read page after page, and mapped to the models while the response is read.
+ * Clients of the same SonarQube server share a pooled HTTP client, so that connections are kept alive between
+ * calls and several calls can be made at the same time.
+ *
+ * Calls to each server are rate limited, and refused while the server is failing (circuit breaker). Failures are
+ * raised as {@link SonarApiException}, so that no partial or empty data is taken for the audit result.
+ *
  * @author Rémi BELLO {@literal <remi@evolya.fr>}
  */
 public class SonarApiClient {
 
     private static final Logger LOGGER = Logger.getLogger("io.jenkins.plugins.devopsportal");
 
+    public static final int MAX_CONNECTIONS_PER_HOST = SystemProperties.getInteger(
+            SonarApiClient.class.getName() + ".maxConnectionsPerHost", 8);
+
+    public static final int TIMEOUT = SystemProperties.getInteger(
+            SonarApiClient.class.getName() + ".timeout", 30000);
+
+    public static final int MAX_RESULTS = SystemProperties.getInteger(
+            SonarApiClient.class.getName() + ".maxResults", 10000);
+
+    // Maximum page size of the SonarQube API
+    private static final int PAGE_SIZE = 500;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    static final ObjectReader ISSUE_READER = MAPPER.readerFor(QualityIssue.class);
+    static final ObjectReader HOTSPOT_READER = MAPPER.readerFor(SecurityHotspot.class);
+
+    public static final int FAILURE_THRESHOLD = SystemProperties.getInteger(
+            SonarApiClient.class.getName() + ".failureThreshold", 5);
+
+    public static final long OPEN_DURATION = SystemProperties.getLong(
+            SonarApiClient.class.getName() + ".openDuration", 60L);
+
+    public static final int RATE_LIMIT = SystemProperties.getInteger(
+            SonarApiClient.class.getName() + ".rateLimit", 10);
+
+    public static final int BURST = SystemProperties.getInteger(
+            SonarApiClient.class.getName() + ".burst", 20);
+
+    // Server (scheme://host:port) -> circuit breaker and rate limiter
+    private static final Map<String, ServerGuard> GUARDS = new ConcurrentHashMap<>();
+
+    // Server (scheme://host:port) and certificate policy -> shared HTTP client
+    private static final Map<String, CloseableHttpClient> CLIENTS = new ConcurrentHashMap<>();
+
     private final String url;
     private final String authenticationToken;
-    private final HttpClientBuilder builder;
+    private final CloseableHttpClient httpClient;
 
     public SonarApiClient(String url, String authenticationToken, boolean acceptInvalidCertificate) {
         this.url = url;
         this.authenticationToken = Base64.getEncoder().withoutPadding()
                 .encodeToString((authenticationToken+":").getBytes(StandardCharsets.UTF_8));
-        this.builder = HttpClients.custom();
+        this.httpClient = getHttpClient(url, acceptInvalidCertificate);
+    }
+
+    /**
+     * @return the server part (scheme://host:port) of a SonarQube URL
+     */
+    public static String getHost(String url) {
+        try {
+            final URI uri = new URI(url.trim());
+            if (uri.getScheme() != null && uri.getHost() != null) {
+                final String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+                final int port = uri.getPort() != -1 ? uri.getPort() : "https".equals(scheme) ? 443 : 80;
+                return scheme + "://" + uri.getHost().toLowerCase(Locale.ROOT) + ":" + port;
+            }
+        }
+        catch (URISyntaxException ex) {
+            // Fallback to the full URL
+        }
+        return url.trim();
+    }
+
+    private static CloseableHttpClient getHttpClient(String url, boolean acceptInvalidCertificate) {
+        return CLIENTS.computeIfAbsent(getHost(url) + (acceptInvalidCertificate ? " unsafe" : ""),
+                key -> createHttpClient(acceptInvalidCertificate));
+    }
+
+    private static CloseableHttpClient createHttpClient(boolean acceptInvalidCertificate) {
+        final HttpClientBuilder builder = HttpClients.custom();
         if (acceptInvalidCertificate) {
             try {
                 SSLContext sslContext = new SSLContextBuilder().loadTrustMaterial(null, (x509Certificates, s) -> true).build();
@@ -48,20 +133,53 @@ public class SonarApiClient {
                 throw new RuntimeException(ex);
             }
         }
+        return builder
+                .setMaxConnTotal(MAX_CONNECTIONS_PER_HOST)
+                .setMaxConnPerRoute(MAX_CONNECTIONS_PER_HOST)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(TIMEOUT)
+                        .setConnectionRequestTimeout(TIMEOUT)
+                        .setSocketTimeout(TIMEOUT)
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(60L, TimeUnit.SECONDS)
+                .disableCookieManagement()
+                .build();
+    }
+
+    @Terminator
+    public static void shutdown() {
+        for (CloseableHttpClient client : CLIENTS.values()) {
+            try {
+                client.close();
+            }
+            catch (IOException ex) {
+                LOGGER.log(Level.FINE, "Unable to close SonarQube HTTP client", ex);
+            }
+        }
+        CLIENTS.clear();
+    }
+
+    public List<QualityIssue> getIssues(String projectKey) throws IOException {
+        final List<QualityIssue> issues = new ArrayList<>();
+        getIssues(projectKey, issues::add);
+        return issues;
     }
 
-    public List<Map<String, Object>> getIssues(String projectKey) {
-        return execute("/api/issues/search", "issues", request -> {
+    /**
+     * Stream the open bugs and vulnerabilities of a project, page after page.
+     */
+    public void getIssues(String projectKey, Consumer<QualityIssue> consumer) throws IOException {
+        stream("/api/issues/search", "issues", ISSUE_READER, consumer, request -> {
             request.setParameter("componentKeys", projectKey);
-            request.setParameter("ps", "500");
             request.setParameter("resolved", "no");
             request.setParameter("severities", "MAJOR,CRITICAL,BLOCKER");
             request.setParameter("statuses", "OPEN");
-            request.setParameter("types", "BUG,VULNERABILITY,CODE_SMELL");
+            request.setParameter("types", "BUG,VULNERABILITY");
         });
     }
 
-    public List<Map<String, Object>> getMetrics(String projectKey) {
+    public List<Map<String, Object>> getMetrics(String projectKey) throws IOException {
         return getMetrics(
                 projectKey,
                 // Quality Gate
@@ -78,23 +196,118 @@ public class SonarApiClient {
         );
     }
 
-    public List<Map<String, Object>> getMetrics(String projectKey, String... metricKeys) {
+    public List<Map<String, Object>> getMetrics(String projectKey, String... metricKeys) throws IOException {
         return execute("/api/measures/search", "measures", request -> {
             request.setParameter("projectKeys", projectKey);
             request.setParameter("metricKeys", String.join(",", metricKeys));
         });
     }
 
-    public List<Map<String, Object>> getHotspots(String projectKey) {
-        return execute("/api/hotspots/search", "hotspots", request -> {
+    public List<SecurityHotspot> getHotspots(String projectKey) throws IOException {
+        final List<SecurityHotspot> hotspots = new ArrayList<>();
+        getHotspots(projectKey, hotspots::add);
+        return hotspots;
+    }
+
+    /**
+     * Stream the security hotspots to review of a project, page after page.
+     */
+    public void getHotspots(String projectKey, Consumer<SecurityHotspot> consumer) throws IOException {
+        stream("/api/hotspots/search", "hotspots", HOTSPOT_READER, consumer, request -> {
             request.setParameter("projectKey", projectKey);
             request.setParameter("status", "TO_REVIEW");
-            request.setParameter("ps", "500");
         });
     }
 
-    @SuppressWarnings({"unchecked", "java:S2647"})
-    public List<Map<String, Object>> execute(String path, String listAttribute, Consumer<URIBuilder> consumer) {
+    /**
+     * Check whether the analysis of a project is still waiting to be processed by the SonarQube compute engine.
+     *
+     * @param taskId the compute engine task of the analysis, or null to check all the tasks of the project
+     */
+    public boolean isAnalysisPending(String projectKey, String taskId) throws IOException {
+        if (taskId != null) {
+            final String status = execute("/api/ce/task", request -> request.setParameter("id", taskId),
+                    in -> MAPPER.readTree(in).path("task").path("status").asText());
+            return "PENDING".equals(status) || "IN_PROGRESS".equals(status);
+        }
+        return execute("/api/ce/component", request -> request.setParameter("component", projectKey),
+                in -> MAPPER.readTree(in).path("queue").size() > 0);
+    }
+
+    /**
+     * Read all the pages of a paginated API, the items being mapped one by one while the response is read.
+     * Reading stops after {@link #MAX_RESULTS} items.
+     */
+    private <T> void stream(String path, String listAttribute, ObjectReader reader, Consumer<T> consumer,
+                            Consumer<URIBuilder> parameters) throws IOException {
+        int count = 0;
+        for (int page = 1; ; page++) {
+            final int index = page;
+            final Page result = execute(path, request -> {
+                parameters.accept(request);
+                request.setParameter("p", String.valueOf(index));
+                request.setParameter("ps", String.valueOf(PAGE_SIZE));
+            }, in -> readPage(in, listAttribute, reader, consumer));
+            count += result.count;
+            final boolean more = result.total >= 0 ? count < result.total : result.count >= PAGE_SIZE;
+            if (result.count == 0 || !more) {
+                return;
+            }
+            if (page * PAGE_SIZE >= MAX_RESULTS) {
+                LOGGER.log(Level.WARNING, String.format("Truncated api '%s' results: %s items out of %s",
+                        path, count, result.total));
+                return;
+            }
+        }
+    }
+
+    static <T> Page readPage(InputStream in, String listAttribute, ObjectReader reader, Consumer<T> consumer)
+            throws IOException {
+        int count = 0;
+        int total = -1;
+        try (JsonParser parser = MAPPER.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Unexpected response: an object is expected");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String name = parser.getCurrentName();
+                final JsonToken token = parser.nextToken();
+                if (listAttribute.equals(name) && token == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        consumer.accept(reader.readValue(parser));
+                        count++;
+                    }
+                }
+                else if ("paging".equals(name) && token == JsonToken.START_OBJECT) {
+                    final JsonNode paging = MAPPER.readTree(parser);
+                    total = paging.path("total").asInt(-1);
+                }
+                else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return new Page(count, total);
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<Map<String, Object>> execute(String path, String listAttribute, Consumer<URIBuilder> consumer)
+            throws IOException {
+        return execute(path, consumer, in -> {
+            Map<?, ?> map = MAPPER.readValue(in, Map.class);
+            if (map.containsKey(listAttribute)) {
+                return (List<Map<String, Object>>) map.get(listAttribute);
+            }
+            return Collections.<Map<String, Object>>emptyList();
+        });
+    }
+
+    /**
+     * Call the API, unless the circuit of the server is open, waiting for the rate limiter if needed.
+     * Server errors, rate limiting and network failures are reported to the circuit breaker.
+     */
+    @SuppressWarnings({"java:S2647"})
+    private <T> T execute(String path, Consumer<URIBuilder> consumer, ResponseReader<T> reader) throws IOException {
         HttpGet request;
         try {
             URIBuilder builder = new URIBuilder(url + path);
@@ -102,38 +315,98 @@ public class SonarApiClient {
             request = new HttpGet(builder.build());
         }
         catch (URISyntaxException ex) {
-            throw new RuntimeException(ex);
+            throw new SonarApiException(String.format("Invalid api '%s' URL: %s", path, ex.getMessage()), ex);
         }
         // Sonar throws a vulnerability here: Use a more secure method than basic authentication.
         // But this is the standard token-based authentication on Sonar.
         request.setHeader("Authorization", "Basic " + authenticationToken);
-        try (CloseableHttpClient httpClient = this.builder.build()) {
-            CloseableHttpResponse response = httpClient.execute(request);
-            if (response.getStatusLine().getStatusCode() != 200) {
-                LOGGER.log(
-                        Level.WARNING,
-                        String.format("Unable to fetch api '%s': %s %s", path,
-                                response.getStatusLine().getStatusCode(), response.getStatusLine().getReasonPhrase())
-                );
+        final ServerGuard guard = getGuard(url);
+        final long now = System.currentTimeMillis();
+        if (!guard.breaker.tryAcquire(now)) {
+            throw new SonarApiException(String.format("Unable to fetch api '%s': circuit open for server %s",
+                    path, getHost(url)), null, guard.breaker.getRetryAt(now));
+        }
+        // Outcome reported to the circuit breaker, null if the call was not made
+        Boolean failure = Boolean.TRUE;
+        try {
+            final long delay = guard.limiter.reserve(System.currentTimeMillis());
+            if (delay > 0) {
+                Thread.sleep(delay);
             }
-            else {
-                ObjectMapper mapper = new ObjectMapper();
-                Map<?, ?> map = mapper.readValue(response.getEntity().getContent(), Map.class);
-                if (map.containsKey(listAttribute)) {
-                    return (List<Map<String, Object>>) map.get(listAttribute);
+            try (CloseableHttpResponse response = httpClient.execute(request)) {
+                final int status = response.getStatusLine().getStatusCode();
+                if (status != 200) {
+                    // Client errors are caused by the request, not by the server
+                    failure = status == 429 || status >= 500;
+                    throw new SonarApiException(String.format("Unable to fetch api '%s': %s %s", path,
+                            status, response.getStatusLine().getReasonPhrase()));
+                }
+                try (InputStream in = response.getEntity().getContent()) {
+                    final T result = reader.read(in);
+                    failure = false;
+                    return result;
                 }
             }
-            return Collections.emptyList();
         }
-        catch (Exception ex) {
-            LOGGER.log(
-                    Level.WARNING,
-                    String.format("Unable to fetch api '%s': %s %s", path,
-                            ex.getClass().getSimpleName(), ex.getMessage()),
-                    ex
-            );
-            return Collections.emptyList();
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            failure = null;
+            throw new InterruptedIOException("Interrupted while waiting for the rate limiter");
+        }
+        catch (SonarApiException ex) {
+            throw ex;
+        }
+        catch (IOException | RuntimeException ex) {
+            throw new SonarApiException(String.format("Unable to fetch api '%s': %s %s", path,
+                    ex.getClass().getSimpleName(), ex.getMessage()), ex);
+        }
+        finally {
+            if (failure == null) {
+                guard.breaker.release();
+            }
+            else if (failure) {
+                guard.breaker.onFailure(System.currentTimeMillis());
+            }
+            else {
+                guard.breaker.onSuccess();
+            }
+        }
+    }
+
+    private static ServerGuard getGuard(String url) {
+        return GUARDS.computeIfAbsent(getHost(url), key -> new ServerGuard());
+    }
+
+    /**
+     * @return true if the circuit of the server is open: calls are refused
+     */
+    public static boolean isCircuitOpen(String url) {
+        final ServerGuard guard = GUARDS.get(getHost(url));
+        return guard != null && guard.breaker.isOpen(System.currentTimeMillis());
+    }
+
+    private static final class ServerGuard {
+
+        private final CircuitBreaker breaker = new CircuitBreaker(FAILURE_THRESHOLD, OPEN_DURATION * 1000L);
+        private final TokenBucket limiter = new TokenBucket(RATE_LIMIT, BURST, System.currentTimeMillis());
+
+    }
+
+    @FunctionalInterface
+    private interface ResponseReader<T> {
+        T read(InputStream in) throws IOException;
+    }
+
+    static final class Page {
+
+        final int count;
+        final int total; // -1 if unknown
+
+        Page(int count, int total) {
+            this.count = count;
+            this.total = total;
         }
+
     }
 
 }
@@ -0,0 +1,38 @@
+package io.jenkins.plugins.devopsportal.utils;
+
+import java.io.IOException;
+
+/**
+ * Raised by {@link SonarApiClient} when a call failed, or was not made because the server is failing.
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+public class SonarApiException extends IOException {
+
+    private final long retryAt;
+
+    public SonarApiException(String message) {
+        this(message, null, 0);
+    }
+
+    public SonarApiException(String message, Throwable cause) {
+        this(message, cause, 0);
+    }
+
+    public SonarApiException(String message, Throwable cause, long retryAt) {
+        super(message, cause);
+        this.retryAt = retryAt;
+    }
+
+    /**
+     * @return the time (ms) from which the server can be called again if the call was refused, 0 otherwise
+     */
+    public long getRetryAt() {
+        return retryAt;
+    }
+
+    public boolean isCircuitOpen() {
+        return retryAt > 0;
+    }
+
+}
@@ -0,0 +1,44 @@
+package io.jenkins.plugins.devopsportal.utils;
+
+/**
+ * Token bucket rate limiter: calls are allowed at a steady rate, with bursts up to the bucket capacity.
+ *
+ * A call reserves a token, possibly in advance: the returned delay is the time to wait before making the call,
+ * so that callers are served in order.
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+public final class TokenBucket {
+
+    private final double rate; // tokens per ms
+    private final double capacity;
+
+    private double tokens;
+    private long last; // ms
+
+    /**
+     * @param rate number of calls per second
+     * @param capacity maximum number of calls in a burst
+     */
+    public TokenBucket(double rate, double capacity, long now) {
+        this.rate = Math.max(rate, 0.001) / 1000d;
+        this.capacity = Math.max(capacity, 1d);
+        this.tokens = this.capacity;
+        this.last = now;
+    }
+
+    /**
+     * Reserve a token.
+     *
+     * @return the delay (ms) to wait before making the call
+     */
+    public synchronized long reserve(long now) {
+        if (now > last) {
+            tokens = Math.min(capacity, tokens + (now - last) * rate);
+            last = now;
+        }
+        tokens -= 1d;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / rate);
+    }
+
+}
@@ -106,9 +106,8 @@ public class BuildDashboard extends View {
 
         public List<String> getApplicationNames(String filter) {
             Stream<String> stream = getBuildStatusDescriptor()
-                    .getBuildStatus()
+                    .getApplicationNames()
                     .stream()
-                    .map(ApplicationBuildStatus::getApplicationName)
                     .map(String::trim)
                     .filter(name -> !name.isEmpty())
                     .distinct()
@@ -127,9 +126,8 @@ public class BuildDashboard extends View {
 
         public List<String> getApplicationVersions(String applicationName) {
             return getBuildStatusDescriptor()
-                    .getBuildStatus()
+                    .getBuildStatusByApplication(applicationName)
                     .stream()
-                    .filter(item -> applicationName.trim().equals(item.getApplicationName()))
                     .sorted(Comparator.comparingLong(ApplicationBuildStatus::getBuildTimestamp))
                     .map(ApplicationBuildStatus::getApplicationVersion)
                     .map(String::trim)
@@ -139,11 +137,7 @@ public class BuildDashboard extends View {
 
         public ApplicationBuildStatus getApplicationBuild(String applicationName, String applicationVersion) {
             return getBuildStatusDescriptor()
-                    .getBuildStatus()
-                    .stream()
-                    .filter(item -> applicationName.trim().equals(item.getApplicationName()))
-                    .filter(item -> applicationVersion.trim().equals(item.getApplicationVersion()))
-                    .findFirst()
+                    .getBuildStatusByApplication(applicationName, applicationVersion)
                     .orElse(null);
         }
 
@@ -163,187 +157,57 @@ public class BuildDashboard extends View {
             return null;
         }
 
-        public SummaryTitle getSummaryBuild(String applicationName, String applicationVersion) {
+        public ApplicationBuildSummary getSummary(String applicationName, String applicationVersion) {
             ApplicationBuildStatus status = getApplicationBuild(applicationName, applicationVersion);
-            if (status == null) {
-                return new SummaryTitle("warn", "help-circle-outline", Messages.BuildDashboard_SummaryStatus_Unknown());
-            }
-            List<AbstractActivity> builds = status.getActivitiesByCategory(ActivityCategory.BUILD);
-            if (builds.isEmpty()) {
-                return new SummaryTitle("warn", "help-circle-outline", Messages.BuildDashboard_SummaryStatus_NotBuilt());
-            }
-            long success = builds.stream().filter(activity -> activity.getScore() == ActivityScore.A).count();
-            if (success < builds.size()) {
-                return new SummaryTitle("bad", "skull-outline", Messages.BuildDashboard_SummaryStatus_Failure());
-            }
-            return new SummaryTitle("good", "heart-outline", Messages.BuildDashboard_SummaryStatus_Healthy());
+            return status != null ? status.getSummary() : new ApplicationBuildSummary(null);
+        }
+
+        public SummaryTitle getSummaryBuild(String applicationName, String applicationVersion) {
+            return getSummary(applicationName, applicationVersion).getBuild();
         }
 
         public String getSummaryArtifactsCount(String applicationName, String applicationVersion) {
-            ApplicationBuildStatus status = getApplicationBuild(applicationName, applicationVersion);
-            if (status == null) {
-                return "-";
-            }
-            List<AbstractActivity> builds = status.getActivitiesByCategory(ActivityCategory.BUILD);
-            long success = builds.stream().filter(activity -> activity.getScore() == ActivityScore.A).count();
-            return success + "/" + builds.size();
+            return getSummary(applicationName, applicationVersion).getArtifactsCount();
         }
 
         public String getSummaryCoverageRate(String applicationName, String applicationVersion) {
-            ApplicationBuildStatus status = getApplicationBuild(applicationName, applicationVersion);
-            if (status == null) {
-                return "-";
-            }
-            Stream<Float> value1 = status
-                    .getActivitiesByCategory(ActivityCategory.QUALITY_AUDIT)
-                    .stream()
-                    .map(activity -> (QualityAuditActivity) activity)
-                    .map(QualityAuditActivity::getTestCoverage)
-                    .filter(value -> value > 0);
-            Stream<Float> value2 = status
-                    .getActivitiesByCategory(ActivityCategory.UNIT_TEST)
-                    .stream()
-                    .map(activity -> (UnitTestActivity) activity)
-                    .map(UnitTestActivity::getTestCoverage)
-                    .filter(value -> value > 0);
-            double average = Stream.concat(value1, value2)
-                    .mapToDouble(d -> d)
-                    .average()
-                    .orElse(0);
-            return String.format("%.0f", average * 100) + "%";
+            return getSummary(applicationName, applicationVersion).getCoverageRate();
         }
 
         public SummaryTitle getSummaryQuality(String applicationName, String applicationVersion) {
-            ApplicationBuildStatus status = getApplicationBuild(applicationName, applicationVersion);
-            if (status == null) {
-                return new SummaryTitle("warn", "help-circle-outline",  Messages.BuildDashboard_SummaryStatus_Unknown());
-            }
-            boolean incomplete = status
-                    .getActivitiesByCategory(ActivityCategory.QUALITY_AUDIT)
-                    .stream()
-                    .map(activity -> (QualityAuditActivity) activity)
-                    .anyMatch(activity -> !activity.isComplete());
-            if (incomplete) {
-                return new SummaryTitle("pending", "sync-circle-outline", Messages.BuildDashboard_SummaryStatus_Updating());
-            }
-            if ("CRITICAL".equals(getSummaryWorstScore(applicationName, applicationVersion))) {
-                return new SummaryTitle("bad", "skull-outline", Messages.BuildDashboard_SummaryStatus_DependencyFailure());
-            }
-            List<String> scores = Arrays.asList(
-                    getLowerQualityScore(status, QualityAuditActivity::getBugScore),
-                    getLowerQualityScore(status, QualityAuditActivity::getVulnerabilityScore),
-                    getLowerQualityScore(status, QualityAuditActivity::getHotspotScore)
-            );
-            for (String score : Arrays.asList("E", "D", "C")) {
-                if (scores.contains(score)) {
-                    return new SummaryTitle("bad", "skull-outline", Messages.BuildDashboard_SummaryStatus_QualityFailure());
-                }
-            }
-            return new SummaryTitle("good", "heart-outline", Messages.BuildDashboard_SummaryStatus_Healthy());
-        }
-
-        private static String getLowerQualityScore(ApplicationBuildStatus status,
-                                                   java.util.function.Function<QualityAuditActivity, ActivityScore> extractor) {
-            if (status == null) {
-                return "-";
-            }
-            return status
-                    .getActivitiesByCategory(ActivityCategory.QUALITY_AUDIT)
-                    .stream()
-                    .map(activity -> (QualityAuditActivity) activity)
-                    .map(extractor)
-                    .filter(Objects::nonNull)
-                    .map(Enum::name)
-                    .max(String::compareTo)
-                    .orElse("?");
+            return getSummary(applicationName, applicationVersion).getQuality();
         }
 
         public String getSummaryBugScore(String applicationName, String applicationVersion) {
-            return getLowerQualityScore(
-                    getApplicationBuild(applicationName, applicationVersion),
-                    QualityAuditActivity::getBugScore
-            );
+            return getSummary(applicationName, applicationVersion).getBugScore();
         }
 
         public String getSummaryVulnerabilityScore(String applicationName, String applicationVersion) {
-            return getLowerQualityScore(
-                    getApplicationBuild(applicationName, applicationVersion),
-                    QualityAuditActivity::getVulnerabilityScore
-            );
+            return getSummary(applicationName, applicationVersion).getVulnerabilityScore();
         }
 
         public String getSummaryHotspotScore(String applicationName, String applicationVersion) {
-            return getLowerQualityScore(
-                    getApplicationBuild(applicationName, applicationVersion),
-                    QualityAuditActivity::getHotspotScore
-            );
+            return getSummary(applicationName, applicationVersion).getHotspotScore();
         }
 
         public String getSummaryDependencyVulnerabilityCount(String applicationName, String applicationVersion) {
-            ApplicationBuildStatus status = getApplicationBuild(applicationName, applicationVersion);
-            if (status == null) {
-                return "-";
-            }
-            return "" + status
-                    .getActivitiesByCategory(ActivityCategory.DEPENDENCIES_ANALYSIS)
-                    .stream()
-                    .map(activity -> (DependenciesAnalysisActivity) activity)
-                    .mapToInt(DependenciesAnalysisActivity::getVulnerabilitiesCount)
-                    .sum();
+            return getSummary(applicationName, applicationVersion).getDependencyVulnerabilityCount();
         }
 
         public String getSummaryWorstScore(String applicationName, String applicationVersion) {
-            ApplicationBuildStatus status = getApplicationBuild(applicationName, applicationVersion);
-            if (status == null) {
-                return "-";
-            }
-            List<String> scores = status
-                    .getActivitiesByCategory(ActivityCategory.DEPENDENCIES_ANALYSIS)
-                    .stream()
-                    .map(activity -> (DependenciesAnalysisActivity) activity)
-                    .flatMap(activity -> activity.getVulnerabilities().getItems().values().stream())
-                    .flatMap(Collection::stream)
-                    .map(DependencyVulnerability::getSeverity)
-                    .collect(Collectors.toList());
-            for (String severity : Arrays.asList("CRITICAL", "HIGHEST", "HIGH", "MEDIUM", "LOW", "LOWEST")) {
-                if (scores.contains(severity)) {
-                    return severity;
-                }
-            }
-            return "-";
+            return getSummary(applicationName, applicationVersion).getWorstScore();
         }
 
         public SummaryTitle getSummaryRelease(String applicationName, String applicationVersion) {
-            ApplicationBuildStatus status = getApplicationBuild(applicationName, applicationVersion);
-            if (status == null) {
-                return new SummaryTitle("warn", "help-circle-outline", Messages.BuildDashboard_SummaryStatus_Unknown());
-            }
-            if (status.getActivitiesByCategory(ActivityCategory.ARTIFACT_RELEASE).isEmpty()) {
-                return new SummaryTitle("bad", "skull-outline", Messages.BuildDashboard_SummaryStatus_Missing());
-            }
-            return new SummaryTitle("good", "heart-outline", Messages.BuildDashboard_SummaryStatus_Healthy());
+            return getSummary(applicationName, applicationVersion).getRelease();
         }
 
         public String getSummaryReleasesCount(String applicationName, String applicationVersion) {
-            ApplicationBuildStatus status = getApplicationBuild(applicationName, applicationVersion);
-            if (status == null) {
-                return "-";
-            }
-            return "" + status.getActivitiesByCategory(ActivityCategory.ARTIFACT_RELEASE).size();
+            return getSummary(applicationName, applicationVersion).getReleasesCount();
         }
 
         public List<String> getSummaryReleasesTags(String applicationName, String applicationVersion) {
-            ApplicationBuildStatus status = getApplicationBuild(applicationName, applicationVersion);
-            if (status == null) {
-                return Collections.emptyList();
-            }
-            return status
-                    .getActivitiesByCategory(ActivityCategory.ARTIFACT_RELEASE)
-                    .stream()
-                    .map(activity -> (ArtifactReleaseActivity) activity)
-                    .flatMap(activity -> activity.getTags().stream())
-                    .distinct()
-                    .collect(Collectors.toList());
+            return getSummary(applicationName, applicationVersion).getReleasesTags();
         }
 
         public FormValidation doCheckFilter(@QueryParameter String filter) {
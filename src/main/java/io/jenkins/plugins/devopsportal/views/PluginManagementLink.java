@@ -8,6 +8,8 @@ import hudson.model.Descriptor;
 import hudson.model.ManagementLink;
 import io.jenkins.plugins.devopsportal.Messages;
 import io.jenkins.plugins.devopsportal.models.ServiceConfiguration;
+import io.jenkins.plugins.devopsportal.utils.MonitoringHttpClient;
+import io.jenkins.plugins.devopsportal.workers.PersistencePeriodicWork;
 import jenkins.model.Jenkins;
 import net.sf.json.JSONObject;
 import org.kohsuke.stapler.Stapler;
@@ -60,6 +62,36 @@ public class PluginManagementLink extends ManagementLink {
         return Category.CONFIGURATION;
     }
 
+    @SuppressWarnings("unused")
+    public int getPendingStoreCount() {
+        return PersistencePeriodicWork.getPendingCount();
+    }
+
+    @SuppressWarnings("unused")
+    public long getFlushCount() {
+        return PersistencePeriodicWork.getFlushCount();
+    }
+
+    @SuppressWarnings("unused")
+    public long getFlushFailureCount() {
+        return PersistencePeriodicWork.getFlushFailureCount();
+    }
+
+    @SuppressWarnings("unused")
+    public long getFlushTimeMillis() {
+        return PersistencePeriodicWork.getFlushTimeMillis();
+    }
+
+    @SuppressWarnings("unused")
+    public long getLastFlushTimeMillis() {
+        return PersistencePeriodicWork.getLastFlushTimeMillis();
+    }
+
+    @SuppressWarnings("unused")
+    public String getMonitoringPoolStatistics() {
+        return MonitoringHttpClient.getStatistics();
+    }
+
     @SuppressWarnings("unused")
     public void doSaveSettings(final StaplerRequest req, final StaplerResponse rsp) throws IOException {
 
@@ -8,6 +8,7 @@ import io.jenkins.plugins.devopsportal.Messages;
 import io.jenkins.plugins.devopsportal.models.DeploymentOperation;
 import io.jenkins.plugins.devopsportal.models.ServiceConfiguration;
 import io.jenkins.plugins.devopsportal.models.ServiceMonitoring;
+import io.jenkins.plugins.devopsportal.utils.AvailabilityHistory;
 import io.jenkins.plugins.devopsportal.utils.TimeAgoUtils;
 import jenkins.model.Jenkins;
 import org.kohsuke.stapler.*;
@@ -98,6 +99,75 @@ public class RunDashboard extends View {
         return TimeAgoUtils.toDuration((Instant.now().getEpochSecond() - timestamp) * 1000L);
     }
 
+    @SuppressWarnings("unused")
+    public String formatLatency(long milliseconds) {
+        if (milliseconds < 0) {
+            return "-";
+        }
+        if (milliseconds < 1000) {
+            return milliseconds + " ms";
+        }
+        return String.format(Locale.ROOT, "%.1f s", milliseconds / 1000.0);
+    }
+
+    @SuppressWarnings("unused")
+    public String formatAvailability(AvailabilityHistory history, int days) {
+        final long now = Instant.now().getEpochSecond();
+        final double uptime = history.getUptime(now - days * 86400L, now);
+        if (uptime < 0) {
+            return "-";
+        }
+        return String.format(Locale.ROOT, "%.2f%%", uptime);
+    }
+
+    @SuppressWarnings("unused")
+    public String formatMeanTimeToRecovery(AvailabilityHistory history, int days) {
+        final long mttr = history.getMeanTimeToRecovery(Instant.now().getEpochSecond() - days * 86400L);
+        if (mttr < 0) {
+            return "-";
+        }
+        return TimeAgoUtils.toDuration(mttr * 1000L);
+    }
+
+    @SuppressWarnings("unused")
+    public String formatDuration(long seconds) {
+        return TimeAgoUtils.toDuration(seconds * 1000L);
+    }
+
+    public List<AvailabilityHistory.Incident> getIncidents(AvailabilityHistory history, int days) {
+        return history.getIncidents(Instant.now().getEpochSecond() - days * 86400L);
+    }
+
+    /**
+     * Render the availability of the last 24 hours as an SVG sparkline, one bar per 30 minutes.
+     */
+    @SuppressWarnings("unused")
+    public String getAvailabilitySparkline(AvailabilityHistory history) {
+        final long now = Instant.now().getEpochSecond();
+        final double[] uptimes = history.getUptimes(now - 86400L, now, 48);
+        final StringBuilder svg = new StringBuilder();
+        svg.append("<svg class=\"availability-sparkline\" width=\"").append(uptimes.length * 3)
+                .append("\" height=\"14\" xmlns=\"http://www.w3.org/2000/svg\">");
+        for (int i = 0; i < uptimes.length; i++) {
+            final String style;
+            if (uptimes[i] < 0) {
+                style = "slot-none";
+            }
+            else if (uptimes[i] >= 100) {
+                style = "slot-up";
+            }
+            else if (uptimes[i] >= 90) {
+                style = "slot-degraded";
+            }
+            else {
+                style = "slot-down";
+            }
+            svg.append("<rect class=\"").append(style).append("\" x=\"").append(i * 3)
+                    .append("\" y=\"0\" width=\"2\" height=\"14\"/>");
+        }
+        return svg.append("</svg>").toString();
+    }
+
     public String getRootURL() {
         return Objects.requireNonNull(Jenkins.getInstanceOrNull()).getRootUrl();
     }
@@ -162,6 +232,10 @@ public class RunDashboard extends View {
             return getMonitoringDescriptor().getMonitoringByService(serviceId).orElse(new ServiceMonitoring(serviceId));
         }
 
+        public AvailabilityHistory getHistoryByService(String serviceId) {
+            return AvailabilityHistory.get(serviceId);
+        }
+
         public DeploymentOperation getLastDeploymentByService(String serviceId) {
             return getOperationDescriptor().getLastDeploymentByService(serviceId).orElse(null);
         }
@@ -0,0 +1,521 @@
+package io.jenkins.plugins.devopsportal.workers;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.init.Terminator;
+import hudson.model.Computer;
+import hudson.model.Label;
+import hudson.model.Node;
+import hudson.remoting.VirtualChannel;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import io.jenkins.plugins.devopsportal.checks.ServiceCheck;
+import io.jenkins.plugins.devopsportal.models.ServiceConfiguration;
+import io.jenkins.plugins.devopsportal.models.ServiceMonitoring;
+import io.jenkins.plugins.devopsportal.utils.AvailabilityHistory;
+import io.jenkins.plugins.devopsportal.utils.MiscUtils;
+import io.jenkins.plugins.devopsportal.utils.RemoteServiceProbes;
+import io.jenkins.plugins.devopsportal.utils.ServiceProbe;
+import io.jenkins.plugins.devopsportal.utils.ServiceProbeResult;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Deadline-based scheduler of the service probes.
+ *
+ * Services sharing the same endpoint (normalized URL, check, certificate trust and agent label) are probed
+ * once, at the shortest of their intervals, and the result is applied to each of them. Each group has its
+ * own next due time, kept in a delay queue: probes are started as soon as they are due, on a bounded pool
+ * of threads, and the next probe is scheduled once the previous one is completed. A random jitter is applied
+ * to each delay so that the probes of endpoints sharing the same interval are spread over time. The set of
+ * scheduled services is synchronized with the configuration by the {@link MonitoringPeriodicWork}.
+ *
+ * The delay adapts to the state of the service: a first failure is quickly checked again to confirm it, the
+ * delay then grows exponentially while the service stays down, and flapping services are checked at their
+ * normal interval.
+ *
+ * Services bound to an agent label are probed from an online agent matching this label: the probes which are
+ * due at the same time are batched, so that each agent is called once per batch. When several agents match
+ * the label, the batches are spread between them.
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+public final class MonitoringScheduler {
+
+    private static final Logger LOGGER = Logger.getLogger("io.jenkins.plugins.devopsportal");
+
+    // Maximum random variation of each delay, in percent of the interval
+    public static final int JITTER = Math.max(0, Math.min(50, SystemProperties.getInteger(
+            MonitoringScheduler.class.getName() + ".jitter", 10)));
+
+    // Delay before checking again a service which has just failed, in seconds
+    public static final long RECHECK_DELAY = Math.max(1L, SystemProperties.getLong(
+            MonitoringScheduler.class.getName() + ".recheckDelay", 15L));
+
+    // Maximum delay between two probes of a service which stays down, in seconds
+    public static final long MAX_BACKOFF = SystemProperties.getLong(
+            MonitoringScheduler.class.getName() + ".maxBackoff", 1800L);
+
+    // Number of availability changes within 20 intervals from which a service is flapping
+    public static final int FLAP_THRESHOLD = Math.max(2, SystemProperties.getInteger(
+            MonitoringScheduler.class.getName() + ".flapThreshold", 5));
+
+    // Delay during which the due probes of the same agent label are batched, in milliseconds
+    public static final long AGENT_BATCH_DELAY = SystemProperties.getLong(
+            MonitoringScheduler.class.getName() + ".agentBatchDelay", 2000L);
+
+    private static final int FLAP_WINDOW = 20; // intervals
+
+    private static final AtomicLong GENERATIONS = new AtomicLong();
+
+    private static MonitoringScheduler instance;
+
+    private final Map<ProbeKey, Entry> entries = new ConcurrentHashMap<>();
+    private final DelayQueue<Ticket> queue = new DelayQueue<>();
+    private final ThreadPoolExecutor executor;
+    private final Thread dispatcher;
+    private final AtomicLong probeCount = new AtomicLong();
+    private final AtomicLong maxLateness = new AtomicLong();
+    private final Map<String, Map<ProbeKey, Entry>> batches = new HashMap<>(); // by agent label
+    private final AtomicInteger agentRotation = new AtomicInteger();
+
+    private MonitoringScheduler() {
+        executor = new ThreadPoolExecutor(MonitoringPeriodicWork.PARALLELISM, MonitoringPeriodicWork.PARALLELISM,
+                60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new NamingThreadFactory(new DaemonThreadFactory(), "DevOps Portal Monitoring Probe"));
+        executor.allowCoreThreadTimeOut(true);
+        dispatcher = new NamingThreadFactory(new DaemonThreadFactory(), "DevOps Portal Monitoring Scheduler")
+                .newThread(this::dispatch);
+        dispatcher.start();
+    }
+
+    public static synchronized MonitoringScheduler get() {
+        if (instance == null) {
+            instance = new MonitoringScheduler();
+        }
+        return instance;
+    }
+
+    @Terminator
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.dispatcher.interrupt();
+            instance.executor.shutdownNow();
+            instance = null;
+        }
+    }
+
+    /**
+     * Synchronize the scheduled services with the configuration.
+     *
+     * Services are grouped by endpoint. New groups are scheduled according to the last check of their services,
+     * groups whose interval changed are rescheduled, and groups which are no longer monitored are removed.
+     */
+    public void reconcile(@NonNull Collection<ServiceConfiguration> services) {
+        final Map<ProbeKey, List<ServiceConfiguration>> groups = services
+                .stream()
+                .filter(ServiceConfiguration::isMonitoringAvailable)
+                .collect(Collectors.groupingBy(ProbeKey::new, LinkedHashMap::new, Collectors.toList()));
+        entries.keySet().retainAll(groups.keySet());
+        final long now = System.currentTimeMillis();
+        for (Map.Entry<ProbeKey, List<ServiceConfiguration>> group : groups.entrySet()) {
+            final Entry entry = entries.get(group.getKey());
+            if (entry == null) {
+                final Entry created = new Entry(group.getValue());
+                final long interval = created.getInterval() * 1000L;
+                entries.put(group.getKey(), created);
+                final long lastUpdate = group.getValue()
+                        .stream()
+                        .mapToLong(service -> getMonitoringDescriptor()
+                                .getMonitoringByService(service.getId())
+                                .map(record -> record.getLastUpdateTimestamp() * 1000L)
+                                .orElse(0L))
+                        .min()
+                        .orElse(0L);
+                // Services which are already due are spread over the next seconds
+                schedule(group.getKey(), created, Math.max(lastUpdate + interval,
+                        now + ThreadLocalRandom.current().nextLong(Math.min(interval, 30000L) + 1)));
+            }
+            else {
+                synchronized (entry) {
+                    final long previous = entry.getInterval();
+                    entry.services = group.getValue();
+                    final long interval = entry.getInterval() * 1000L;
+                    if (previous * 1000L != interval && !entry.running && entry.due > now + interval) {
+                        schedule(group.getKey(), entry, now + jitter(interval, JITTER));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of probes scheduled, one per endpoint
+     */
+    public int getScheduledCount() {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of probes started since the last call
+     */
+    public long pollProbeCount() {
+        return probeCount.getAndSet(0);
+    }
+
+    /**
+     * @return the maximum delay (ms) between the due time of a probe and its start, since the last call
+     */
+    public long pollMaxLateness() {
+        return maxLateness.getAndSet(0);
+    }
+
+    /**
+     * @return the number of services scheduled
+     */
+    public int getServiceCount() {
+        return entries.values().stream().mapToInt(entry -> entry.services.size()).sum();
+    }
+
+    private void schedule(ProbeKey key, Entry entry, long due) {
+        synchronized (entry) {
+            entry.due = due;
+            entry.generation = GENERATIONS.incrementAndGet();
+            queue.put(new Ticket(key, due, entry.generation));
+        }
+    }
+
+    private void dispatch() {
+        while (!Thread.currentThread().isInterrupted()) {
+            final Ticket ticket;
+            try {
+                ticket = queue.take();
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            final Entry entry = entries.get(ticket.key);
+            if (entry == null) {
+                continue;
+            }
+            synchronized (entry) {
+                // Tickets replaced by a new schedule are ignored
+                if (entry.generation != ticket.generation || entry.running) {
+                    continue;
+                }
+                entry.running = true;
+            }
+            maxLateness.accumulateAndGet(System.currentTimeMillis() - ticket.due, Math::max);
+            probeCount.incrementAndGet();
+            try {
+                final String label = ticket.key.agentLabel;
+                if (label == null) {
+                    executor.execute(() -> run(ticket.key, entry));
+                }
+                else {
+                    enqueue(label, ticket.key, entry);
+                }
+            }
+            catch (RejectedExecutionException ex) {
+                return;
+            }
+        }
+    }
+
+    private void run(ProbeKey key, Entry entry) {
+        try {
+            complete(key, entry, createProbe(entry).run());
+        }
+        catch (RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Unable to probe service: " + entry.getLabel(), ex);
+        }
+        finally {
+            reschedule(key, entry);
+        }
+    }
+
+    private void enqueue(String label, ProbeKey key, Entry entry) {
+        synchronized (batches) {
+            final Map<ProbeKey, Entry> batch = batches.get(label);
+            if (batch != null) {
+                batch.put(key, entry);
+                return;
+            }
+            batches.put(label, new LinkedHashMap<>(Collections.singletonMap(key, entry)));
+        }
+        Timer.get().schedule(() -> {
+            try {
+                executor.execute(() -> runBatch(label));
+            }
+            catch (RejectedExecutionException ignored) {
+                // Scheduler is shut down
+            }
+        }, AGENT_BATCH_DELAY, TimeUnit.MILLISECONDS);
+    }
+
+    private void runBatch(String label) {
+        final List<Map.Entry<ProbeKey, Entry>> batch;
+        synchronized (batches) {
+            final Map<ProbeKey, Entry> pending = batches.remove(label);
+            if (pending == null) {
+                return;
+            }
+            batch = new ArrayList<>(pending.entrySet());
+        }
+        List<ServiceProbeResult> results = null;
+        try {
+            final List<ServiceProbe> probes = batch
+                    .stream()
+                    .map(item -> createProbe(item.getValue()))
+                    .collect(Collectors.toList());
+            final VirtualChannel channel = getAgentChannel(label);
+            if (channel == null) {
+                LOGGER.warning("No online agent matching label '" + label + "': " + batch.size()
+                        + " probe(s) skipped");
+            }
+            else {
+                // Probes of the batch run concurrently on the agent, each one being bounded by the timeouts
+                final long probeTimeout = MonitoringPeriodicWork.CONNECT_TIMEOUT + MonitoringPeriodicWork.READ_TIMEOUT;
+                final long timeout = probeTimeout * ((batch.size() - 1) / MonitoringPeriodicWork.PARALLELISM + 1)
+                        + 30000L;
+                final Future<List<ServiceProbeResult>> future = channel.callAsync(
+                        new RemoteServiceProbes(probes, MonitoringPeriodicWork.PARALLELISM));
+                try {
+                    results = future.get(timeout, TimeUnit.MILLISECONDS);
+                }
+                finally {
+                    future.cancel(true);
+                }
+            }
+        }
+        catch (IOException | ExecutionException | TimeoutException | RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Unable to probe services on agent with label: " + label, ex);
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            final ProbeKey key = batch.get(i).getKey();
+            final Entry entry = batch.get(i).getValue();
+            try {
+                if (results != null) {
+                    complete(key, entry, results.get(i));
+                }
+            }
+            catch (RuntimeException ex) {
+                LOGGER.log(Level.WARNING, "Unable to probe service: " + entry.getLabel(), ex);
+            }
+            finally {
+                reschedule(key, entry);
+            }
+        }
+    }
+
+    /**
+     * @return the channel of an online agent matching the label, the agents being used in turn
+     */
+    private VirtualChannel getAgentChannel(String label) {
+        final Label target = Jenkins.get().getLabel(label);
+        if (target == null) {
+            return null;
+        }
+        final List<VirtualChannel> channels = target.getNodes()
+                .stream()
+                .map(Node::toComputer)
+                .filter(Objects::nonNull)
+                .filter(Computer::isOnline)
+                .sorted(Comparator.comparing(Computer::getName))
+                .map(Computer::getChannel)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        if (channels.isEmpty()) {
+            return null;
+        }
+        return channels.get(Math.floorMod(agentRotation.getAndIncrement(), channels.size()));
+    }
+
+    private ServiceProbe createProbe(Entry entry) {
+        final List<ServiceConfiguration> services = entry.services;
+        final ServiceProbe probe = new ServiceProbe(services.get(0),
+                MonitoringPeriodicWork.CONNECT_TIMEOUT, MonitoringPeriodicWork.READ_TIMEOUT);
+        probe.setCertificateCheck(services
+                .stream()
+                .anyMatch(service -> getMonitoringDescriptor()
+                        .getMonitoringByService(service.getId())
+                        .map(ServiceMonitoring::isCertificateUpdateRequired)
+                        .orElse(true)));
+        probe.setStandaloneCertificateCheck(MonitoringPeriodicWork.STANDALONE_CERTIFICATE_CHECK);
+        return probe;
+    }
+
+    /**
+     * Merge the result of a probe into the monitoring records and the histories of the services of the group.
+     */
+    private void complete(ProbeKey key, Entry entry, ServiceProbeResult result) {
+        // The group may have been removed during the probe
+        if (entries.get(key) != entry) {
+            return;
+        }
+        for (ServiceConfiguration service : entry.services) {
+            final long window = FLAP_WINDOW * service.getMonitoringInterval();
+            getMonitoringDescriptor().update(service.getId(), record -> {
+                result.applyTo(record);
+                if (record.updateFlapping(result.getTimestamp() - window, FLAP_THRESHOLD)) {
+                    LOGGER.info("Service " + service.getLabel()
+                            + (record.isFlapping() ? " is flapping" : " is no longer flapping"));
+                }
+            });
+            AvailabilityHistory.get(service.getId()).record(result.getTimestamp(), result.getStatus(),
+                    result.getTimings() != null ? result.getTimings().getTotal() : -1);
+        }
+    }
+
+    private void reschedule(ProbeKey key, Entry entry) {
+        final ServiceMonitoring record = getMonitoringDescriptor()
+                .getMonitoringByService(entry.services.get(0).getId())
+                .orElse(null);
+        synchronized (entry) {
+            entry.running = false;
+            final long delay = getDelay(entry.getInterval(), record) * 1000L;
+            schedule(key, entry, System.currentTimeMillis() + jitter(delay, JITTER));
+        }
+    }
+
+    /**
+     * Compute the delay before the next probe of a service.
+     *
+     * @param interval configured interval, in seconds
+     * @param record state of the service after the last probe
+     * @return the delay in seconds
+     */
+    static long getDelay(long interval, ServiceMonitoring record) {
+        if (record == null || !record.isFailure() || record.isFlapping()) {
+            return interval;
+        }
+        final int failures = record.getFailureCount();
+        if (failures <= 1) {
+            return Math.min(interval, RECHECK_DELAY);
+        }
+        final long backoff = interval << Math.min(failures - 2, 20);
+        return Math.max(interval, Math.min(backoff, MAX_BACKOFF));
+    }
+
+    /**
+     * @return the delay with a random variation of up to the given percentage
+     */
+    static long jitter(long delay, int percent) {
+        final long amplitude = delay * percent / 100;
+        if (amplitude <= 0) {
+            return delay;
+        }
+        return Math.max(0, delay + ThreadLocalRandom.current().nextLong(-amplitude, amplitude + 1));
+    }
+
+    private static ServiceMonitoring.DescriptorImpl getMonitoringDescriptor() {
+        return Jenkins.get().getDescriptorByType(ServiceMonitoring.DescriptorImpl.class);
+    }
+
+    /**
+     * Identity of an endpoint: services with the same key are probed once.
+     */
+    private static final class ProbeKey {
+
+        private final String url;
+        private final ServiceCheck check;
+        private final boolean acceptInvalidCertificate;
+        private final String agentLabel;
+
+        ProbeKey(ServiceConfiguration service) {
+            this.url = MiscUtils.normalizeURL(service.getUrl());
+            this.check = service.getCheck();
+            this.acceptInvalidCertificate = service.isAcceptInvalidCertificate();
+            this.agentLabel = service.getAgentLabel();
+        }
+
+        @Override
+        public boolean equals(final Object that) {
+            if (this == that) return true;
+            if (that == null || getClass() != that.getClass()) return false;
+            final ProbeKey other = (ProbeKey) that;
+            return new EqualsBuilder()
+                    .append(url, other.url)
+                    .append(check, other.check)
+                    .append(acceptInvalidCertificate, other.acceptInvalidCertificate)
+                    .append(agentLabel, other.agentLabel)
+                    .isEquals();
+        }
+
+        @Override
+        public int hashCode() {
+            return new HashCodeBuilder()
+                    .append(url)
+                    .append(check)
+                    .append(acceptInvalidCertificate)
+                    .append(agentLabel)
+                    .toHashCode();
+        }
+
+    }
+
+    private static final class Entry {
+
+        private volatile List<ServiceConfiguration> services;
+        private long due; // ms
+        private long generation;
+        private boolean running;
+
+        Entry(List<ServiceConfiguration> services) {
+            this.services = services;
+        }
+
+        /**
+         * @return the shortest interval of the services, in seconds
+         */
+        long getInterval() {
+            return services.stream().mapToLong(ServiceConfiguration::getMonitoringInterval).min().orElse(60L);
+        }
+
+        String getLabel() {
+            return services.stream().map(ServiceConfiguration::getLabel).collect(Collectors.joining(", "));
+        }
+
+    }
+
+    private static final class Ticket implements Delayed {
+
+        private final ProbeKey key;
+        private final long due; // ms
+        private final long generation;
+
+        Ticket(ProbeKey key, long due, long generation) {
+            this.key = key;
+            this.due = due;
+            this.generation = generation;
+        }
+
+        @Override
+        public long getDelay(@NonNull TimeUnit unit) {
+            return unit.convert(due - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(@NonNull Delayed other) {
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+        }
+
+    }
+
+}
@@ -0,0 +1,149 @@
+package io.jenkins.plugins.devopsportal.workers;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.init.Terminator;
+import hudson.model.PeriodicWork;
+import hudson.model.Saveable;
+import jenkins.util.SystemProperties;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Write-behind persister of the plugin stores.
+ *
+ * Stores are marked dirty on each change, and are saved by this task once no change occurred during the
+ * flush interval, or when they have been waiting for longer than the maximum delay. Pending stores are
+ * also flushed on controller shutdown.
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+@Extension
+public class PersistencePeriodicWork extends PeriodicWork {
+
+    private static final Logger LOGGER = Logger.getLogger("io.jenkins.plugins.devopsportal");
+
+    public static final long MIN_FLUSH_INTERVAL = 100L;
+
+    // Also the recurrence period of the task, which must be positive
+    public static final long FLUSH_INTERVAL = Math.max(MIN_FLUSH_INTERVAL, SystemProperties.getLong(
+            PersistencePeriodicWork.class.getName() + ".flushInterval", 5000L));
+
+    public static final long MAX_DELAY = Math.max(FLUSH_INTERVAL, SystemProperties.getLong(
+            PersistencePeriodicWork.class.getName() + ".maxDelay", 30000L));
+
+    private static final Map<Saveable, DirtyState> DIRTY = new ConcurrentHashMap<>();
+
+    private static final AtomicLong FLUSH_COUNT = new AtomicLong();
+    private static final AtomicLong FLUSH_FAILURE_COUNT = new AtomicLong();
+    private static final AtomicLong FLUSH_TIME = new AtomicLong();
+    private static final AtomicLong LAST_FLUSH_TIME = new AtomicLong();
+
+    @Override
+    public long getRecurrencePeriod() {
+        return FLUSH_INTERVAL;
+    }
+
+    @Override
+    protected void doRun() {
+        final long now = System.currentTimeMillis();
+        for (Map.Entry<Saveable, DirtyState> entry : DIRTY.entrySet()) {
+            final DirtyState state = entry.getValue();
+            if (now - state.lastChange >= FLUSH_INTERVAL || now - state.firstChange >= MAX_DELAY) {
+                flush(entry.getKey(), state);
+            }
+        }
+    }
+
+    /**
+     * Schedule the persistence of a store.
+     */
+    public static void markDirty(@NonNull Saveable saveable) {
+        final long now = System.currentTimeMillis();
+        DIRTY.compute(saveable, (key, state) -> {
+            if (state == null) {
+                return new DirtyState(now);
+            }
+            state.lastChange = now;
+            return state;
+        });
+    }
+
+    /**
+     * Immediately save all the pending stores.
+     */
+    public static void flush() {
+        for (Map.Entry<Saveable, DirtyState> entry : DIRTY.entrySet()) {
+            flush(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Terminator
+    public static void flushOnShutdown() {
+        LOGGER.log(Level.FINE, "Flushing {0} pending DevOps Portal store(s)", DIRTY.size());
+        flush();
+    }
+
+    private static void flush(Saveable saveable, DirtyState state) {
+        // Changes made during the save will mark the store dirty again
+        if (!DIRTY.remove(saveable, state)) {
+            return;
+        }
+        final long start = System.nanoTime();
+        try {
+            saveable.save();
+            FLUSH_COUNT.incrementAndGet();
+        }
+        catch (IOException | RuntimeException ex) {
+            FLUSH_FAILURE_COUNT.incrementAndGet();
+            LOGGER.log(Level.WARNING, "Unable to save store: " + saveable, ex);
+            markDirty(saveable);
+        }
+        finally {
+            final long duration = (System.nanoTime() - start) / 1000000L;
+            FLUSH_TIME.addAndGet(duration);
+            LAST_FLUSH_TIME.set(duration);
+        }
+    }
+
+    public static int getPendingCount() {
+        return DIRTY.size();
+    }
+
+    public static long getFlushCount() {
+        return FLUSH_COUNT.get();
+    }
+
+    public static long getFlushFailureCount() {
+        return FLUSH_FAILURE_COUNT.get();
+    }
+
+    /**
+     * Total time spent saving stores, in milliseconds.
+     */
+    public static long getFlushTimeMillis() {
+        return FLUSH_TIME.get();
+    }
+
+    public static long getLastFlushTimeMillis() {
+        return LAST_FLUSH_TIME.get();
+    }
+
+    private static final class DirtyState {
+
+        private final long firstChange;
+        private volatile long lastChange;
+
+        DirtyState(long now) {
+            this.firstChange = now;
+            this.lastChange = now;
+        }
+
+    }
+
+}
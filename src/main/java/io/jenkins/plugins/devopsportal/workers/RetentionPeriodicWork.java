@@ -0,0 +1,107 @@
+package io.jenkins.plugins.devopsportal.workers;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.TaskListener;
+import io.jenkins.plugins.devopsportal.models.ApplicationBuildStatus;
+import io.jenkins.plugins.devopsportal.models.DeploymentOperation;
+import io.jenkins.plugins.devopsportal.models.ServiceConfiguration;
+import io.jenkins.plugins.devopsportal.models.ServiceMonitoring;
+import io.jenkins.plugins.devopsportal.utils.AvailabilityHistory;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Scheduled task that enforces the retention policy, moving evicted records to the archive.
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+@Extension
+public class RetentionPeriodicWork extends AsyncPeriodicWork {
+
+    private static final Logger LOGGER = Logger.getLogger("io.jenkins.plugins.devopsportal");
+
+    // A value of zero disables the corresponding rule
+    public static final int MAX_VERSIONS_PER_APPLICATION = SystemProperties.getInteger(
+            RetentionPeriodicWork.class.getName() + ".maxVersionsPerApplication", 0);
+
+    public static final int DEPLOYMENT_MAX_AGE_DAYS = SystemProperties.getInteger(
+            RetentionPeriodicWork.class.getName() + ".deploymentMaxAgeDays", 0);
+
+    public static final int MAX_DEPLOYMENTS_PER_SERVICE = SystemProperties.getInteger(
+            RetentionPeriodicWork.class.getName() + ".maxDeploymentsPerService", 0);
+
+    public static final boolean ARCHIVE_REMOVED_SERVICES = SystemProperties.getBoolean(
+            RetentionPeriodicWork.class.getName() + ".archiveRemovedServices", false);
+
+    public RetentionPeriodicWork() {
+        super("DevOps Portal Retention Worker Thread");
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return HOUR;
+    }
+
+    public ApplicationBuildStatus.DescriptorImpl getBuildStatusDescriptor() {
+        return Jenkins.get().getDescriptorByType(ApplicationBuildStatus.DescriptorImpl.class);
+    }
+
+    public DeploymentOperation.DescriptorImpl getDeploymentDescriptor() {
+        return Jenkins.get().getDescriptorByType(DeploymentOperation.DescriptorImpl.class);
+    }
+
+    public ServiceConfiguration.DescriptorImpl getServicesDescriptor() {
+        return Jenkins.get().getDescriptorByType(ServiceConfiguration.DescriptorImpl.class);
+    }
+
+    public ServiceMonitoring.DescriptorImpl getMonitoringDescriptor() {
+        return Jenkins.get().getDescriptorByType(ServiceMonitoring.DescriptorImpl.class);
+    }
+
+    @Override
+    protected void execute(@NonNull TaskListener listener) throws IOException, InterruptedException {
+        final Jenkins jenkins = Jenkins.getInstanceOrNull();
+        if (jenkins == null) {
+            LOGGER.severe("Unable to run RetentionPeriodicWork: Jenkins instance is null");
+            return;
+        }
+
+        // Build statuses
+        int count = getBuildStatusDescriptor().applyRetention(MAX_VERSIONS_PER_APPLICATION);
+        listener.getLogger().println("Archived application versions: " + count);
+
+        // Deployments
+        count = getDeploymentDescriptor().applyRetention(
+                DEPLOYMENT_MAX_AGE_DAYS * 86400L,
+                MAX_DEPLOYMENTS_PER_SERVICE
+        );
+        listener.getLogger().println("Archived deployments: " + count);
+
+        // Monitoring of services that have been removed
+        if (!ARCHIVE_REMOVED_SERVICES) {
+            return;
+        }
+        final Set<String> serviceIds = getServicesDescriptor()
+                .getServiceConfigurations()
+                .stream()
+                .map(ServiceConfiguration::getId)
+                .collect(Collectors.toSet());
+        if (serviceIds.isEmpty()) {
+            // Probably a configuration which failed to load: nothing is archived
+            listener.getLogger().println("No service configured, monitoring states are kept");
+            return;
+        }
+        count = getMonitoringDescriptor().retainServices(serviceIds);
+        listener.getLogger().println("Archived monitoring states: " + count);
+        count = AvailabilityHistory.retainServices(serviceIds);
+        listener.getLogger().println("Archived availability histories: " + count);
+    }
+
+}
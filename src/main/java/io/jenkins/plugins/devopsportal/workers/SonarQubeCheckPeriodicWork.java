@@ -2,32 +2,72 @@ package io.jenkins.plugins.devopsportal.workers;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
+import hudson.XmlFile;
 import hudson.model.AsyncPeriodicWork;
 import hudson.model.TaskListener;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import hudson.util.Secret;
+import io.jenkins.plugins.devopsportal.models.AbstractActivity;
 import io.jenkins.plugins.devopsportal.models.ActivityCategory;
 import io.jenkins.plugins.devopsportal.models.ApplicationBuildStatus;
 import io.jenkins.plugins.devopsportal.models.QualityAuditActivity;
+import io.jenkins.plugins.devopsportal.models.QualityIssue;
+import io.jenkins.plugins.devopsportal.models.SecurityHotspot;
 import io.jenkins.plugins.devopsportal.utils.SonarApiClient;
+import io.jenkins.plugins.devopsportal.utils.SonarApiException;
+import io.jenkins.plugins.devopsportal.workers.SonarQubeWorkQueue.WorkItem;
 import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 import static io.jenkins.plugins.devopsportal.utils.MiscUtils.checkNotEmpty;
 
 /**
  * Scheduled task that monitor a SonarQube server.
  *
+ * Pending items are processed in parallel, with at most {@link #MAX_ITEMS_PER_HOST} items at the same time
+ * for each SonarQube server. Items are fetched as soon as the SonarQube webhook notifies that the analysis was
+ * processed; otherwise the status of the compute engine task is polled, so that the data of the previous
+ * analysis is not fetched. Items of a server whose circuit is open are deferred until it can be called again.
+ *
  * @author Rémi BELLO {@literal <remi@evolya.fr>}
  */
 @Extension
 public class SonarQubeCheckPeriodicWork extends AsyncPeriodicWork {
 
     private static final Logger LOGGER = Logger.getLogger("io.jenkins.plugins.devopsportal");
-    private static final int MAX_FAILURE = 3;
-    private static final List<WorkItem> ACTIONS = new ArrayList<>();
+
+    public static final int PARALLELISM = Math.max(1, SystemProperties.getInteger(
+            SonarQubeCheckPeriodicWork.class.getName() + ".parallelism", 8));
+
+    public static final int MAX_ITEMS_PER_HOST = Math.max(1, SystemProperties.getInteger(
+            SonarQubeCheckPeriodicWork.class.getName() + ".maxItemsPerHost", 2));
+
+    public static final long ANALYSIS_POLL_INTERVAL = SystemProperties.getLong(
+            SonarQubeCheckPeriodicWork.class.getName() + ".analysisPollInterval", 10L);
+
+    public static final long MAX_ANALYSIS_WAIT = SystemProperties.getLong(
+            SonarQubeCheckPeriodicWork.class.getName() + ".maxAnalysisWait", 3600L);
+
+    // Work items being processed, and API calls made on behalf of them
+    private static final ExecutorService ITEM_EXECUTOR = createExecutor(
+            PARALLELISM, "DevOps Portal SonarQube Worker");
+    private static final ExecutorService CALL_EXECUTOR = createExecutor(
+            PARALLELISM * 2, "DevOps Portal SonarQube Call");
+
+    // Server (scheme://host:port) -> items being processed
+    private static final Map<String, Semaphore> HOST_PERMITS = new ConcurrentHashMap<>();
+
+    private static SonarQubeWorkQueue queue;
+
+    private boolean reconciled = false;
 
     public SonarQubeCheckPeriodicWork() {
         super("SonarQube Worker Thread");
@@ -42,149 +82,300 @@ public class SonarQubeCheckPeriodicWork extends AsyncPeriodicWork {
         return Jenkins.get().getDescriptorByType(ApplicationBuildStatus.DescriptorImpl.class);
     }
 
+    private static ExecutorService createExecutor(int threads, String name) {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new NamingThreadFactory(new DaemonThreadFactory(), name));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Get the work queue, loaded from the Jenkins home on first use.
+     */
+    public static synchronized SonarQubeWorkQueue getQueue() {
+        if (queue == null) {
+            final XmlFile file = SonarQubeWorkQueue.getQueueFile();
+            try {
+                queue = SonarQubeWorkQueue.load(file);
+            }
+            catch (IOException | RuntimeException ex) {
+                LOGGER.log(Level.WARNING, "Unable to load SonarQube work queue: " + file, ex);
+                queue = SonarQubeWorkQueue.create(file);
+            }
+        }
+        return queue;
+    }
+
     @Override
     protected void execute(@NonNull TaskListener listener) throws IOException, InterruptedException {
         final Jenkins jenkins = Jenkins.getInstanceOrNull();
         if (jenkins == null) {
-            LOGGER.severe("Unable to run MonitoringPeriodicWork: Jenkins instance is null");
+            LOGGER.severe("Unable to run SonarQubeCheckPeriodicWork: Jenkins instance is null");
             return;
         }
         if (getBuildStatusDescriptor() == null) {
-            LOGGER.severe("Unable to run MonitoringPeriodicWork: unable to get ApplicationBuildStatus descriptor");
+            LOGGER.severe("Unable to run SonarQubeCheckPeriodicWork: unable to get ApplicationBuildStatus descriptor");
             return;
         }
-        List<WorkItem> actions;
-        synchronized (ACTIONS) {
-            actions = new ArrayList<>(ACTIONS);
+        final SonarQubeWorkQueue queue = getQueue();
+        if (!reconciled) {
+            reconcile(queue);
+            reconciled = true;
         }
-        for (WorkItem item : actions) {
-            if (item.activity.isComplete()) {
-                // In case of parallel treatments
-                continue;
+        // Items are grouped by server, each server being given at most MAX_ITEMS_PER_HOST workers
+        final Map<String, Queue<WorkItem>> hosts = new LinkedHashMap<>();
+        for (WorkItem item : queue.lease(System.currentTimeMillis())) {
+            hosts.computeIfAbsent(SonarApiClient.getHost(item.getSonarUrl()), key -> new ConcurrentLinkedQueue<>())
+                    .add(item);
+        }
+        final List<Future<?>> futures = new ArrayList<>();
+        for (Map.Entry<String, Queue<WorkItem>> entry : hosts.entrySet()) {
+            final Semaphore permits = getPermits(entry.getKey());
+            final int workers = Math.min(MAX_ITEMS_PER_HOST, entry.getValue().size());
+            for (int i = 0; i < workers; i++) {
+                futures.add(ITEM_EXECUTOR.submit(() -> process(queue, entry.getValue(), permits)));
             }
-            boolean completed = false;
+        }
+        for (Future<?> future : futures) {
             try {
-                completed = execute(item);
+                future.get();
             }
-            catch (Exception ex) {
-                LOGGER.severe(
-                        "Unable to complete SonarQube async task: job='" + item.jobName + "' build='" + item.buildNumber
-                        + "' project='" + item.applicationName + ":" + item.applicationVersion + "/" + item.projectKey + "' => "
-                        + ex.getClass().getSimpleName() + " : " + ex.getMessage()
-                );
-                item.failure++;
-                if (item.failure >= MAX_FAILURE) {
-                    item.activity.setComplete(true);
-                    LOGGER.info("Canceled SonarQube async task: job='" + item.jobName + "' build='" + item.buildNumber
-                            + "' project='" + item.applicationName + ":" + item.applicationVersion + "/" + item.projectKey + "'");
-                    synchronized (ACTIONS) {
-                        ACTIONS.remove(item.close());
-                    }
-                }
+            catch (ExecutionException ex) {
+                LOGGER.log(Level.WARNING, "Unable to process SonarQube async tasks", ex.getCause());
+            }
+        }
+    }
+
+    private static Semaphore getPermits(@NonNull String host) {
+        return HOST_PERMITS.computeIfAbsent(host, key -> new Semaphore(MAX_ITEMS_PER_HOST));
+    }
+
+    /**
+     * Process right away the items of a SonarQube project whose analysis was processed, as notified by the
+     * SonarQube webhook.
+     *
+     * @param taskId the compute engine task of the analysis, if known
+     * @return the number of items to process
+     */
+    public int notifyAnalysis(@NonNull String projectKey, String taskId) {
+        final SonarQubeWorkQueue queue = getQueue();
+        final List<WorkItem> items = queue.setAnalysisReady(projectKey, taskId);
+        for (WorkItem item : items) {
+            submit(queue, item);
+        }
+        return items.size();
+    }
+
+    private void submit(@NonNull SonarQubeWorkQueue queue, @NonNull WorkItem item) {
+        // Items being processed by the periodic run are not leased twice
+        if (queue.lease(item, System.currentTimeMillis())) {
+            final Queue<WorkItem> items = new ConcurrentLinkedQueue<>(Collections.singleton(item));
+            ITEM_EXECUTOR.submit(() -> process(queue, items, getPermits(SonarApiClient.getHost(item.getSonarUrl()))));
+        }
+    }
+
+    private void process(@NonNull SonarQubeWorkQueue queue, @NonNull Queue<WorkItem> items,
+                         @NonNull Semaphore permits) {
+        WorkItem item;
+        while ((item = items.poll()) != null) {
+            try {
+                permits.acquire();
+            }
+            catch (InterruptedException ex) {
+                // Remaining items will be leased again once their lease expires
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                process(queue, item);
             }
-            if (completed) {
-                item.activity.setComplete(true);
-                LOGGER.info("Completed SonarQube async task: job='" + item.jobName + "' build='" + item.buildNumber
-                        + "' project='" + item.applicationName + ":" + item.applicationVersion + "/" + item.projectKey + "'");
-                synchronized (ACTIONS) {
-                    ACTIONS.remove(item.close());
+            finally {
+                permits.release();
+            }
+        }
+    }
+
+    private void process(@NonNull SonarQubeWorkQueue queue, @NonNull WorkItem item) {
+        if (!getActivity(item).isPresent()) {
+            // The build status was removed in the meantime
+            queue.ack(item);
+            return;
+        }
+        final SonarApiClient wsClient = new SonarApiClient(item.getSonarUrl(),
+                item.getSonarToken().getPlainText(), item.isAcceptInvalidCertificate());
+        final AuditData data;
+        try {
+            // Without webhook notification, wait for the compute engine to process the analysis
+            if (!item.isAnalysisReady()
+                    && System.currentTimeMillis() - item.getCreated() < MAX_ANALYSIS_WAIT * 1000L
+                    && wsClient.isAnalysisPending(item.getProjectKey(), item.getCeTaskId())) {
+                queue.defer(item, System.currentTimeMillis(), ANALYSIS_POLL_INTERVAL);
+                Timer.get().schedule(() -> submit(queue, item), ANALYSIS_POLL_INTERVAL, TimeUnit.SECONDS);
+                return;
+            }
+            data = fetch(item, wsClient);
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        catch (Exception ex) {
+            final Throwable cause = ex instanceof ExecutionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof SonarApiException && ((SonarApiException) cause).isCircuitOpen()) {
+                // The server is failing: wait for it without counting an attempt
+                final long now = System.currentTimeMillis();
+                final long delay = Math.max(1L, (((SonarApiException) cause).getRetryAt() - now + 999L) / 1000L);
+                LOGGER.fine("Deferred SonarQube async task: " + item + " => " + cause.getMessage());
+                queue.defer(item, now, delay);
+                return;
+            }
+            LOGGER.severe("Unable to complete SonarQube async task: " + item + " attempt=" + (item.getAttempts() + 1)
+                    + " => " + cause.getClass().getSimpleName() + " : " + cause.getMessage());
+            if (!queue.retry(item, System.currentTimeMillis())) {
+                LOGGER.info("Canceled SonarQube async task: " + item);
+                complete(queue, item, null, "Unable to fetch SonarQube data after " + item.getAttempts()
+                        + " attempts: " + cause.getClass().getSimpleName() + " : " + cause.getMessage());
+            }
+            return;
+        }
+        if (complete(queue, item, data, null)) {
+            LOGGER.info("Completed SonarQube async task: " + item);
+        }
+    }
+
+    /**
+     * Flag the audits which are still waiting for SonarQube data but have no pending item, as they were
+     * pushed before the queue was persisted: they would be displayed as updating forever.
+     */
+    private void reconcile(@NonNull SonarQubeWorkQueue queue) {
+        for (ApplicationBuildStatus status : getBuildStatusDescriptor().getBuildStatus()) {
+            final List<AbstractActivity> activities = status.getActivitiesByCategory(ActivityCategory.QUALITY_AUDIT);
+            if (activities == null) {
+                continue;
+            }
+            for (AbstractActivity activity : activities) {
+                if (activity instanceof QualityAuditActivity && ((QualityAuditActivity) activity).isPending()
+                        && !queue.contains(status.getApplicationName(), status.getApplicationVersion(),
+                        activity.getApplicationComponent())) {
+                    ((QualityAuditActivity) activity).setFailed("No pending SonarQube task, the audit was interrupted");
+                    status.setComponentActivityByCategory(ActivityCategory.QUALITY_AUDIT,
+                            activity.getApplicationComponent(), activity);
                 }
-                getBuildStatusDescriptor().getBuildStatusByApplication(
-                        item.applicationName,
-                        item.applicationVersion
-                ).ifPresent(status -> {
-                    status.setComponentActivityByCategory(
-                            ActivityCategory.QUALITY_AUDIT,
-                            item.applicationComponent,
-                            item.activity
-                    );
-                });
             }
         }
     }
 
-    private boolean execute(@NonNull WorkItem item) {
-        final Jenkins jenkins = Jenkins.getInstanceOrNull();
-        if (jenkins == null) {
-            return false;
+    private Optional<QualityAuditActivity> getActivity(@NonNull WorkItem item) {
+        return getBuildStatusDescriptor()
+                .getBuildStatusByApplication(item.getApplicationName(), item.getApplicationVersion())
+                .flatMap(status -> status.getComponentActivityByCategory(
+                        ActivityCategory.QUALITY_AUDIT, item.getApplicationComponent()))
+                .filter(QualityAuditActivity.class::isInstance)
+                .map(QualityAuditActivity.class::cast);
+    }
+
+    /**
+     * Complete an audit with the fetched data, or flag it as failed with the given error if there is no data.
+     * The audit is updated at once under the lock of its build status, unless a newer item was queued for it
+     * in the meantime.
+     *
+     * @return true if the audit was updated
+     */
+    private boolean complete(@NonNull SonarQubeWorkQueue queue, @NonNull WorkItem item, AuditData data,
+                             String error) {
+        final boolean[] updated = { false };
+        final boolean present = getBuildStatusDescriptor().updateIfPresent(
+                item.getApplicationName(),
+                item.getApplicationVersion(),
+                status -> {
+                    // Reporters queue new items under the same lock
+                    final boolean current = data != null ? queue.ack(item) : !queue.contains(
+                            item.getApplicationName(), item.getApplicationVersion(), item.getApplicationComponent());
+                    final QualityAuditActivity activity = status
+                            .getComponentActivityByCategory(ActivityCategory.QUALITY_AUDIT, item.getApplicationComponent())
+                            .filter(QualityAuditActivity.class::isInstance)
+                            .map(QualityAuditActivity.class::cast)
+                            .orElse(null);
+                    if (!current || activity == null) {
+                        return;
+                    }
+                    if (data != null) {
+                        activity.setMetrics(data.metrics);
+                        activity.setQualityIssues(data.issues, data.hotspots);
+                        activity.setComplete(true);
+                    }
+                    else {
+                        // The data of the previous analysis, if any, is kept
+                        activity.setFailed(error != null ? error : "Unable to fetch SonarQube data");
+                    }
+                    status.setComponentActivityByCategory(
+                            ActivityCategory.QUALITY_AUDIT, item.getApplicationComponent(), activity);
+                    updated[0] = true;
+                }
+        );
+        if (!present) {
+            queue.ack(item);
         }
+        return updated[0];
+    }
+
+    /**
+     * Fetch the data of an audit: the three API calls are made at the same time.
+     */
+    private AuditData fetch(@NonNull WorkItem item, @NonNull SonarApiClient wsClient)
+            throws IOException, InterruptedException, ExecutionException {
         // METRICS
-        item.activity.setMetrics(item.wsClient.getMetrics(item.projectKey));
+        final Future<List<Map<String, Object>>> metrics = CALL_EXECUTOR.submit(
+                () -> wsClient.getMetrics(item.getProjectKey()));
         // ISSUES
-        item.activity.setIssues(item.wsClient.getIssues(item.projectKey));
-        // HOTSPOTS
-        item.activity.setHotSpots(item.wsClient.getHotspots(item.projectKey));
-        return true;
+        final Future<List<QualityIssue>> issues = CALL_EXECUTOR.submit(
+                () -> wsClient.getIssues(item.getProjectKey()));
+        try {
+            // HOTSPOTS
+            final List<SecurityHotspot> hotspots = wsClient.getHotspots(item.getProjectKey());
+            return new AuditData(metrics.get(), issues.get(), hotspots);
+        }
+        finally {
+            metrics.cancel(true);
+            issues.cancel(true);
+        }
     }
 
     public static void push(@NonNull String jobName, @NonNull String buildNumber, @NonNull String projectKey,
-                            @NonNull QualityAuditActivity activity, @NonNull String sonarUrl,
-                            @NonNull String sonarToken, @NonNull String applicationName,
+                            @NonNull String sonarUrl, @NonNull String sonarToken, @NonNull String applicationName,
                             @NonNull String applicationVersion, @NonNull String applicationComponent,
-                            boolean acceptInvalidCertificate) {
+                            boolean acceptInvalidCertificate, String ceTaskId) throws IOException {
 
         // Check arguments
         checkNotEmpty(jobName, buildNumber, projectKey, sonarUrl, sonarToken, applicationName,
                 applicationVersion, applicationComponent);
 
+        // Older item for the same applicationName/applicationVersion/applicationComponent is replaced
+        final WorkItem item = new WorkItem(
+                jobName, buildNumber, projectKey, sonarUrl, Secret.fromString(sonarToken),
+                applicationName, applicationVersion, applicationComponent, acceptInvalidCertificate,
+                ceTaskId, System.currentTimeMillis()
+        );
+        final WorkItem replaced = getQueue().enqueue(item);
+        if (replaced != null) {
+            LOGGER.info("Replaced SonarQube async task: " + replaced);
+        }
+        LOGGER.info("New SonarQube async task: " + item + " task=" + ceTaskId + " unsafe=" + acceptInvalidCertificate);
+    }
 
+    /**
+     * Data of an audit, fetched before the activity is updated.
+     */
+    private static final class AuditData {
 
-        synchronized (ACTIONS) {
-
-            // Remove older actions for same applicationName/applicationVersion/applicationComponent
-            List<WorkItem> existing = ACTIONS.stream()
-                    .filter(item -> item.applicationName.equals(applicationName))
-                    .filter(item -> item.applicationVersion.equals(applicationVersion))
-                    .filter(item -> item.applicationComponent.equals(applicationComponent))
-                    .collect(Collectors.toList());
-            if (!existing.isEmpty()) {
-                for (WorkItem item : existing) {
-                    item.activity.setComplete(true);
-                    ACTIONS.remove(item);
-                }
-            }
+        private final List<Map<String, Object>> metrics;
+        private final List<QualityIssue> issues;
+        private final List<SecurityHotspot> hotspots;
 
-            // Push new action to do
-            ACTIONS.add(new WorkItem(
-                    jobName, buildNumber, projectKey, activity, sonarUrl,
-                    sonarToken, applicationName, applicationVersion, applicationComponent,
-                    acceptInvalidCertificate
-            ));
-            LOGGER.info("New SonarQube async task: job='" + jobName + "' build='" + buildNumber + "' project='"
-                    + applicationName + ":" + applicationVersion + "/" + applicationComponent
-                    + "' unsafe=" + acceptInvalidCertificate);
-
-        }
-    }
-
-    static class WorkItem {
-
-        private final String jobName;
-        private final String buildNumber;
-        private final String projectKey;
-        private final QualityAuditActivity activity;
-        private final SonarApiClient wsClient;
-        private final String applicationName;
-        private final String applicationVersion;
-        private final String applicationComponent;
-        public int failure = 0;
-
-        public WorkItem(@NonNull String jobName, @NonNull String buildNumber, @NonNull String projectKey,
-                        @NonNull QualityAuditActivity activity, @NonNull String sonarUrl, @NonNull String sonarToken,
-                        @NonNull String applicationName, @NonNull String applicationVersion,
-                        @NonNull String applicationComponent, boolean acceptInvalidCertificate) {
-            this.jobName = jobName;
-            this.buildNumber = buildNumber;
-            this.projectKey = projectKey;
-            this.activity = activity;
-            this.applicationName = applicationName;
-            this.applicationVersion = applicationVersion;
-            this.applicationComponent = applicationComponent;
-            this.wsClient = new SonarApiClient(sonarUrl, sonarToken, acceptInvalidCertificate);
-        }
-
-        public WorkItem close() {
-            return this;
+        AuditData(List<Map<String, Object>> metrics, List<QualityIssue> issues, List<SecurityHotspot> hotspots) {
+            this.metrics = metrics;
+            this.issues = issues;
+            this.hotspots = hotspots;
         }
 
     }
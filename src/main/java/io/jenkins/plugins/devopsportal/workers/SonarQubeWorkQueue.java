@@ -0,0 +1,339 @@
+package io.jenkins.plugins.devopsportal.workers;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.XmlFile;
+import hudson.model.Saveable;
+import hudson.util.Secret;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent queue of the SonarQube fetches, saved in the Jenkins home so that pending audits survive a restart.
+ *
+ * Items are keyed by application name, version and component: a new item replaces the pending one of the same
+ * component. Due items are leased to the worker, which then either acknowledges them or asks for a retry, delayed
+ * with an exponential backoff, or defers them while the SonarQube analysis is not processed yet. Leases are
+ * not persisted, so items leased before a restart are processed again.
+ *
+ * @author Rémi BELLO {@literal <remi@evolya.fr>}
+ */
+public final class SonarQubeWorkQueue implements Saveable {
+
+    public static final long RETRY_DELAY = SystemProperties.getLong(
+            SonarQubeWorkQueue.class.getName() + ".retryDelay", 60L);
+
+    public static final long MAX_RETRY_DELAY = SystemProperties.getLong(
+            SonarQubeWorkQueue.class.getName() + ".maxRetryDelay", 3600L);
+
+    public static final int MAX_ATTEMPTS = SystemProperties.getInteger(
+            SonarQubeWorkQueue.class.getName() + ".maxAttempts", 10);
+
+    public static final long LEASE_TIMEOUT = SystemProperties.getLong(
+            SonarQubeWorkQueue.class.getName() + ".leaseTimeout", 600L);
+
+    // Application name/version/component -> pending item, in insertion order
+    private Map<String, WorkItem> items = new LinkedHashMap<>();
+
+    private transient XmlFile file;
+
+    private SonarQubeWorkQueue(@NonNull XmlFile file) {
+        this.file = file;
+    }
+
+    /**
+     * Create an empty queue, saved in the given file.
+     */
+    public static SonarQubeWorkQueue create(@NonNull XmlFile file) {
+        return new SonarQubeWorkQueue(file);
+    }
+
+    /**
+     * Load the queue from its file, or create an empty one.
+     */
+    public static SonarQubeWorkQueue load(@NonNull XmlFile file) throws IOException {
+        if (!file.exists()) {
+            return create(file);
+        }
+        final SonarQubeWorkQueue queue = (SonarQubeWorkQueue) file.read();
+        queue.file = file;
+        if (queue.items == null) {
+            queue.items = new LinkedHashMap<>();
+        }
+        return queue;
+    }
+
+    public static XmlFile getQueueFile() {
+        return new XmlFile(Jenkins.XSTREAM2, new File(Jenkins.get().getRootDir(), "devops-portal/sonar-queue.xml"));
+    }
+
+    /**
+     * Add an item to the queue, replacing the pending item of the same application component. The queue is saved
+     * right away, so that the audit is not lost if Jenkins stops before the next flush.
+     *
+     * @return the replaced item, or null
+     * @throws IOException if the queue could not be saved: the item is queued anyway, and saved with the next flush
+     */
+    public WorkItem enqueue(@NonNull WorkItem item) throws IOException {
+        final WorkItem replaced;
+        synchronized (this) {
+            replaced = items.remove(item.getKey());
+            items.put(item.getKey(), item);
+        }
+        try {
+            save();
+        }
+        catch (IOException ex) {
+            PersistencePeriodicWork.markDirty(this);
+            throw ex;
+        }
+        return replaced;
+    }
+
+    /**
+     * Get the items which are due, and lease them until they are acknowledged, retried, or the lease expires.
+     */
+    public synchronized List<WorkItem> lease(long now) {
+        final List<WorkItem> leased = new ArrayList<>();
+        for (WorkItem item : items.values()) {
+            if (item.nextAttempt <= now && item.leaseExpiry <= now) {
+                item.leaseExpiry = now + LEASE_TIMEOUT * 1000L;
+                leased.add(item);
+            }
+        }
+        return leased;
+    }
+
+    /**
+     * Lease a given item, if it is still queued and not leased yet.
+     */
+    public synchronized boolean lease(@NonNull WorkItem item, long now) {
+        if (items.get(item.getKey()) != item || item.leaseExpiry > now) {
+            return false;
+        }
+        item.leaseExpiry = now + LEASE_TIMEOUT * 1000L;
+        return true;
+    }
+
+    /**
+     * Get the items of a SonarQube project which are waiting for an analysis, and mark them as ready to be
+     * fetched. Items bound to another analysis task are ignored.
+     *
+     * @param taskId the compute engine task of the analysis, if known
+     */
+    public List<WorkItem> setAnalysisReady(@NonNull String projectKey, String taskId) {
+        final List<WorkItem> ready = new ArrayList<>();
+        synchronized (this) {
+            for (WorkItem item : items.values()) {
+                if (!item.analysisReady && projectKey.equals(item.projectKey)
+                        && (taskId == null || item.ceTaskId == null || taskId.equals(item.ceTaskId))) {
+                    item.analysisReady = true;
+                    item.nextAttempt = 0;
+                    ready.add(item);
+                }
+            }
+        }
+        if (!ready.isEmpty()) {
+            PersistencePeriodicWork.markDirty(this);
+        }
+        return ready;
+    }
+
+    /**
+     * Release an item which is not ready yet, to be processed again after a delay. It is not counted as a failure.
+     */
+    public void defer(@NonNull WorkItem item, long now, long delay) {
+        synchronized (this) {
+            if (items.get(item.getKey()) != item) {
+                return;
+            }
+            item.leaseExpiry = 0;
+            item.nextAttempt = now + delay * 1000L;
+        }
+        PersistencePeriodicWork.markDirty(this);
+    }
+
+    /**
+     * Remove a processed item. Nothing is done if the item was replaced in the meantime.
+     *
+     * @return true if the item was removed
+     */
+    public boolean ack(@NonNull WorkItem item) {
+        final boolean removed;
+        synchronized (this) {
+            removed = items.remove(item.getKey(), item);
+        }
+        if (removed) {
+            PersistencePeriodicWork.markDirty(this);
+        }
+        return removed;
+    }
+
+    /**
+     * Release a failed item, to be processed again after a delay doubling with each attempt.
+     *
+     * @return false if the item reached the maximum number of attempts and was removed
+     */
+    public boolean retry(@NonNull WorkItem item, long now) {
+        final boolean retried;
+        synchronized (this) {
+            if (items.get(item.getKey()) != item) {
+                return true;
+            }
+            item.attempts++;
+            item.leaseExpiry = 0;
+            retried = item.attempts < MAX_ATTEMPTS;
+            if (retried) {
+                item.nextAttempt = now + getRetryDelay(item.attempts) * 1000L;
+            }
+            else {
+                items.remove(item.getKey());
+            }
+        }
+        PersistencePeriodicWork.markDirty(this);
+        return retried;
+    }
+
+    /**
+     * @return the delay (seconds) before the next attempt, after the given number of failed attempts
+     */
+    public static long getRetryDelay(int attempts) {
+        final int shift = Math.min(Math.max(attempts - 1, 0), 30);
+        return Math.min(RETRY_DELAY << shift, Math.max(RETRY_DELAY, MAX_RETRY_DELAY));
+    }
+
+    public synchronized boolean contains(@NonNull String applicationName, @NonNull String applicationVersion,
+                                         @NonNull String applicationComponent) {
+        return items.containsKey(getKey(applicationName, applicationVersion, applicationComponent));
+    }
+
+    public synchronized int size() {
+        return items.size();
+    }
+
+    @Override
+    public synchronized void save() throws IOException {
+        file.write(this);
+    }
+
+    static String getKey(@NonNull String applicationName, @NonNull String applicationVersion,
+                         @NonNull String applicationComponent) {
+        return applicationName.trim() + "/" + applicationVersion.trim() + "/" + applicationComponent.trim();
+    }
+
+    public static final class WorkItem {
+
+        private final String jobName;
+        private final String buildNumber;
+        private final String projectKey;
+        private final String sonarUrl;
+        private final Secret sonarToken;
+        private final String applicationName;
+        private final String applicationVersion;
+        private final String applicationComponent;
+        private final boolean acceptInvalidCertificate;
+        private final String ceTaskId;
+        private final long created; // milliseconds
+        private boolean analysisReady;
+        private int attempts;
+        private long nextAttempt; // milliseconds
+        private transient long leaseExpiry; // milliseconds
+
+        public WorkItem(@NonNull String jobName, @NonNull String buildNumber, @NonNull String projectKey,
+                        @NonNull String sonarUrl, @NonNull Secret sonarToken, @NonNull String applicationName,
+                        @NonNull String applicationVersion, @NonNull String applicationComponent,
+                        boolean acceptInvalidCertificate, String ceTaskId, long created) {
+            this.jobName = jobName;
+            this.buildNumber = buildNumber;
+            this.projectKey = projectKey;
+            this.sonarUrl = sonarUrl;
+            this.sonarToken = sonarToken;
+            this.applicationName = applicationName;
+            this.applicationVersion = applicationVersion;
+            this.applicationComponent = applicationComponent;
+            this.acceptInvalidCertificate = acceptInvalidCertificate;
+            this.ceTaskId = ceTaskId;
+            this.created = created;
+        }
+
+        public String getKey() {
+            return SonarQubeWorkQueue.getKey(applicationName, applicationVersion, applicationComponent);
+        }
+
+        public String getJobName() {
+            return jobName;
+        }
+
+        public String getBuildNumber() {
+            return buildNumber;
+        }
+
+        public String getProjectKey() {
+            return projectKey;
+        }
+
+        public String getSonarUrl() {
+            return sonarUrl;
+        }
+
+        public Secret getSonarToken() {
+            return sonarToken;
+        }
+
+        public String getApplicationName() {
+            return applicationName;
+        }
+
+        public String getApplicationVersion() {
+            return applicationVersion;
+        }
+
+        public String getApplicationComponent() {
+            return applicationComponent;
+        }
+
+        public boolean isAcceptInvalidCertificate() {
+            return acceptInvalidCertificate;
+        }
+
+        /**
+         * @return the compute engine task of the SonarQube analysis, or null if unknown
+         */
+        public String getCeTaskId() {
+            return ceTaskId;
+        }
+
+        public long getCreated() {
+            return created;
+        }
+
+        /**
+         * @return true once SonarQube notified that the analysis was processed
+         */
+        public boolean isAnalysisReady() {
+            return analysisReady;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+
+        public long getNextAttempt() {
+            return nextAttempt;
+        }
+
+        @Override
+        public String toString() {
+            return "job='" + jobName + "' build='" + buildNumber + "' project='" + applicationName + ":"
+                    + applicationVersion + "/" + applicationComponent + "/" + projectKey + "'";
+        }
+
+    }
+
+}
@@ -0,0 +1,86 @@
+package io.jenkins.plugins.devopsportal.api;
+
+import hudson.util.Secret;
+import io.jenkins.plugins.devopsportal.workers.SonarQubeCheckPeriodicWork;
+import io.jenkins.plugins.devopsportal.workers.SonarQubeWorkQueue.WorkItem;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SonarWebhookApiTest {
+
+    private static final byte[] PAYLOAD = "{\"project\":{\"key\":\"my-project\"}}".getBytes(StandardCharsets.UTF_8);
+    private static final String SIGNATURE = "1250db84ca82f85bb609634f5c5843dbbfacfb8d1a3c60d819f55bed67b98731";
+
+    @Rule
+    public JenkinsRule jenkins = new JenkinsRule();
+
+    @Test
+    public void testSignature() {
+        assertTrue(SonarWebhookApi.isSignatureValid(PAYLOAD, SIGNATURE, "my-secret"));
+        assertTrue(SonarWebhookApi.isSignatureValid(PAYLOAD, SIGNATURE.toUpperCase(), "my-secret"));
+        assertFalse(SonarWebhookApi.isSignatureValid(PAYLOAD, SIGNATURE, "other-secret"));
+        assertFalse(SonarWebhookApi.isSignatureValid(PAYLOAD, null, "my-secret"));
+        assertFalse(SonarWebhookApi.isSignatureValid("{}".getBytes(StandardCharsets.UTF_8), SIGNATURE, "my-secret"));
+    }
+
+    private static String sign(byte[] payload, String secret) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        StringBuilder signature = new StringBuilder();
+        for (byte b : mac.doFinal(payload)) {
+            signature.append(String.format("%02x", b));
+        }
+        return signature.toString();
+    }
+
+    private void pushItem() throws IOException {
+        SonarQubeCheckPeriodicWork.push("My pipeline", "1", "my-project", "https://sonar.mydomain.com",
+                "my-token", "My Application", "1.0.3", "backend", false, null);
+    }
+
+    private boolean isItemReady() {
+        List<WorkItem> items = SonarQubeCheckPeriodicWork.getQueue().lease(System.currentTimeMillis());
+        assertEquals(1, items.size());
+        return items.get(0).isAnalysisReady();
+    }
+
+    @Test
+    public void testNoSecretConfigured() throws Exception {
+        pushItem();
+        // Webhooks are rejected until a secret is configured, even if they are signed
+        assertEquals(403, new SonarWebhookApi().process(PAYLOAD, SIGNATURE));
+        assertEquals(403, new SonarWebhookApi().process(PAYLOAD, null));
+        assertFalse(isItemReady());
+    }
+
+    @Test
+    public void testInvalidSignature() throws Exception {
+        SonarWebhookConfiguration.get().setSecret(Secret.fromString("other-secret"));
+        pushItem();
+        assertEquals(403, new SonarWebhookApi().process(PAYLOAD, SIGNATURE));
+        assertFalse(isItemReady());
+    }
+
+    @Test
+    public void testFailedAnalysis() throws Exception {
+        SonarWebhookConfiguration.get().setSecret(Secret.fromString("my-secret"));
+        pushItem();
+        // Items are left to the polling: the data of the previous analysis would be fetched
+        for (String status : new String[] { "FAILED", "CANCELED" }) {
+            byte[] payload = ("{\"taskId\":\"task-1\",\"status\":\"" + status + "\",\"project\":{\"key\":\"my-project\"}}")
+                    .getBytes(StandardCharsets.UTF_8);
+            assertEquals(200, new SonarWebhookApi().process(payload, sign(payload, "my-secret")));
+        }
+        assertFalse(isItemReady());
+    }
+
+}
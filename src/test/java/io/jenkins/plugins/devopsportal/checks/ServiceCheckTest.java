@@ -0,0 +1,150 @@
+package io.jenkins.plugins.devopsportal.checks;
+
+import com.sun.net.httpserver.HttpServer;
+import io.jenkins.plugins.devopsportal.models.MonitoringStatus;
+import io.jenkins.plugins.devopsportal.utils.ServiceProbe;
+import io.jenkins.plugins.devopsportal.utils.ServiceProbeResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ServiceCheckTest {
+
+    private HttpServer server;
+    private final AtomicInteger largeBytesSent = new AtomicInteger();
+
+    @Before
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/health", exchange -> {
+            final byte[] body = "{\"status\":\"UP\",\"checks\":[{\"name\":\"db\",\"state\":\"DOWN\"}]}"
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders("HEAD".equals(exchange.getRequestMethod()) ? 204 : 200,
+                    "HEAD".equals(exchange.getRequestMethod()) ? -1 : body.length);
+            if (!"HEAD".equals(exchange.getRequestMethod())) {
+                exchange.getResponseBody().write(body);
+            }
+            exchange.close();
+        });
+        server.createContext("/large", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                final byte[] chunk = new byte[8192];
+                Arrays.fill(chunk, (byte) 'a');
+                for (int i = 0; i < 1024; i++) {
+                    out.write(chunk);
+                    largeBytesSent.addAndGet(chunk.length);
+                }
+            }
+            catch (Exception ignored) {
+                // Connection closed by the client
+            }
+            exchange.close();
+        });
+        server.createContext("/missing", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    private String getUrl(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+
+    private ServiceProbeResult run(String url, ServiceCheck check) {
+        return new ServiceProbe(url, check, false, 1000, 1000).run();
+    }
+
+    @Test
+    public void testStatusRange() {
+        assertEquals(MonitoringStatus.FAILURE, run(getUrl("/missing"), new HttpGetCheck(200, 299)).getStatus());
+        assertEquals(MonitoringStatus.SUCCESS, run(getUrl("/missing"), new HttpGetCheck(200, 404)).getStatus());
+        assertEquals("HTTP Status: 404", run(getUrl("/missing"), new HttpHeadCheck(200, 399)).getMessage());
+    }
+
+    @Test
+    public void testHead() {
+        ServiceProbeResult result = run(getUrl("/health"), new HttpHeadCheck(200, 299));
+        assertEquals(MonitoringStatus.SUCCESS, result.getStatus());
+        assertNotNull(result.getTimings());
+        assertEquals(MonitoringStatus.FAILURE, run(getUrl("/health"), new HttpHeadCheck(200, 200)).getStatus());
+    }
+
+    @Test
+    public void testBodyAssertions() {
+        HttpGetCheck check = new HttpGetCheck(200, 299);
+        check.setExpectedContent("\"UP\"");
+        assertEquals(MonitoringStatus.SUCCESS, run(getUrl("/health"), check).getStatus());
+        check.setExpectedContent("\"DOWN\"");
+        check.setJsonPointer("/status");
+        check.setExpectedValue("UP");
+        assertEquals(MonitoringStatus.SUCCESS, run(getUrl("/health"), check).getStatus());
+        check.setJsonPointer("/checks/0/state");
+        ServiceProbeResult result = run(getUrl("/health"), check);
+        assertEquals(MonitoringStatus.FAILURE, result.getStatus());
+        assertEquals("Unexpected JSON value at /checks/0/state: DOWN", result.getMessage());
+        check.setJsonPointer("/unknown");
+        check.setExpectedValue(null);
+        assertEquals(MonitoringStatus.FAILURE, run(getUrl("/health"), check).getStatus());
+        check.setJsonPointer(null);
+        check.setExpectedContent("STARTING");
+        assertEquals("Response does not contain: STARTING", run(getUrl("/health"), check).getMessage());
+    }
+
+    @Test
+    public void testBoundedBody() throws Exception {
+        HttpGetCheck check = new HttpGetCheck(200, 299);
+        check.setMaxBodySize(1024);
+        check.setExpectedContent("aaaa");
+        assertEquals(MonitoringStatus.SUCCESS, run(getUrl("/large"), check).getStatus());
+        Thread.sleep(200);
+        // The 8 MB body is not downloaded
+        assertTrue(largeBytesSent.get() < 8 * 1024 * 1024);
+    }
+
+    @Test
+    public void testTcpConnect() throws Exception {
+        ServiceProbeResult result = run("tcp://localhost:" + server.getAddress().getPort(), new TcpConnectCheck());
+        assertEquals(MonitoringStatus.SUCCESS, result.getStatus());
+        assertNotNull(result.getTimings());
+        assertEquals(MonitoringStatus.SUCCESS, run(getUrl("/missing"), new TcpConnectCheck()).getStatus());
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        assertEquals(MonitoringStatus.FAILURE, run("tcp://localhost:" + closedPort, new TcpConnectCheck()).getStatus());
+        assertEquals(MonitoringStatus.INVALID_CONFIGURATION, run("tcp://localhost", new TcpConnectCheck()).getStatus());
+    }
+
+    @Test
+    public void testMultiStep() {
+        MultiStepCheck check = new MultiStepCheck(Arrays.asList(
+                new ServiceCheckStep("tcp://localhost:" + server.getAddress().getPort(), new TcpConnectCheck()),
+                new ServiceCheckStep("", new HttpHeadCheck(200, 299)),
+                new ServiceCheckStep("/missing", new HttpGetCheck(200, 299))));
+        ServiceProbeResult result = run(getUrl("/health"), check);
+        assertEquals(MonitoringStatus.FAILURE, result.getStatus());
+        assertEquals("Step 3: HTTP Status: 404", result.getMessage());
+        assertEquals(check, new MultiStepCheck(check.getSteps()));
+        assertEquals(MonitoringStatus.SUCCESS, run(getUrl("/health"),
+                new MultiStepCheck(check.getSteps().subList(0, 2))).getStatus());
+    }
+
+}
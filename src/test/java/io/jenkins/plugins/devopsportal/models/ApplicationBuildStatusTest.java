@@ -1,11 +1,25 @@
 package io.jenkins.plugins.devopsportal.models;
 
 import hudson.model.Descriptor;
+import io.jenkins.plugins.devopsportal.utils.DetailStorage;
+import io.jenkins.plugins.devopsportal.workers.PersistencePeriodicWork;
 import org.junit.Rule;
 import org.junit.Test;
 import org.jvnet.hudson.test.JenkinsRule;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.*;
@@ -79,4 +93,310 @@ public class ApplicationBuildStatusTest {
         descriptorImpl.update("My New Job", 20, status -> fail());
     }
 
+    @Test
+    public void testDescriptorIndexes() {
+        ApplicationBuildStatus.DescriptorImpl descriptorImpl = jenkins.getInstance()
+                .getDescriptorByType(ApplicationBuildStatus.DescriptorImpl.class);
+        descriptorImpl.update("Indexed Application", "1.0.0", status -> {
+            status.setBuildJob("Indexed Job");
+            status.setBuildNumber("1");
+        });
+        descriptorImpl.update("Indexed Application", "1.1.0", status -> {
+            status.setBuildJob("Indexed Job");
+            status.setBuildNumber("2");
+        });
+        assertTrue(descriptorImpl.isApplicationExists("Indexed Application"));
+        assertTrue(descriptorImpl.isApplicationExists(" Indexed Application "));
+        assertTrue(descriptorImpl.getBuildStatusByApplication(" Indexed Application ", " 1.0.0 ").isPresent());
+        assertEquals(2, descriptorImpl.getBuildStatusByApplication("Indexed Application").size());
+        assertTrue(descriptorImpl.getApplicationNames().contains("Indexed Application"));
+
+        // Moving a record to another run must update the run index
+        descriptorImpl.update("Indexed Application", "1.0.0", status -> status.setBuildNumber("3"));
+        descriptorImpl.update("Indexed Job", 1, status -> fail());
+        AtomicReference<String> version = new AtomicReference<>();
+        descriptorImpl.update("Indexed Job", 3, status -> version.set(status.getApplicationVersion()));
+        assertEquals("1.0.0", version.get());
+
+        // Indexes are rebuilt from the persisted records
+        PersistencePeriodicWork.flush();
+        descriptorImpl.load();
+        assertEquals(2, descriptorImpl.getBuildStatusByApplication("Indexed Application").size());
+        version.set(null);
+        descriptorImpl.update("Indexed Job", 2, status -> version.set(status.getApplicationVersion()));
+        assertEquals("1.1.0", version.get());
+
+        assertTrue(descriptorImpl.deleteBuildStatusByApplicationVersion("Indexed Application", "1.0.0"));
+        assertTrue(descriptorImpl.deleteBuildStatusByApplicationVersion("Indexed Application", "1.1.0"));
+        assertFalse(descriptorImpl.isApplicationExists("Indexed Application"));
+        descriptorImpl.update("Indexed Job", 2, status -> fail());
+    }
+
+    @Test
+    public void testConcurrentUpdates() throws Exception {
+        ApplicationBuildStatus.DescriptorImpl descriptorImpl = jenkins.getInstance()
+                .getDescriptorByType(ApplicationBuildStatus.DescriptorImpl.class);
+        final int applications = 4;
+        final int threads = 16;
+        final int iterations = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                final String applicationName = "Concurrent Application " + (i % applications);
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < iterations; j++) {
+                        descriptorImpl.update(applicationName, "1.0.0", status -> {
+                            int count = status.getBuildNumber() == null ? 0 : Integer.parseInt(status.getBuildNumber());
+                            status.setBuildJob("Concurrent Job");
+                            status.setBuildNumber(String.valueOf(count + 1));
+                        });
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        for (int i = 0; i < applications; i++) {
+            String applicationName = "Concurrent Application " + i;
+            assertEquals(1, descriptorImpl.getBuildStatusByApplication(applicationName).size());
+            ApplicationBuildStatus status = descriptorImpl.getBuildStatusByApplication(applicationName, "1.0.0")
+                    .orElseThrow(AssertionError::new);
+            // No update lost
+            assertEquals(String.valueOf(threads / applications * iterations), status.getBuildNumber());
+        }
+        AtomicInteger count = new AtomicInteger();
+        descriptorImpl.update("Concurrent Job", threads / applications * iterations, status -> count.incrementAndGet());
+        assertEquals(applications, count.get());
+    }
+
+    @Test
+    public void testUpdatesOfDifferentApplicationsDoNotBlock() throws Exception {
+        ApplicationBuildStatus.DescriptorImpl descriptorImpl = jenkins.getInstance()
+                .getDescriptorByType(ApplicationBuildStatus.DescriptorImpl.class);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> slow = executor.submit(() -> descriptorImpl.update("Slow Application", "1.0.0", status -> {
+                entered.countDown();
+                try {
+                    release.await(60, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(entered.await(30, TimeUnit.SECONDS));
+            // Another application must not wait for the slow update
+            Future<?> fast = executor.submit(() -> descriptorImpl.update("Fast Application", "1.0.0",
+                    status -> status.setBuildJob("Fast Job")));
+            fast.get(10, TimeUnit.SECONDS);
+            assertTrue(descriptorImpl.getBuildStatusByApplication("Fast Application", "1.0.0").isPresent());
+            release.countDown();
+            slow.get(30, TimeUnit.SECONDS);
+        }
+        finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testWriteBehindPersistence() {
+        ApplicationBuildStatus.DescriptorImpl descriptorImpl = jenkins.getInstance()
+                .getDescriptorByType(ApplicationBuildStatus.DescriptorImpl.class);
+        PersistencePeriodicWork.flush();
+        long flushCount = PersistencePeriodicWork.getFlushCount();
+        for (int i = 0; i < 20; i++) {
+            descriptorImpl.update("Persisted Application", "1.0." + i, status -> status.setBuildJob("Persisted Job"));
+        }
+        // Changes are coalesced into a single pending save
+        assertEquals(1, PersistencePeriodicWork.getPendingCount());
+        assertEquals(flushCount, PersistencePeriodicWork.getFlushCount());
+        PersistencePeriodicWork.flush();
+        assertEquals(0, PersistencePeriodicWork.getPendingCount());
+        assertEquals(flushCount + 1, PersistencePeriodicWork.getFlushCount());
+        descriptorImpl.load();
+        assertEquals(20, descriptorImpl.getBuildStatusByApplication("Persisted Application").size());
+    }
+
+    @Test
+    public void testShardedStorage() throws Exception {
+        ApplicationBuildStatus.DescriptorImpl descriptorImpl = jenkins.getInstance()
+                .getDescriptorByType(ApplicationBuildStatus.DescriptorImpl.class);
+        descriptorImpl.update("Sharded Application A", "1.0.0", status -> status.setBuildJob("Job A"));
+        descriptorImpl.update("Sharded Application B", "1.0.0", status -> status.setBuildJob("Job B"));
+        PersistencePeriodicWork.flush();
+        assertTrue(ApplicationBuildStatus.ApplicationShard.getShardFile("Sharded Application A").exists());
+        assertTrue(ApplicationBuildStatus.ApplicationShard.getShardFile("Sharded Application B").exists());
+
+        // Only the shard of the updated application is rewritten
+        descriptorImpl.update("Sharded Application A", "1.1.0", status -> status.setBuildJob("Job A"));
+        assertEquals(1, PersistencePeriodicWork.getPendingCount());
+        PersistencePeriodicWork.flush();
+
+        descriptorImpl.load();
+        assertEquals(2, descriptorImpl.getBuildStatusByApplication("Sharded Application A").size());
+        assertEquals(1, descriptorImpl.getBuildStatusByApplication("Sharded Application B").size());
+
+        // Removing the last version removes the shard file
+        assertTrue(descriptorImpl.deleteBuildStatusByApplicationVersion("Sharded Application B", "1.0.0"));
+        PersistencePeriodicWork.flush();
+        assertFalse(ApplicationBuildStatus.ApplicationShard.getShardFile("Sharded Application B").exists());
+
+        // Deleting from an unknown application does not create its shard
+        assertFalse(descriptorImpl.deleteBuildStatusByApplicationVersion("Unknown Application", "1.0.0"));
+        assertEquals(0, PersistencePeriodicWork.getPendingCount());
+        assertFalse(descriptorImpl.isApplicationExists("Unknown Application"));
+    }
+
+    @Test
+    public void testLegacyStorageMigration() throws Exception {
+        ApplicationBuildStatus.DescriptorImpl descriptorImpl = jenkins.getInstance()
+                .getDescriptorByType(ApplicationBuildStatus.DescriptorImpl.class);
+        File legacyFile = new File(jenkins.getInstance().getRootDir(), descriptorImpl.getId() + ".xml");
+        Files.write(legacyFile.toPath(), ("<?xml version='1.1' encoding='UTF-8'?>\n"
+                + "<io.jenkins.plugins.devopsportal.models.ApplicationBuildStatus_-DescriptorImpl>\n"
+                + "  <buildStatus>\n"
+                + "    <io.jenkins.plugins.devopsportal.models.ApplicationBuildStatus>\n"
+                + "      <applicationName>Legacy Application</applicationName>\n"
+                + "      <applicationVersion>0.9.0</applicationVersion>\n"
+                + "      <buildJob>Legacy Job</buildJob>\n"
+                + "      <buildNumber>7</buildNumber>\n"
+                + "      <buildTimestamp>0</buildTimestamp>\n"
+                + "      <activities/>\n"
+                + "    </io.jenkins.plugins.devopsportal.models.ApplicationBuildStatus>\n"
+                + "  </buildStatus>\n"
+                + "</io.jenkins.plugins.devopsportal.models.ApplicationBuildStatus_-DescriptorImpl>\n")
+                .getBytes(StandardCharsets.UTF_8));
+        descriptorImpl.load();
+        assertTrue(descriptorImpl.getBuildStatusByApplication("Legacy Application", "0.9.0").isPresent());
+        assertTrue(ApplicationBuildStatus.ApplicationShard.getShardFile("Legacy Application").exists());
+        assertFalse(new String(Files.readAllBytes(legacyFile.toPath()), StandardCharsets.UTF_8).contains("Legacy Application"));
+
+        // Migrated records are loaded from the shards afterwards
+        descriptorImpl.load();
+        ApplicationBuildStatus status = descriptorImpl.getBuildStatusByApplication("Legacy Application", "0.9.0")
+                .orElseThrow(AssertionError::new);
+        assertEquals(0, status.getActivitiesByCategory(ActivityCategory.BUILD).size());
+        AtomicInteger count = new AtomicInteger();
+        descriptorImpl.update("Legacy Job", 7, record -> count.incrementAndGet());
+        assertEquals(1, count.get());
+    }
+
+    @Test
+    public void testRetention() throws Exception {
+        ApplicationBuildStatus.DescriptorImpl descriptorImpl = jenkins.getInstance()
+                .getDescriptorByType(ApplicationBuildStatus.DescriptorImpl.class);
+        for (int i = 1; i <= 3; i++) {
+            final long timestamp = i * 1000L;
+            descriptorImpl.update("Retained Application", "1.0." + i, status -> status.setBuildJob("Retained Job"));
+            descriptorImpl.getBuildStatusByApplication("Retained Application", "1.0." + i)
+                    .orElseThrow(AssertionError::new)
+                    .setBuildTimestamp(timestamp);
+        }
+        assertEquals(0, descriptorImpl.applyRetention(0));
+        assertEquals(1, descriptorImpl.applyRetention(2));
+        assertEquals(2, descriptorImpl.getBuildStatusByApplication("Retained Application").size());
+        assertFalse(descriptorImpl.getBuildStatusByApplication("Retained Application", "1.0.1").isPresent());
+
+        // Evicted versions are still available from the archive
+        ApplicationBuildStatus archived = descriptorImpl.getArchivedBuildStatus("Retained Application", "1.0.1")
+                .orElseThrow(AssertionError::new);
+        assertEquals("Retained Job", archived.getBuildJob());
+        assertFalse(descriptorImpl.getArchivedBuildStatus("Retained Application", "1.0.3").isPresent());
+    }
+
+    @Test
+    public void testDetailStorage() throws Exception {
+        ApplicationBuildStatus.DescriptorImpl descriptorImpl = jenkins.getInstance()
+                .getDescriptorByType(ApplicationBuildStatus.DescriptorImpl.class);
+        VulnerabilityAnalysisResult vulnerabilities = new VulnerabilityAnalysisResult();
+        vulnerabilities.add("jquery-3.4.1.jar")
+                .add(new DependencyVulnerability("CVE-2020-11022", "MEDIUM", Arrays.asList("network", "integrity")));
+        vulnerabilities.add("jackson-databind-2.13.1.jar")
+                .add(new DependencyVulnerability("CVE-2022-42003", "HIGH", Arrays.asList("network", "availability")));
+        descriptorImpl.update("Detailed Application", "1.0.0", status -> {
+            DependenciesAnalysisActivity activity = new DependenciesAnalysisActivity("backend");
+            activity.setVulnerabilities(vulnerabilities);
+            status.setComponentActivityByCategory(ActivityCategory.DEPENDENCIES_ANALYSIS, "backend", activity);
+        });
+        PersistencePeriodicWork.flush();
+
+        // Details are not stored with the build status
+        String xml = ApplicationBuildStatus.ApplicationShard.getShardFile("Detailed Application").asString();
+        assertFalse(xml.contains("CVE-2020-11022"));
+        File[] details = DetailStorage.getStorageDirectory().listFiles();
+        assertNotNull(details);
+        assertEquals(1, details.length);
+
+        // Summary is resident, details are loaded on demand
+        descriptorImpl.load();
+        DependenciesAnalysisActivity activity = (DependenciesAnalysisActivity) descriptorImpl
+                .getBuildStatusByApplication("Detailed Application", "1.0.0")
+                .orElseThrow(AssertionError::new)
+                .getActivitiesByCategory(ActivityCategory.DEPENDENCIES_ANALYSIS)
+                .get(0);
+        assertEquals(2, activity.getVulnerableDependenciesCount());
+        assertEquals(2, activity.getVulnerabilitiesCount());
+        assertEquals("HIGH", activity.getWorstSeverity());
+        assertTrue(activity.hasIssues());
+        assertEquals(1, activity.getVulnerabilities().getVulnerabilitiesByDependency("jquery-3.4.1.jar").size());
+
+        // Replaced details are deleted once the build status is saved
+        descriptorImpl.update("Detailed Application", "1.0.0", status -> {
+            DependenciesAnalysisActivity updated = (DependenciesAnalysisActivity) status
+                    .getActivitiesByCategory(ActivityCategory.DEPENDENCIES_ANALYSIS).get(0);
+            updated.setVulnerabilities(vulnerabilities);
+        });
+        assertEquals(2, DetailStorage.getStorageDirectory().listFiles().length);
+        PersistencePeriodicWork.flush();
+        assertEquals(1, DetailStorage.getStorageDirectory().listFiles().length);
+
+        // Details are removed with the build status
+        assertTrue(descriptorImpl.deleteBuildStatusByApplicationVersion("Detailed Application", "1.0.0"));
+        assertEquals(1, DetailStorage.getStorageDirectory().listFiles().length);
+        PersistencePeriodicWork.flush();
+        assertEquals(0, DetailStorage.getStorageDirectory().listFiles().length);
+    }
+
+    @Test
+    public void testRetentionDetails() throws Exception {
+        ApplicationBuildStatus.DescriptorImpl descriptorImpl = jenkins.getInstance()
+                .getDescriptorByType(ApplicationBuildStatus.DescriptorImpl.class);
+        VulnerabilityAnalysisResult vulnerabilities = new VulnerabilityAnalysisResult();
+        vulnerabilities.add("jquery-3.4.1.jar")
+                .add(new DependencyVulnerability("CVE-2020-11022", "MEDIUM", Arrays.asList("network", "integrity")));
+        for (int i = 1; i <= 2; i++) {
+            final long timestamp = i * 1000L;
+            descriptorImpl.update("Archived Application", "1.0." + i, status -> {
+                DependenciesAnalysisActivity activity = new DependenciesAnalysisActivity("backend");
+                activity.setVulnerabilities(vulnerabilities);
+                status.setComponentActivityByCategory(ActivityCategory.DEPENDENCIES_ANALYSIS, "backend", activity);
+            });
+            descriptorImpl.getBuildStatusByApplication("Archived Application", "1.0." + i)
+                    .orElseThrow(AssertionError::new)
+                    .setBuildTimestamp(timestamp);
+        }
+        PersistencePeriodicWork.flush();
+        assertEquals(2, DetailStorage.getStorageDirectory().listFiles().length);
+
+        // Details of evicted versions are archived with them, and deleted from the detail storage
+        assertEquals(1, descriptorImpl.applyRetention(1));
+        PersistencePeriodicWork.flush();
+        assertEquals(1, DetailStorage.getStorageDirectory().listFiles().length);
+        DependenciesAnalysisActivity archived = (DependenciesAnalysisActivity) descriptorImpl
+                .getArchivedBuildStatus("Archived Application", "1.0.1")
+                .orElseThrow(AssertionError::new)
+                .getActivitiesByCategory(ActivityCategory.DEPENDENCIES_ANALYSIS)
+                .get(0);
+        assertEquals(1, archived.getVulnerabilitiesCount());
+        assertEquals(1, archived.getVulnerabilities().getVulnerabilitiesByDependency("jquery-3.4.1.jar").size());
+    }
+
 }
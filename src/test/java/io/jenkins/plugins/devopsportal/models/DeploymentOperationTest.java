@@ -0,0 +1,152 @@
+package io.jenkins.plugins.devopsportal.models;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+import static org.junit.Assert.*;
+
+public class DeploymentOperationTest {
+
+    @Rule
+    public JenkinsRule jenkins = new JenkinsRule();
+
+    public DeploymentOperation.DescriptorImpl getDescriptor() {
+        return jenkins.getInstance().getDescriptorByType(DeploymentOperation.DescriptorImpl.class);
+    }
+
+    private void appendDeployment(String serviceId, String applicationVersion, String buildNumber) {
+        getDescriptor().append(record -> {
+            record.setServiceId(serviceId);
+            record.setApplicationName("My Application");
+            record.setApplicationVersion(applicationVersion);
+            record.setBuildJob("My Job");
+            record.setBuildNumber(buildNumber);
+            record.setTimestamp(Instant.now().getEpochSecond());
+            record.setTags("first line\nsecond line");
+        });
+    }
+
+    @Test
+    public void testJournalReplay() throws Exception {
+        appendDeployment("service-1", "1.0.0", "1");
+        appendDeployment("service-1", "1.0.1", "2");
+        appendDeployment("service-2", "1.0.1", "3");
+
+        File journal = DeploymentOperation.DescriptorImpl.getJournalFile();
+        assertTrue(journal.exists());
+        assertEquals(3, Files.readAllLines(journal.toPath(), StandardCharsets.UTF_8).size());
+
+        // Deployments are restored from the journal
+        getDescriptor().load();
+        assertEquals(3, getDescriptor().getRunOperations().size());
+        assertEquals(2, getDescriptor().getDeploymentsByService("service-1").size());
+        DeploymentOperation operation = getDescriptor().getDeploymentByRun("service-2", "My Job", "3")
+                .orElseThrow(AssertionError::new);
+        assertEquals("first line\nsecond line", operation.getTags());
+    }
+
+    @Test
+    public void testJournalTornEntry() throws Exception {
+        appendDeployment("service-1", "1.0.0", "1");
+        appendDeployment("service-1", "1.0.1", "2");
+        // Entry left incomplete by a crash
+        File journal = DeploymentOperation.DescriptorImpl.getJournalFile();
+        Files.write(journal.toPath(), "3 <io.jenkins.plugins.devopsportal.models.DeploymentOperation><serviceId>ser"
+                .getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        getDescriptor().load();
+        assertEquals(2, getDescriptor().getRunOperations().size());
+
+        // The next entry is written on its own line, and both are replayed
+        appendDeployment("service-2", "1.0.2", "3");
+        assertEquals(4, Files.readAllLines(journal.toPath(), StandardCharsets.UTF_8).size());
+        getDescriptor().load();
+        assertEquals(3, getDescriptor().getRunOperations().size());
+        assertTrue(getDescriptor().getDeploymentByRun("service-2", "My Job", "3").isPresent());
+    }
+
+    @Test
+    public void testFailedSnapshot() throws Exception {
+        appendDeployment("service-1", "1.0.0", "1");
+        appendDeployment("service-1", "1.0.1", "2");
+        // The snapshot cannot replace a non-empty directory
+        File snapshot = new File(jenkins.getInstance().getRootDir(), getDescriptor().getId() + ".xml");
+        assertTrue(new File(snapshot, "lock").mkdirs());
+        assertThrows(IOException.class, () -> getDescriptor().saveSnapshot());
+        File journal = DeploymentOperation.DescriptorImpl.getJournalFile();
+        assertEquals(2, Files.readAllLines(journal.toPath(), StandardCharsets.UTF_8).size());
+
+        // The journal is still replayed once the snapshot can be written
+        assertTrue(new File(snapshot, "lock").delete() && snapshot.delete());
+        appendDeployment("service-2", "1.0.2", "3");
+        getDescriptor().load();
+        assertEquals(3, getDescriptor().getRunOperations().size());
+        getDescriptor().saveSnapshot();
+        assertFalse(journal.exists());
+        getDescriptor().load();
+        assertEquals(3, getDescriptor().getRunOperations().size());
+    }
+
+    @Test
+    public void testJournalCompaction() throws Exception {
+        appendDeployment("service-1", "1.0.0", "1");
+        appendDeployment("service-1", "1.0.1", "2");
+        getDescriptor().save();
+        assertFalse(DeploymentOperation.DescriptorImpl.getJournalFile().exists());
+
+        appendDeployment("service-1", "1.0.2", "3");
+        getDescriptor().load();
+        assertEquals(3, getDescriptor().getRunOperations().size());
+
+        // Deletion rewrites the snapshot, the deleted record must not be replayed
+        assertTrue(getDescriptor().deleteDeploymentByRun("service-1", "My Job", "3"));
+        assertFalse(DeploymentOperation.DescriptorImpl.getJournalFile().exists());
+        getDescriptor().load();
+        assertEquals(2, getDescriptor().getRunOperations().size());
+        assertFalse(getDescriptor().getDeploymentByRun("service-1", "My Job", "3").isPresent());
+    }
+
+    @Test
+    public void testRetention() throws Exception {
+        final long now = Instant.now().getEpochSecond();
+        for (int i = 0; i < 4; i++) {
+            final long timestamp = now - i * 86400L;
+            final String buildNumber = String.valueOf(i);
+            getDescriptor().append(record -> {
+                record.setServiceId("service-1");
+                record.setApplicationName("My Application");
+                record.setApplicationVersion("1.0." + buildNumber);
+                record.setBuildJob("My Job");
+                record.setBuildNumber(buildNumber);
+                record.setTimestamp(timestamp);
+            });
+        }
+        getDescriptor().append(record -> {
+            record.setServiceId("service-2");
+            record.setApplicationName("My Application");
+            record.setApplicationVersion("0.1.0");
+            record.setBuildJob("My Job");
+            record.setBuildNumber("10");
+            record.setTimestamp(now - 30 * 86400L);
+        });
+
+        // Keep 3 deployments per service, and none older than 2 days except the last one of each service
+        assertEquals(1, getDescriptor().applyRetention(0, 3));
+        assertEquals(1, getDescriptor().applyRetention(2 * 86400L - 60, 0));
+        assertEquals(2, getDescriptor().getDeploymentsByService("service-1").size());
+        assertEquals(1, getDescriptor().getDeploymentsByService("service-2").size());
+        assertEquals(2, getDescriptor().getArchivedDeploymentsByService("service-1").size());
+
+        // Archived deployments are not restored by the journal
+        getDescriptor().load();
+        assertEquals(3, getDescriptor().getRunOperations().size());
+    }
+
+}
@@ -6,6 +6,7 @@ import org.junit.Test;
 import java.io.File;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.*;
 
@@ -22,6 +23,9 @@ public class QualityAuditActivityTest {
         assertNull(activity.getHotspotScore());
         assertFalse(activity.isQualityGatePassed());
         assertFalse(activity.isComplete());
+        assertTrue(activity.isPending());
+        assertFalse(activity.isFailed());
+        assertNull(activity.getError());
         assertFalse(activity.hasIssues());
         assertNotNull(activity.getBugs());
         assertNotNull(activity.getVulnerabilities());
@@ -70,4 +74,39 @@ public class QualityAuditActivityTest {
         assertEquals("5k", activity.getLinesCountStr());
     }
 
+    @Test
+    public void testIssuesAndHotspots() throws Exception {
+        QualityAuditActivity activity = new QualityAuditActivity("Application component");
+        ObjectMapper mapper = new ObjectMapper();
+        List<Map<String, Object>> issues = mapper.readValue(new File("src/test/resources/sonar-issues.json"), List.class);
+        List<Map<String, Object>> hotspots = mapper.readValue(new File("src/test/resources/sonar-hotspots.json"), List.class);
+        activity.setQualityIssues(
+                issues.stream().map(QualityIssue::new).collect(Collectors.toList()),
+                hotspots.stream().map(SecurityHotspot::new).collect(Collectors.toList())
+        );
+        assertEquals(3, activity.getBugCount());
+        assertEquals(4, activity.getVulnerabilityCount());
+        assertEquals(2, activity.getHotspotCount());
+        assertEquals(3, activity.getBugs().size());
+        assertEquals(4, activity.getVulnerabilities().size());
+        assertEquals(2, activity.getHotspots().size());
+    }
+
+    @Test
+    public void testFailed() {
+        QualityAuditActivity activity = new QualityAuditActivity("Application component");
+        activity.setFailed("Connection refused");
+        assertFalse(activity.isComplete());
+        assertFalse(activity.isPending());
+        assertTrue(activity.isFailed());
+        assertEquals("Connection refused", activity.getError());
+        // A new audit clears the failure
+        activity.setComplete(false);
+        assertTrue(activity.isPending());
+        assertNull(activity.getError());
+        activity.setFailed("Connection refused");
+        activity.setComplete(true);
+        assertFalse(activity.isFailed());
+    }
+
 }
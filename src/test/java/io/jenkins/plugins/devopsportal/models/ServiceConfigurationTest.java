@@ -93,6 +93,33 @@ public class ServiceConfigurationTest {
         assertEquals("", service.getHostname());
     }
 
+    @Test
+    public void testMonitoringInterval() {
+        ServiceConfiguration service = getDescriptor().getService("Server 1").orElse(null);
+        assertNotNull(service);
+        assertEquals(300, service.getMonitoringInterval());
+        service.setDelayMonitoringSeconds(15);
+        assertEquals(15, service.getMonitoringInterval());
+        service.setDelayMonitoringSeconds(1);
+        assertEquals(ServiceConfiguration.MIN_MONITORING_INTERVAL, service.getMonitoringInterval());
+        assertEquals(FormValidation.ok(), getDescriptor().doCheckDelayMonitoringSeconds(0));
+        assertEquals(FormValidation.ok(), getDescriptor().doCheckDelayMonitoringSeconds(10));
+        assertNotEquals(FormValidation.ok(), getDescriptor().doCheckDelayMonitoringSeconds(2));
+    }
+
+    @Test
+    public void testAgentLabel() {
+        ServiceConfiguration service = getDescriptor().getService("Server 1").orElse(null);
+        assertNotNull(service);
+        assertNull(service.getAgentLabel());
+        service.setAgentLabel("  ");
+        assertNull(service.getAgentLabel());
+        service.setAgentLabel(" linux && dmz ");
+        assertEquals("linux && dmz", service.getAgentLabel());
+        assertEquals(FormValidation.ok(), getDescriptor().doCheckAgentLabel(""));
+        assertEquals(FormValidation.Kind.WARNING, getDescriptor().doCheckAgentLabel("unknown-zone").kind);
+    }
+
     @Test
     public void testDescriptor() {
         Descriptor<?> descriptor = jenkins.getInstance().getDescriptor(ServiceConfiguration.class);
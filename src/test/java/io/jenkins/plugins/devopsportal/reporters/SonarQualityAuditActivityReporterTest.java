@@ -1,5 +1,6 @@
 package io.jenkins.plugins.devopsportal.reporters;
 
+import hudson.FilePath;
 import hudson.model.FreeStyleProject;
 import hudson.model.Label;
 import hudson.model.Result;
@@ -10,6 +11,10 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.jvnet.hudson.test.JenkinsRule;
 
+import java.io.File;
+
+import static org.junit.Assert.*;
+
 public class SonarQualityAuditActivityReporterTest {
 
     @Rule
@@ -58,4 +63,16 @@ public class SonarQualityAuditActivityReporterTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testCeTaskId() throws Exception {
+        FilePath workspace = new FilePath(new File(jenkins.jenkins.getRootDir(), "workspace-sonar"));
+        assertNull(SonarQualityAuditActivityReporter.getCeTaskId(workspace, "project-key"));
+        workspace.child("target/sonar/report-task.txt").write(
+                "projectKey=other-key\nceTaskId=AX-other\n", "UTF-8");
+        assertNull(SonarQualityAuditActivityReporter.getCeTaskId(workspace, "project-key"));
+        workspace.child(".scannerwork/report-task.txt").write(
+                "projectKey=project-key\nserverUrl=https://sonar.mydomain.com\nceTaskId=AX-task\n", "UTF-8");
+        assertEquals("AX-task", SonarQualityAuditActivityReporter.getCeTaskId(workspace, "project-key"));
+    }
+
+}
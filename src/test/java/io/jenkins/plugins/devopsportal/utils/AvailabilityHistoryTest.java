@@ -0,0 +1,70 @@
+package io.jenkins.plugins.devopsportal.utils;
+
+import io.jenkins.plugins.devopsportal.models.MonitoringStatus;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AvailabilityHistoryTest {
+
+    private static final long START = 1700000000L - 1700000000L % 86400L;
+
+    @Test
+    public void testUptime() {
+        AvailabilityHistory history = new AvailabilityHistory("test");
+        assertEquals(-1, history.getUptime(START, START + 86400L), 0);
+        // One probe per minute during one day, down between 10:00 and 10:30
+        for (long t = START; t < START + 86400L; t += 60) {
+            boolean down = t >= START + 36000L && t < START + 37800L;
+            history.record(t, down ? MonitoringStatus.FAILURE : MonitoringStatus.SUCCESS, 10);
+        }
+        assertEquals(100.0 * (1440 - 30) / 1440, history.getUptime(START, START + 86400L), 0.001);
+        assertEquals(100.0, history.getUptime(START, START + 36000L), 0.001);
+        assertEquals(0.0, history.getUptime(START + 36000L, START + 37800L), 0.001);
+        // Over 30 days, hour buckets are used
+        assertEquals(100.0 * (1440 - 30) / 1440, history.getUptime(START - 29 * 86400L, START + 86400L), 0.001);
+
+        double[] uptimes = history.getUptimes(START, START + 86400L, 48);
+        assertEquals(48, uptimes.length);
+        assertEquals(100.0, uptimes[0], 0.001);
+        assertEquals(0.0, uptimes[20], 0.001);
+        assertEquals(-1, history.getUptimes(START - 86400L, START, 48)[0], 0);
+    }
+
+    @Test
+    public void testIncidents() {
+        AvailabilityHistory history = new AvailabilityHistory("test");
+        history.record(START, MonitoringStatus.SUCCESS, 10);
+        history.record(START + 60, MonitoringStatus.FAILURE, -1);
+        history.record(START + 120, MonitoringStatus.INVALID_HTTPS, -1);
+        history.record(START + 180, MonitoringStatus.SUCCESS, 10);
+        history.record(START + 240, MonitoringStatus.FAILURE, -1);
+        history.record(START + 600, MonitoringStatus.SUCCESS, 10);
+        history.record(START + 660, MonitoringStatus.FAILURE, -1);
+        List<AvailabilityHistory.Incident> incidents = history.getIncidents(START);
+        assertEquals(3, incidents.size());
+        assertTrue(incidents.get(0).isOpen());
+        assertEquals(START + 240, incidents.get(1).getStart());
+        assertEquals(360, incidents.get(1).getDuration());
+        assertEquals(MonitoringStatus.FAILURE, incidents.get(2).getStatus());
+        assertEquals(120, incidents.get(2).getDuration());
+        assertEquals(240, history.getMeanTimeToRecovery(START));
+        assertEquals(2, history.getIncidents(START + 300).size());
+        assertEquals(7, history.getProbes().size());
+        assertEquals(START + 660, history.getProbes().get(0).getTimestamp());
+    }
+
+    @Test
+    public void testConstantSize() {
+        AvailabilityHistory history = new AvailabilityHistory("test");
+        for (long t = START; t < START + 500 * 86400L; t += 3600) {
+            history.record(t, t % 7200 == 0 ? MonitoringStatus.SUCCESS : MonitoringStatus.FAILURE, 10);
+        }
+        assertEquals(AvailabilityHistory.RAW_SIZE, history.getProbes().size());
+        assertEquals(AvailabilityHistory.INCIDENTS_SIZE, history.getIncidents(0).size());
+        assertEquals(50.0, history.getUptime(START + 400 * 86400L, START + 500 * 86400L), 0.001);
+    }
+
+}
@@ -0,0 +1,57 @@
+package io.jenkins.plugins.devopsportal.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CircuitBreakerTest {
+
+    @Test
+    public void testOpenAndClose() {
+        CircuitBreaker breaker = new CircuitBreaker(3, 60000L);
+        long now = 1000000L;
+        // Successes reset the consecutive failures
+        breaker.onFailure(now);
+        breaker.onFailure(now);
+        breaker.onSuccess();
+        breaker.onFailure(now);
+        breaker.onFailure(now);
+        assertTrue(breaker.tryAcquire(now));
+        assertFalse(breaker.isOpen(now));
+        // Opened by the third consecutive failure
+        breaker.onFailure(now);
+        assertTrue(breaker.isOpen(now));
+        assertEquals(now + 60000L, breaker.getOpenUntil());
+        assertFalse(breaker.tryAcquire(now + 59999L));
+        // A single trial call once the open duration has elapsed
+        assertTrue(breaker.tryAcquire(now + 60000L));
+        assertFalse(breaker.tryAcquire(now + 60000L));
+        assertTrue(breaker.isOpen(now + 60000L));
+        assertEquals(now + 60000L, breaker.getRetryAt(now + 59000L));
+        // Calls refused while the trial is running are retried after another open duration
+        assertEquals(now + 125000L, breaker.getRetryAt(now + 65000L));
+        // A failed trial opens the circuit again
+        breaker.onFailure(now + 61000L);
+        assertFalse(breaker.tryAcquire(now + 62000L));
+        assertEquals(now + 121000L, breaker.getOpenUntil());
+        // A successful trial closes it
+        assertTrue(breaker.tryAcquire(now + 121000L));
+        breaker.onSuccess();
+        assertFalse(breaker.isOpen(now + 121000L));
+        assertEquals(0L, breaker.getOpenUntil());
+        assertEquals(0L, breaker.getRetryAt(now + 121000L));
+        assertTrue(breaker.tryAcquire(now + 121000L));
+    }
+
+    @Test
+    public void testRelease() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 1000L);
+        breaker.onFailure(0L);
+        assertTrue(breaker.tryAcquire(1000L));
+        assertFalse(breaker.tryAcquire(1000L));
+        // The trial was not made: another one is allowed
+        breaker.release();
+        assertTrue(breaker.tryAcquire(1000L));
+    }
+
+}
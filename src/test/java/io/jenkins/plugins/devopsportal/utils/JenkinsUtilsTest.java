@@ -44,4 +44,24 @@ public class JenkinsUtilsTest {
         assertFalse(JenkinsUtils.getBuild("Project G", null, "1").isPresent());
     }
 
+    @Test
+    public void testGetBuildCacheInvalidation() throws Exception {
+        assertFalse(JenkinsUtils.getBuild("Project H", null, "1").isPresent());
+
+        // Created jobs are resolved, even if a missing job was cached
+        MockFolder folder = jenkins.createFolder("Folder H");
+        FreeStyleProject project = folder.createProject(FreeStyleProject.class, "Project H");
+        jenkins.buildAndAssertSuccess(project);
+        assertTrue(JenkinsUtils.getBuild("Project H", null, "1").isPresent());
+        assertTrue(JenkinsUtils.getBuild("Folder H/Project H", null, "1").isPresent());
+
+        // Renamed jobs are resolved by their new name only
+        project.renameTo("Project I");
+        assertFalse(JenkinsUtils.getBuild("Project H", null, "1").isPresent());
+        assertTrue(JenkinsUtils.getBuild("Project I", null, "1").isPresent());
+
+        project.delete();
+        assertFalse(JenkinsUtils.getBuild("Project I", null, "1").isPresent());
+    }
+
 }
@@ -0,0 +1,82 @@
+package io.jenkins.plugins.devopsportal.utils;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram(0);
+        assertEquals(-1, LatencyHistogram.getPercentile(50, histogram));
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 10L);
+        }
+        assertEquals(100, histogram.getCount());
+        assertWithinPrecision(500, LatencyHistogram.getPercentile(50, histogram));
+        assertWithinPrecision(950, LatencyHistogram.getPercentile(95, histogram));
+        assertWithinPrecision(990, LatencyHistogram.getPercentile(99, histogram));
+        assertWithinPrecision(1000, LatencyHistogram.getPercentile(100, histogram));
+        // Small values are exact
+        histogram = new LatencyHistogram(0);
+        histogram.record(3);
+        histogram.record(7);
+        assertEquals(3, LatencyHistogram.getPercentile(50, histogram));
+        assertEquals(7, LatencyHistogram.getPercentile(99, histogram));
+    }
+
+    @Test
+    public void testMerge() {
+        LatencyHistogram first = new LatencyHistogram(0);
+        LatencyHistogram second = new LatencyHistogram(3600);
+        first.record(10);
+        second.record(20);
+        second.record(30);
+        assertEquals(20, LatencyHistogram.getPercentile(50, first, null, second));
+        assertEquals(10, LatencyHistogram.getPercentile(50, first, null));
+    }
+
+    @Test
+    public void testBounds() {
+        LatencyHistogram histogram = new LatencyHistogram(0);
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(0, LatencyHistogram.getPercentile(50, histogram));
+        assertEquals(600000, LatencyHistogram.getPercentile(100, histogram));
+        assertTrue(LatencyHistogram.BUCKETS < 300);
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram(0);
+        histogram.record(10);
+        histogram.record(1000);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(histogram);
+        }
+        // Samples recorded after a save are kept
+        histogram.record(1000);
+        LatencyHistogram restored;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restored = (LatencyHistogram) in.readObject();
+        }
+        assertEquals(2, restored.getCount());
+        assertEquals(10, LatencyHistogram.getPercentile(50, restored));
+        assertWithinPrecision(1000, LatencyHistogram.getPercentile(100, restored));
+        assertEquals(3, histogram.getCount());
+        assertWithinPrecision(1000, LatencyHistogram.getPercentile(50, histogram));
+    }
+
+    private static void assertWithinPrecision(long expected, long actual) {
+        assertTrue("Expected ~" + expected + " but was " + actual,
+                actual >= expected && actual <= expected * 1.04 + 1);
+    }
+
+}
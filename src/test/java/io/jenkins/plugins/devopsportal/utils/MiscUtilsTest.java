@@ -158,4 +158,15 @@ public class MiscUtilsTest {
         assertEquals(0, MiscUtils.getIntOrZero("1024f"));
     }
 
+    @Test
+    public void testNormalizeURL() {
+        assertEquals("https://foo.mydomain.com/", MiscUtils.normalizeURL(" HTTPS://Foo.MyDomain.com:443 "));
+        assertEquals("http://foo.mydomain.com:8080/health?full=1",
+                MiscUtils.normalizeURL("http://foo.mydomain.com:8080/health?full=1#top"));
+        assertEquals("http://foo.mydomain.com/", MiscUtils.normalizeURL("http://foo.mydomain.com:80/"));
+        assertEquals("tcp://db.mydomain.com:5432/", MiscUtils.normalizeURL("tcp://DB.mydomain.com:5432"));
+        assertEquals("not an url", MiscUtils.normalizeURL("not an url"));
+        assertEquals("", MiscUtils.normalizeURL(null));
+    }
+
 }
@@ -0,0 +1,144 @@
+package io.jenkins.plugins.devopsportal.utils;
+
+import com.sun.net.httpserver.HttpServer;
+import io.jenkins.plugins.devopsportal.models.MonitoringStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ServiceProbeTest {
+
+    private HttpServer server;
+
+    @Before
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/ok", exchange -> {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.createContext("/unavailable", exchange -> {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(2000);
+            }
+            catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    private String getUrl(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+
+    @Test
+    public void testSuccess() {
+        ServiceProbeResult result = new ServiceProbe(getUrl("/ok"), false, 1000, 1000).run();
+        assertEquals(MonitoringStatus.SUCCESS, result.getStatus());
+        assertNull(result.getMessage());
+        assertFalse(result.isCertificateChecked());
+        assertNotNull(result.getTimings());
+        assertTrue(result.getTimings().getTotal() >= result.getTimings().getFirstByte());
+        assertEquals(0, result.getTimings().getTls());
+    }
+
+    @Test
+    public void testFailure() {
+        ServiceProbeResult result = new ServiceProbe(getUrl("/unavailable"), false, 1000, 1000).run();
+        assertEquals(MonitoringStatus.FAILURE, result.getStatus());
+        assertEquals("HTTP Status: 503", result.getMessage());
+        assertNotNull(result.getTimings());
+    }
+
+    @Test
+    public void testReadTimeout() {
+        long start = System.currentTimeMillis();
+        ServiceProbeResult result = new ServiceProbe(getUrl("/slow"), false, 1000, 200).run();
+        assertEquals(MonitoringStatus.FAILURE, result.getStatus());
+        assertTrue(result.getMessage().startsWith("SocketTimeoutException"));
+        assertTrue(System.currentTimeMillis() - start < 2000);
+        assertNull(result.getTimings());
+    }
+
+    @Test
+    public void testCertificateCheckWithoutTls() {
+        for (boolean standalone : new boolean[] { false, true }) {
+            ServiceProbe probe = new ServiceProbe(getUrl("/ok"), false, 1000, 1000);
+            probe.setCertificateCheck(true);
+            probe.setStandaloneCertificateCheck(standalone);
+            ServiceProbeResult result = probe.run();
+            assertTrue(result.isSuccess());
+            assertTrue(result.isCertificateChecked());
+            assertEquals(0, result.getCertificateExpiration());
+        }
+    }
+
+    @Test
+    public void testInvalidConfiguration() {
+        ServiceProbe probe = new ServiceProbe("not an url", false, 1000, 1000);
+        probe.setCertificateCheck(true);
+        ServiceProbeResult result = probe.run();
+        assertEquals(MonitoringStatus.INVALID_CONFIGURATION, result.getStatus());
+        assertTrue(result.isCertificateChecked());
+        assertEquals(0, result.getCertificateExpiration());
+    }
+
+    @Test
+    public void testConnectionReuse() {
+        MonitoringHttpClient.shutdown();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(new ServiceProbe(getUrl("/ok"), false, 1000, 1000).run().isSuccess());
+        }
+        // The connection is kept in the pool of the strict client
+        assertTrue(MonitoringHttpClient.getStatistics().startsWith("strict [leased: 0; pending: 0; available: 1;"));
+        assertTrue(MonitoringHttpClient.getStatistics().endsWith("trust-all -"));
+    }
+
+    @Test
+    public void testRemoteBatch() throws Exception {
+        RemoteServiceProbes callable = new RemoteServiceProbes(Arrays.asList(
+                new ServiceProbe(getUrl("/unavailable"), false, 1000, 1000),
+                new ServiceProbe(getUrl("/ok"), false, 1000, 1000)), 4);
+        // Probes are sent to the agent, and results sent back, through serialization
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+            out.writeObject(callable);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray()))) {
+            callable = (RemoteServiceProbes) in.readObject();
+        }
+        List<ServiceProbeResult> results = callable.call();
+        buffer.reset();
+        try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+            out.writeObject(results);
+        }
+        assertEquals(2, results.size());
+        assertEquals(MonitoringStatus.FAILURE, results.get(0).getStatus());
+        assertEquals(MonitoringStatus.SUCCESS, results.get(1).getStatus());
+        assertNotNull(results.get(1).getTimings());
+    }
+
+}
@@ -0,0 +1,71 @@
+package io.jenkins.plugins.devopsportal.utils;
+
+import io.jenkins.plugins.devopsportal.models.QualityAuditActivity;
+import io.jenkins.plugins.devopsportal.models.QualityIssue;
+import io.jenkins.plugins.devopsportal.models.SecurityHotspot;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SonarApiClientTest {
+
+    @Test
+    public void testGetHost() {
+        assertEquals("https://sonar.mydomain.com:443", SonarApiClient.getHost("https://sonar.mydomain.com"));
+        assertEquals("https://sonar.mydomain.com:443", SonarApiClient.getHost("HTTPS://Sonar.MyDomain.com/sonar/"));
+        assertEquals("http://sonar.mydomain.com:80", SonarApiClient.getHost(" http://sonar.mydomain.com "));
+        assertEquals("http://sonar.mydomain.com:9000", SonarApiClient.getHost("http://sonar.mydomain.com:9000/api"));
+        assertEquals("not an url", SonarApiClient.getHost("not an url"));
+    }
+
+    private InputStream getPage(String listAttribute, String file, int total) throws Exception {
+        String items = new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.UTF_8);
+        String json = "{\"total\":" + total + ",\"paging\":{\"pageIndex\":1,\"pageSize\":500,\"total\":" + total
+                + "},\"" + listAttribute + "\":" + items + ",\"components\":[{\"key\":\"io.my-component\"}]}";
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testReadIssues() throws Exception {
+        List<QualityIssue> issues = new ArrayList<>();
+        SonarApiClient.Page page = SonarApiClient.<QualityIssue>readPage(
+                getPage("issues", "src/test/resources/sonar-issues.json", 1200), "issues",
+                SonarApiClient.ISSUE_READER, issues::add);
+        assertEquals(71, page.count);
+        assertEquals(1200, page.total);
+        assertEquals(71, issues.size());
+        QualityIssue issue = issues.get(1);
+        assertEquals("BUG", issue.getType());
+        assertEquals("java:S1192", issue.getRule());
+        assertEquals("io.my-component:1.0:src/main/java/mypackage/views/BuildDashboard.java", issue.getFile());
+        assertEquals(177, issue.getLine());
+        assertEquals("2023-01-25T13:36:39+0000", issue.getCreation());
+        // Same result as the generic maps
+        QualityAuditActivity activity = new QualityAuditActivity("backend");
+        activity.setQualityIssues(issues);
+        assertEquals(3, activity.getBugCount());
+        assertEquals(4, activity.getVulnerabilityCount());
+    }
+
+    @Test
+    public void testReadHotspots() throws Exception {
+        List<SecurityHotspot> hotspots = new ArrayList<>();
+        SonarApiClient.Page page = SonarApiClient.<SecurityHotspot>readPage(
+                getPage("hotspots", "src/test/resources/sonar-hotspots.json", 2), "hotspots",
+                SonarApiClient.HOTSPOT_READER, hotspots::add);
+        assertEquals(2, page.count);
+        assertEquals(2, page.total);
+        assertEquals("auth", hotspots.get(0).getCategory());
+        assertEquals("HIGH", hotspots.get(0).getProbability());
+        assertEquals(129, hotspots.get(0).getLine());
+    }
+
+}
@@ -0,0 +1,28 @@
+package io.jenkins.plugins.devopsportal.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TokenBucketTest {
+
+    @Test
+    public void testRateLimit() {
+        long now = 1000000L;
+        TokenBucket bucket = new TokenBucket(10, 3, now);
+        // Burst up to the capacity
+        assertEquals(0L, bucket.reserve(now));
+        assertEquals(0L, bucket.reserve(now));
+        assertEquals(0L, bucket.reserve(now));
+        // Then one call every 100 ms, reserved in order
+        assertEquals(100L, bucket.reserve(now));
+        assertEquals(200L, bucket.reserve(now));
+        assertEquals(100L, bucket.reserve(now + 200L));
+        // Refilled up to the capacity only
+        assertEquals(0L, bucket.reserve(now + 10000L));
+        assertEquals(0L, bucket.reserve(now + 10000L));
+        assertEquals(0L, bucket.reserve(now + 10000L));
+        assertEquals(100L, bucket.reserve(now + 10000L));
+    }
+
+}
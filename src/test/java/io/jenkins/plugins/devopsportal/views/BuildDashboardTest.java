@@ -483,6 +483,23 @@ public class BuildDashboardTest {
         );
     }
 
+    @Test
+    public void testSummaryIsUpdatedWithActivities() {
+        ApplicationBuildSummary summary = getViewDescriptor().getSummary("My Application", "2.4.0");
+        assertSame(summary, getViewDescriptor().getSummary("My Application", "2.4.0"));
+        assertEquals("0", summary.getReleasesCount());
+
+        getApplicationDescriptor().update("My Application", "2.4.0", status -> {
+            ArtifactReleaseActivity release = new ArtifactReleaseActivity("backend");
+            release.setTags("docker,2.4.0");
+            status.setComponentActivityByCategory(ActivityCategory.ARTIFACT_RELEASE, "backend", release);
+        });
+        summary = getViewDescriptor().getSummary("My Application", "2.4.0");
+        assertEquals("1", summary.getReleasesCount());
+        assertEquals(Arrays.asList("docker", "2.4.0"), summary.getReleasesTags());
+        assertEquals("{good/heart-outline/Healthy}", summary.getRelease().toString());
+    }
+
     @Test
     public void testDoCheckFilter() {
         assertEquals(FormValidation.ok(), getViewDescriptor().doCheckFilter(null));
@@ -0,0 +1,166 @@
+package io.jenkins.plugins.devopsportal.workers;
+
+import com.sun.net.httpserver.HttpServer;
+import io.jenkins.plugins.devopsportal.models.MonitoringStatus;
+import io.jenkins.plugins.devopsportal.models.MonitoringTransition;
+import io.jenkins.plugins.devopsportal.models.ServiceConfiguration;
+import io.jenkins.plugins.devopsportal.models.ServiceMonitoring;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class MonitoringSchedulerTest {
+
+    @Rule
+    public JenkinsRule jenkins = new JenkinsRule();
+
+    private HttpServer server;
+    private final AtomicInteger hits = new AtomicInteger();
+
+    @Before
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            hits.incrementAndGet();
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        MonitoringScheduler.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    public void testSubMinuteInterval() throws Exception {
+        ServiceConfiguration service = new ServiceConfiguration(
+                "Critical",
+                "production",
+                "http://localhost:" + server.getAddress().getPort() + "/",
+                true,
+                5,
+                false
+        );
+        service.setDelayMonitoringSeconds(5);
+        MonitoringScheduler scheduler = MonitoringScheduler.get();
+        scheduler.reconcile(Collections.singletonList(service));
+        assertEquals(1, scheduler.getScheduledCount());
+
+        // Several probes within less than one minute
+        long deadline = System.currentTimeMillis() + 25000L;
+        while (hits.get() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(200);
+        }
+        assertTrue(hits.get() >= 3);
+        ServiceMonitoring record = jenkins.getInstance()
+                .getDescriptorByType(ServiceMonitoring.DescriptorImpl.class)
+                .getMonitoringByService(service.getId())
+                .orElse(null);
+        assertNotNull(record);
+        assertEquals(MonitoringStatus.SUCCESS, record.getCurrentMonitoringStatus());
+
+        // Removed services are no longer probed
+        scheduler.reconcile(Collections.emptyList());
+        assertEquals(0, scheduler.getScheduledCount());
+        Thread.sleep(1000);
+        int count = hits.get();
+        Thread.sleep(7000);
+        assertEquals(count, hits.get());
+    }
+
+    @Test
+    public void testSharedEndpoint() throws Exception {
+        final int port = server.getAddress().getPort();
+        ServiceConfiguration first = new ServiceConfiguration("Front", "production",
+                "http://localhost:" + port + "/", true, 5, false);
+        ServiceConfiguration second = new ServiceConfiguration("Front (staging view)", "staging",
+                "http://LOCALHOST:" + port + "/#status", true, 5, false);
+        ServiceConfiguration other = new ServiceConfiguration("Front (trust all)", "staging",
+                "http://localhost:" + port + "/", true, 5, true);
+        first.setDelayMonitoringSeconds(5);
+        second.setDelayMonitoringSeconds(10);
+        other.setDelayMonitoringSeconds(3600);
+        MonitoringScheduler scheduler = MonitoringScheduler.get();
+        scheduler.reconcile(Arrays.asList(first, second, other));
+        assertEquals(2, scheduler.getScheduledCount());
+        assertEquals(3, scheduler.getServiceCount());
+
+        // One probe per cycle, applied to both services
+        long deadline = System.currentTimeMillis() + 25000L;
+        while (hits.get() < 4 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(200);
+        }
+        ServiceMonitoring.DescriptorImpl descriptor = jenkins.getInstance()
+                .getDescriptorByType(ServiceMonitoring.DescriptorImpl.class);
+        ServiceMonitoring firstRecord = descriptor.getMonitoringByService(first.getId()).orElse(null);
+        ServiceMonitoring secondRecord = descriptor.getMonitoringByService(second.getId()).orElse(null);
+        assertNotNull(firstRecord);
+        assertNotNull(secondRecord);
+        assertEquals(firstRecord.getLastUpdateTimestamp(), secondRecord.getLastUpdateTimestamp());
+        assertEquals(MonitoringStatus.SUCCESS, secondRecord.getCurrentMonitoringStatus());
+    }
+
+    @Test
+    public void testJitter() {
+        for (int i = 0; i < 100; i++) {
+            long delay = MonitoringScheduler.jitter(10000, 10);
+            assertTrue(delay >= 9000 && delay <= 11000);
+        }
+        assertEquals(10000, MonitoringScheduler.jitter(10000, 0));
+    }
+
+    @Test
+    public void testAdaptiveDelay() {
+        ServiceMonitoring record = new ServiceMonitoring("service-1");
+        record.setCurrentMonitoringStatus(MonitoringStatus.SUCCESS);
+        assertEquals(300, MonitoringScheduler.getDelay(300, null));
+        assertEquals(300, MonitoringScheduler.getDelay(300, record));
+        // First failure is confirmed quickly
+        record.setFailure(MonitoringStatus.FAILURE, "Connection refused");
+        assertEquals(MonitoringScheduler.RECHECK_DELAY, MonitoringScheduler.getDelay(300, record));
+        assertEquals(5, MonitoringScheduler.getDelay(5, record));
+        // Then backoff while the service stays down
+        record.setFailure(MonitoringStatus.FAILURE, "Connection refused");
+        assertEquals(300, MonitoringScheduler.getDelay(300, record));
+        record.setFailure(MonitoringStatus.FAILURE, "Connection refused");
+        assertEquals(600, MonitoringScheduler.getDelay(300, record));
+        record.setFailureCount(100);
+        assertEquals(MonitoringScheduler.MAX_BACKOFF, MonitoringScheduler.getDelay(300, record));
+        assertEquals(3600, MonitoringScheduler.getDelay(3600, record));
+    }
+
+    @Test
+    public void testFlapping() {
+        ServiceMonitoring record = new ServiceMonitoring("service-1");
+        for (int i = 0; i < 6; i++) {
+            record.addTransition(new MonitoringTransition(1000 + i * 60,
+                    i % 2 == 0 ? MonitoringStatus.SUCCESS : MonitoringStatus.FAILURE,
+                    i % 2 == 0 ? MonitoringStatus.FAILURE : MonitoringStatus.SUCCESS));
+        }
+        assertFalse(record.updateFlapping(2000, 5));
+        assertTrue(record.updateFlapping(1000, 5));
+        assertTrue(record.isFlapping());
+        record.setFailure(MonitoringStatus.FAILURE, "Connection refused");
+        record.setFailureCount(3);
+        assertEquals(300, MonitoringScheduler.getDelay(300, record));
+        // Hysteresis
+        assertFalse(record.updateFlapping(1100, 5));
+        assertTrue(record.updateFlapping(1200, 5));
+        assertFalse(record.isFlapping());
+        assertEquals(6, record.getTransitions().size());
+        assertEquals(1300, record.getTransitions().get(0).getTimestamp());
+    }
+
+}
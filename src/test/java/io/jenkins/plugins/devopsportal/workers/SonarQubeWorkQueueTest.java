@@ -0,0 +1,138 @@
+package io.jenkins.plugins.devopsportal.workers;
+
+import hudson.XmlFile;
+import hudson.util.Secret;
+import io.jenkins.plugins.devopsportal.workers.SonarQubeWorkQueue.WorkItem;
+import jenkins.model.Jenkins;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SonarQubeWorkQueueTest {
+
+    @Rule
+    public JenkinsRule jenkins = new JenkinsRule();
+
+    private XmlFile getFile() {
+        return new XmlFile(Jenkins.XSTREAM2, new File(jenkins.jenkins.getRootDir(), "sonar-queue-test.xml"));
+    }
+
+    private WorkItem getItem(String buildNumber, String applicationComponent) {
+        return getItem(buildNumber, applicationComponent, null);
+    }
+
+    private WorkItem getItem(String buildNumber, String applicationComponent, String ceTaskId) {
+        return new WorkItem("My pipeline", buildNumber, "project-key", "https://sonar.mydomain.com",
+                Secret.fromString("my-token"), "My Application", "1.0.3", applicationComponent, false,
+                ceTaskId, 0L);
+    }
+
+    @Test
+    public void testDeduplication() {
+        SonarQubeWorkQueue queue = SonarQubeWorkQueue.create(getFile());
+        WorkItem item1 = getItem("1", "backend");
+        WorkItem item2 = getItem("2", "backend");
+        WorkItem item3 = getItem("2", "frontend");
+        assertNull(queue.enqueue(item1));
+        assertSame(item1, queue.enqueue(item2));
+        assertNull(queue.enqueue(item3));
+        assertEquals(2, queue.size());
+        // Acknowledging a replaced item keeps the new one
+        assertFalse(queue.ack(item1));
+        assertTrue(queue.contains("My Application", "1.0.3", "backend"));
+        assertTrue(queue.ack(item2));
+        assertFalse(queue.contains("My Application", "1.0.3", "backend"));
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void testLeaseAndRetry() {
+        SonarQubeWorkQueue queue = SonarQubeWorkQueue.create(getFile());
+        WorkItem item = getItem("1", "backend");
+        queue.enqueue(item);
+        long now = 1000000L;
+        assertEquals(1, queue.lease(now).size());
+        // Leased items are not given twice, until the lease expires
+        assertTrue(queue.lease(now + 1000L).isEmpty());
+        assertEquals(1, queue.lease(now + SonarQubeWorkQueue.LEASE_TIMEOUT * 1000L).size());
+        // Failed items are delayed
+        assertTrue(queue.retry(item, now));
+        assertEquals(1, item.getAttempts());
+        assertTrue(queue.lease(now + 59000L).isEmpty());
+        assertEquals(1, queue.lease(now + 60000L).size());
+        assertTrue(queue.retry(item, now + 60000L));
+        assertEquals(now + 180000L, item.getNextAttempt());
+    }
+
+    @Test
+    public void testRetryDelay() {
+        assertEquals(60L, SonarQubeWorkQueue.getRetryDelay(1));
+        assertEquals(120L, SonarQubeWorkQueue.getRetryDelay(2));
+        assertEquals(240L, SonarQubeWorkQueue.getRetryDelay(3));
+        assertEquals(3600L, SonarQubeWorkQueue.getRetryDelay(8));
+        assertEquals(3600L, SonarQubeWorkQueue.getRetryDelay(100));
+    }
+
+    @Test
+    public void testMaxAttempts() {
+        SonarQubeWorkQueue queue = SonarQubeWorkQueue.create(getFile());
+        WorkItem item = getItem("1", "backend");
+        queue.enqueue(item);
+        for (int i = 1; i < SonarQubeWorkQueue.MAX_ATTEMPTS; i++) {
+            assertTrue(queue.retry(item, 0L));
+        }
+        assertFalse(queue.retry(item, 0L));
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testPersistence() throws Exception {
+        SonarQubeWorkQueue queue = SonarQubeWorkQueue.create(getFile());
+        WorkItem item = getItem("1", "backend");
+        queue.enqueue(item);
+        queue.lease(0L);
+        queue.retry(item, 0L);
+        queue.save();
+        SonarQubeWorkQueue loaded = SonarQubeWorkQueue.load(getFile());
+        assertEquals(1, loaded.size());
+        assertTrue(loaded.contains("My Application", "1.0.3", "backend"));
+        List<WorkItem> items = loaded.lease(System.currentTimeMillis());
+        assertEquals(1, items.size());
+        assertEquals(1, items.get(0).getAttempts());
+        assertEquals("my-token", items.get(0).getSonarToken().getPlainText());
+        assertFalse(getFile().asString().contains("my-token"));
+    }
+
+    @Test
+    public void testAnalysisReady() {
+        SonarQubeWorkQueue queue = SonarQubeWorkQueue.create(getFile());
+        WorkItem item1 = getItem("1", "backend", "task-1");
+        WorkItem item2 = getItem("1", "frontend", null);
+        queue.enqueue(item1);
+        queue.enqueue(item2);
+        long now = 1000000L;
+        assertEquals(2, queue.lease(now).size());
+        // Waiting for the analysis: not counted as a failure
+        queue.defer(item1, now, 10L);
+        queue.defer(item2, now, 10L);
+        assertEquals(0, item1.getAttempts());
+        assertTrue(queue.lease(now + 5000L).isEmpty());
+        // Notifications of other projects or tasks are ignored
+        assertTrue(queue.setAnalysisReady("other-key", null).isEmpty());
+        assertEquals(1, queue.setAnalysisReady("project-key", "task-2").size());
+        assertTrue(item2.isAnalysisReady());
+        assertFalse(item1.isAnalysisReady());
+        assertEquals(1, queue.setAnalysisReady("project-key", "task-1").size());
+        assertTrue(item1.isAnalysisReady());
+        // Ready items are due right away, and leased once
+        assertTrue(queue.lease(item1, now + 5000L));
+        assertFalse(queue.lease(item1, now + 5000L));
+        assertEquals(1, queue.lease(now + 5000L).size());
+    }
+
+}